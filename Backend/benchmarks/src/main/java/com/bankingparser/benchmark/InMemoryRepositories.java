@@ -0,0 +1,103 @@
+package com.bankingparser.benchmark;
+
+import com.bankingparser.model.Bank;
+import com.bankingparser.model.MerchantCategory;
+import com.bankingparser.model.Pattern;
+import com.bankingparser.repository.BankRepository;
+import com.bankingparser.repository.MerchantCategoryRepository;
+import com.bankingparser.repository.PatternRepository;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * List-backed stand-ins for the JPA repositories used on the parsing path.
+ *
+ * Only the query methods the parser calls are implemented; anything else throws
+ * UnsupportedOperationException so a new repository call on the hot path is noticed.
+ */
+public final class InMemoryRepositories {
+
+    private InMemoryRepositories() {
+    }
+
+    public static PatternRepository patterns(List<Pattern> patterns) {
+        List<Pattern> rows = List.copyOf(patterns);
+        return proxy(PatternRepository.class, Map.of(
+                "findAll", args -> rows,
+                "findByStatus", args -> withStatus(rows, (String) args[0]),
+                "findByStatusOrderByPatternIdAsc", args -> {
+                    List<Pattern> result = withStatus(rows, (String) args[0]);
+                    result.sort(Comparator.comparing(Pattern::getPatternId));
+                    return result;
+                },
+                "save", args -> args[0]
+        ));
+    }
+
+    public static BankRepository banks(List<Bank> banks) {
+        List<Bank> rows = List.copyOf(banks);
+        return proxy(BankRepository.class, Map.of(
+                "findAll", args -> rows,
+                "findByBankname", args -> rows.stream()
+                        .filter(bank -> bank.getBankname().equals(args[0]))
+                        .findFirst()
+        ));
+    }
+
+    /**
+     * Merchant table that also keeps rows saved at runtime, like the real table
+     */
+    public static MerchantCategoryRepository merchants(List<MerchantCategory> merchants) {
+        Map<String, MerchantCategory> rows = new ConcurrentHashMap<>();
+        for (MerchantCategory merchant : merchants) {
+            rows.put(merchant.getMerchantName().toUpperCase(), merchant);
+        }
+        return proxy(MerchantCategoryRepository.class, Map.of(
+                "findAll", args -> new ArrayList<>(rows.values()),
+                "findByMerchantNameIgnoreCase", args ->
+                        Optional.ofNullable(rows.get(((String) args[0]).toUpperCase())),
+                "save", args -> {
+                    MerchantCategory merchant = (MerchantCategory) args[0];
+                    rows.putIfAbsent(merchant.getMerchantName().toUpperCase(), merchant);
+                    return merchant;
+                }
+        ));
+    }
+
+    private static List<Pattern> withStatus(List<Pattern> rows, String status) {
+        List<Pattern> result = new ArrayList<>();
+        for (Pattern pattern : rows) {
+            if (status.equals(pattern.getStatus())) {
+                result.add(pattern);
+            }
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <R> R proxy(Class<R> type, Map<String, Function<Object[], Object>> methods) {
+        return (R) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Function<Object[], Object> implementation = methods.get(method.getName());
+            if (implementation != null) {
+                return implementation.apply(args);
+            }
+            switch (method.getName()) {
+                case "toString":
+                    return "InMemory" + type.getSimpleName();
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                default:
+                    throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName());
+            }
+        });
+    }
+}
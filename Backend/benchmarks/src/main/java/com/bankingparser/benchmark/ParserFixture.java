@@ -0,0 +1,113 @@
+package com.bankingparser.benchmark;
+
+import com.bankingparser.metrics.PipelineMetrics;
+import com.bankingparser.model.MerchantCategory;
+import com.bankingparser.parser.BankResolver;
+import com.bankingparser.parser.PatternMatcher;
+import com.bankingparser.parser.PatternRegistry;
+import com.bankingparser.service.FailedClusterService;
+import com.bankingparser.service.FailedPatternWriter;
+import com.bankingparser.service.GroqMerchantClassifier;
+import com.bankingparser.service.MerchantCategoryService;
+import com.bankingparser.service.MerchantIndex;
+import com.bankingparser.service.RegexService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+/**
+ * The parsing services wired by hand over in-memory repositories, with the same
+ * defaults application.properties uses. No Spring context, database or network:
+ * the LLM fallback stays off because no groq.api.key is set. Metrics are recorded
+ * into a SimpleMeterRegistry, so their cost is part of every measurement.
+ */
+public final class ParserFixture {
+
+    private final SmsCorpus corpus;
+    private final PipelineMetrics pipelineMetrics = new PipelineMetrics(new SimpleMeterRegistry());
+    private final PatternRegistry patternRegistry = new PatternRegistry();
+    private final MerchantCategoryService merchantCategoryService = new MerchantCategoryService();
+    private final ForkJoinPool bulkParsePool;
+    private final RegexService regexService = new RegexService();
+
+    public ParserFixture(SmsCorpus corpus, boolean bulkParallel) {
+        this(corpus, bulkParallel, "regex");
+    }
+
+    /**
+     * @param engine parser.engine value: regex or automaton
+     */
+    public ParserFixture(SmsCorpus corpus, boolean bulkParallel, String engine) {
+        this.corpus = corpus;
+        this.bulkParsePool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+        setField(patternRegistry, "patternRepository", InMemoryRepositories.patterns(corpus.getPatterns()));
+        setField(patternRegistry, "engineName", engine);
+        patternRegistry.init();
+
+        BankResolver bankResolver = new BankResolver();
+        setField(bankResolver, "bankRepository", InMemoryRepositories.banks(corpus.getBanks()));
+        bankResolver.init();
+
+        PatternMatcher patternMatcher = new PatternMatcher();
+        setField(patternMatcher, "patternRegistry", patternRegistry);
+        setField(patternMatcher, "pipelineMetrics", pipelineMetrics);
+        setField(patternMatcher, "maxSteps", 1_000_000L);
+        setField(patternMatcher, "timeoutMillis", 50L);
+        setField(patternMatcher, "quarantineAfter", 3);
+        setField(patternMatcher, "quarantineWindowMs", 600_000L);
+        patternMatcher.init();
+
+        setField(merchantCategoryService, "merchantCategoryRepository",
+                InMemoryRepositories.merchants(corpus.getMerchantCategories()));
+        setField(merchantCategoryService, "pipelineMetrics", pipelineMetrics);
+        GroqMerchantClassifier groqMerchantClassifier = new GroqMerchantClassifier();
+        setField(groqMerchantClassifier, "pipelineMetrics", pipelineMetrics);
+        setField(merchantCategoryService, "groqMerchantClassifier", groqMerchantClassifier);
+        MerchantIndex.Builder merchants = MerchantIndex.builder();
+        for (MerchantCategory merchant : corpus.getMerchantCategories()) {
+            merchants.add(merchant.getCanonicalKey(), merchant.getCategory());
+        }
+        setField(merchantCategoryService, "index", merchants.build());
+
+        // Never flushed: FAILED SMS only reach the in-memory queue and clusters
+        FailedPatternWriter failedPatternWriter = new FailedPatternWriter();
+        setField(failedPatternWriter, "failedClusterService", new FailedClusterService());
+        setField(failedPatternWriter, "capacity", 10_000);
+        setField(failedPatternWriter, "batchSize", 500);
+
+        setField(regexService, "failedPatternWriter", failedPatternWriter);
+        setField(regexService, "bankResolver", bankResolver);
+        setField(regexService, "merchantCategoryService", merchantCategoryService);
+        setField(regexService, "patternRegistry", patternRegistry);
+        setField(regexService, "patternMatcher", patternMatcher);
+        setField(regexService, "bulkParsePool", bulkParsePool);
+        setField(regexService, "objectMapper", new ObjectMapper());
+        setField(regexService, "pipelineMetrics", pipelineMetrics);
+        setField(regexService, "bulkParallelEnabled", bulkParallel);
+        setField(regexService, "bulkParallelThreshold", 256);
+    }
+
+    public SmsCorpus getCorpus() {
+        return corpus;
+    }
+
+    public RegexService getRegexService() {
+        return regexService;
+    }
+
+    public PatternRegistry getPatternRegistry() {
+        return patternRegistry;
+    }
+
+    public MerchantCategoryService getMerchantCategoryService() {
+        return merchantCategoryService;
+    }
+
+    public void close() {
+        bulkParsePool.shutdown();
+    }
+}
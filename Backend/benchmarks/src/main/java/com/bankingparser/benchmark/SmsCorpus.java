@@ -0,0 +1,226 @@
+package com.bankingparser.benchmark;
+
+import com.bankingparser.model.Bank;
+import com.bankingparser.model.MerchantCategory;
+import com.bankingparser.model.Pattern;
+import com.bankingparser.util.MerchantNames;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Deterministic multi-bank data set: banks, APPROVED patterns, merchant categories and SMS.
+ *
+ * Patterns are built from a handful of real-world SMS shapes (card spend, UPI debit,
+ * NEFT/IMPS credit, ATM withdrawal, bill payment). Banks usually run several wordings of
+ * the same shape; here variants differ by a trailing sender tag, so a set of any size
+ * stays distinct while every pattern still looks like a production one.
+ */
+public final class SmsCorpus {
+
+    private static final String[] BANKS = {
+            "HDFC Bank", "ICICI Bank", "SBI", "Axis Bank", "Kotak Bank",
+            "Yes Bank", "IDFC First", "PNB", "Bank of Baroda", "Canara Bank"
+    };
+
+    private static final String[] MERCHANTS = {
+            "ZOMATO", "SWIGGY", "AMAZON", "FLIPKART", "UBER", "OLA", "BIGBASKET", "APOLLO PHARMACY",
+            "INDIAN OIL", "BOOKMYSHOW", "AIRTEL", "JIO", "IRCTC", "MAKEMYTRIP", "DMART", "MYNTRA",
+            "NETFLIX", "TATA POWER", "RELIANCE FRESH", "BPCL"
+    };
+
+    private static final String[] CATEGORIES = {
+            "FOOD", "FOOD", "SHOPPING", "SHOPPING", "TRAVEL", "TRAVEL", "GROCERIES", "HEALTH",
+            "FUEL", "ENTERTAINMENT", "BILLS", "BILLS", "TRAVEL", "TRAVEL", "GROCERIES", "SHOPPING",
+            "ENTERTAINMENT", "BILLS", "GROCERIES", "FUEL"
+    };
+
+    private static final String[] MONTHS = {
+            "Jan", "Feb", "Mar", "Apr", "May", "Jun", "Jul", "Aug", "Sep", "Oct", "Nov", "Dec"
+    };
+
+    // Share of generated SMS that no pattern matches (they take the FAILED path)
+    private static final double UNMATCHED_RATIO = 0.1;
+
+    private final List<Bank> banks = new ArrayList<>();
+    private final List<Pattern> patterns = new ArrayList<>();
+    private final List<MerchantCategory> merchantCategories = new ArrayList<>();
+    private final List<String[]> messages = new ArrayList<>();
+
+    private final Random random;
+
+    /**
+     * @param patternCount number of APPROVED patterns, spread round-robin over the banks
+     * @param messageCount number of (smsTitle, sms) pairs to generate
+     */
+    public SmsCorpus(int patternCount, int messageCount, long seed) {
+        this.random = new Random(seed);
+
+        for (int i = 0; i < BANKS.length; i++) {
+            banks.add(new Bank(i + 1, BANKS[i]));
+        }
+        for (int i = 0; i < patternCount; i++) {
+            patterns.add(pattern(i));
+        }
+        for (int i = 0; i < MERCHANTS.length; i++) {
+            merchantCategories.add(new MerchantCategory(i + 1, MERCHANTS[i], CATEGORIES[i],
+                    MerchantNames.canonicalKey(MERCHANTS[i])));
+        }
+        // A realistic table is mostly merchants this data set never hits
+        for (int i = 0; i < 300; i++) {
+            String name = "STORE " + tag(i);
+            merchantCategories.add(new MerchantCategory(MERCHANTS.length + i + 1, name, "SHOPPING",
+                    MerchantNames.canonicalKey(name)));
+        }
+        for (int i = 0; i < messageCount; i++) {
+            messages.add(random.nextDouble() < UNMATCHED_RATIO ? unmatchedMessage() : matchedMessage());
+        }
+    }
+
+    public List<Bank> getBanks() {
+        return banks;
+    }
+
+    public List<Pattern> getPatterns() {
+        return patterns;
+    }
+
+    public List<MerchantCategory> getMerchantCategories() {
+        return merchantCategories;
+    }
+
+    /**
+     * Generated SMS as { smsTitle, sms } pairs
+     */
+    public List<String[]> getMessages() {
+        return messages;
+    }
+
+    public static String[] getMerchantNames() {
+        return MERCHANTS.clone();
+    }
+
+    private Pattern pattern(int index) {
+        Bank bank = banks.get(index % banks.size());
+        int shape = (index / banks.size()) % 5;
+        String tag = tag(index / (banks.size() * 5));
+
+        Pattern pattern = new Pattern();
+        pattern.setPatternId(index + 1);
+        pattern.setBankId(bank.getBankId());
+        pattern.setBankName(bank.getBankname());
+        pattern.setSmsTitle(title(bank));
+        pattern.setStatus("APPROVED");
+        pattern.setMsgType(shape == 2 ? "CREDIT" : "DEBIT");
+        pattern.setPattern(regex(shape, bank, tag));
+        pattern.setSample(sms(shape, bank, tag));
+        return pattern;
+    }
+
+    private String[] matchedMessage() {
+        Pattern pattern = patterns.get(random.nextInt(patterns.size()));
+        Bank bank = banks.get(pattern.getBankId() - 1);
+        int index = pattern.getPatternId() - 1;
+        int shape = (index / banks.size()) % 5;
+        String tag = tag(index / (banks.size() * 5));
+        return new String[]{title(bank), sms(shape, bank, tag)};
+    }
+
+    private String[] unmatchedMessage() {
+        Bank bank = banks.get(random.nextInt(banks.size()));
+        String sms = String.format(Locale.ENGLISH,
+                "%06d is your OTP for a txn of Rs.%s at %s. Valid for 5 mins. Do not share it with anyone - %s",
+                random.nextInt(1_000_000), amount(), merchant(), bank.getBankname());
+        return new String[]{title(bank), sms};
+    }
+
+    private static String regex(int shape, Bank bank, String tag) {
+        // Bank names are plain words, so they need no quoting (and \Q..\E would hide their literals)
+        String name = bank.getBankname();
+        switch (shape) {
+            case 0:
+                return "Rs\\.?\\s?(?<amount>[\\d,]+\\.\\d{2}) spent on your " + name + " Card XX(?<accountNumber>\\d{4}) "
+                        + "at (?<merchantName>[A-Z0-9 ]+?) on (?<date>\\d{2}-[A-Za-z]{3}-\\d{2})\\. "
+                        + "Avl Lmt Rs\\.?(?<availableBalance>[\\d,]+\\.\\d{2}) -" + tag + "$";
+            case 1:
+                return "A/c X(?<accountNumber>\\d{4}) debited by Rs\\.?(?<amount>[\\d,]+\\.\\d{2}) on "
+                        + "(?<date>\\d{2}[A-Za-z]{3}\\d{2}) trf to (?<merchantName>[A-Za-z ]+?) "
+                        + "Refno (?<referenceNumber>\\d{12})\\. If not you, call 1800 -" + tag + "$";
+            case 2:
+                return "Your A/c XX(?<accountNumber>\\d{4}) is credited with INR (?<amount>[\\d,]+\\.\\d{2}) on "
+                        + "(?<date>\\d{2}/\\d{2}/\\d{4}) by (?<txType>NEFT|IMPS|RTGS)\\. Ref (?<referenceNumber>\\w+)\\. "
+                        + "Bal INR (?<availableBalance>[\\d,]+\\.\\d{2}) -" + tag + "$";
+            case 3:
+                return "Rs\\.(?<amount>[\\d,]+) withdrawn at ATM from A/c XX(?<accountNumber>\\d{4}) on "
+                        + "(?<date>\\d{4}-\\d{2}-\\d{2})\\. Avl Bal Rs\\.(?<availableBalance>[\\d,]+\\.\\d{2}) -" + tag + "$";
+            default:
+                return "Payment of Rs (?<amount>[\\d,]+\\.\\d{2}) to (?<merchantName>[A-Z ]+?) towards bill from "
+                        + "A/c XX(?<accountNumber>\\d{4}) successful on (?<date>\\d{1,2}/\\d{1,2}/\\d{2}) -" + tag + "$";
+        }
+    }
+
+    private String sms(int shape, Bank bank, String tag) {
+        switch (shape) {
+            case 0:
+                return "Rs." + amount() + " spent on your " + bank.getBankname() + " Card XX" + digits(4)
+                        + " at " + merchant() + " on " + day() + "-" + month() + "-26. Avl Lmt Rs." + amount() + " -" + tag;
+            case 1:
+                return "A/c X" + digits(4) + " debited by Rs." + amount() + " on " + day() + month() + "26 trf to "
+                        + merchant() + " Refno " + digits(12) + ". If not you, call 1800 -" + tag;
+            case 2:
+                return "Your A/c XX" + digits(4) + " is credited with INR " + amount() + " on " + day() + "/0"
+                        + (1 + random.nextInt(9)) + "/2026 by " + (random.nextBoolean() ? "NEFT" : "IMPS")
+                        + ". Ref N" + digits(10) + ". Bal INR " + amount() + " -" + tag;
+            case 3:
+                return "Rs." + (100 * (1 + random.nextInt(100))) + " withdrawn at ATM from A/c XX" + digits(4)
+                        + " on 2026-0" + (1 + random.nextInt(9)) + "-" + day() + ". Avl Bal Rs." + amount() + " -" + tag;
+            default:
+                return "Payment of Rs " + amount() + " to " + merchant() + " towards bill from A/c XX" + digits(4)
+                        + " successful on " + (1 + random.nextInt(28)) + "/" + (1 + random.nextInt(12)) + "/26 -" + tag;
+        }
+    }
+
+    private static String title(Bank bank) {
+        return "VK-" + bank.getBankname();
+    }
+
+    /**
+     * Alphabetic variant tag (QA, QB, ..., QBA, ...), so template fingerprints tell variants apart
+     */
+    private static String tag(int variant) {
+        StringBuilder tag = new StringBuilder();
+        int value = variant;
+        do {
+            tag.insert(0, (char) ('A' + value % 26));
+            value /= 26;
+        } while (value > 0);
+        return "Q" + tag;
+    }
+
+    private String amount() {
+        int rupees = 10 + random.nextInt(99_990);
+        return String.format(Locale.ENGLISH, "%,d.%02d", rupees, random.nextInt(100));
+    }
+
+    private String merchant() {
+        return MERCHANTS[random.nextInt(MERCHANTS.length)];
+    }
+
+    private String digits(int length) {
+        StringBuilder digits = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            digits.append((char) ('0' + random.nextInt(10)));
+        }
+        return digits.toString();
+    }
+
+    private String day() {
+        return String.format(Locale.ENGLISH, "%02d", 1 + random.nextInt(28));
+    }
+
+    private String month() {
+        return MONTHS[random.nextInt(MONTHS.length)];
+    }
+}
@@ -0,0 +1,89 @@
+package com.bankingparser.service;
+
+import com.bankingparser.benchmark.ParserFixture;
+import com.bankingparser.benchmark.SmsCorpus;
+import com.bankingparser.dto.ExtractedFieldsResponse;
+import com.bankingparser.parser.BankPatterns;
+import com.bankingparser.parser.CompiledPattern;
+import com.bankingparser.parser.ExtractionPlan;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+
+/**
+ * RegexService.buildResponse alone: field extraction from an already successful match.
+ * Every pattern is matched against its own sample once in setup; the benchmark only
+ * reads groups and converts amounts.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class BuildResponseBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int patternCount;
+
+    private ParserFixture fixture;
+    private Matcher[] matchers;
+    private String[] samples;
+    private ExtractionPlan[] plans;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = new ParserFixture(new SmsCorpus(patternCount, 0, 42), false);
+
+        List<Matcher> matched = new ArrayList<>();
+        List<String> matchedSamples = new ArrayList<>();
+        List<ExtractionPlan> matchedPlans = new ArrayList<>();
+        for (BankPatterns bankPatterns : fixture.getPatternRegistry().current().getPatternsByBank().values()) {
+            for (CompiledPattern compiled : bankPatterns.getPatterns()) {
+                String sample = compiled.getSource().getSample();
+                Matcher matcher = compiled.getRegex().matcher(sample);
+                if (matcher.find()) {
+                    matched.add(matcher);
+                    matchedSamples.add(sample);
+                    matchedPlans.add(compiled.getExtractionPlan());
+                }
+            }
+        }
+        if (matched.isEmpty()) {
+            throw new IllegalStateException("No pattern matched its own sample");
+        }
+        matchers = matched.toArray(new Matcher[0]);
+        samples = matchedSamples.toArray(new String[0]);
+        plans = matchedPlans.toArray(new ExtractionPlan[0]);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public ExtractedFieldsResponse buildResponse() {
+        int i = next++ % matchers.length;
+        if (next == matchers.length) {
+            next = 0;
+        }
+        return fixture.getRegexService().buildResponse(matchers[i], samples[i], plans[i]);
+    }
+}
@@ -0,0 +1,72 @@
+package com.bankingparser.service;
+
+import com.bankingparser.benchmark.ParserFixture;
+import com.bankingparser.benchmark.SmsCorpus;
+import com.bankingparser.dto.BulkSmsRequest;
+import com.bankingparser.dto.BulkSmsResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RegexService.processBulkSms on a 1000-SMS request, sequential and on the bulk parse pool.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BulkParseBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int patternCount;
+
+    @Param({"false", "true"})
+    private boolean parallel;
+
+    @Param({"regex", "automaton"})
+    private String engine;
+
+    private ParserFixture fixture;
+    private BulkSmsRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = new ParserFixture(new SmsCorpus(patternCount, 1000, 42), parallel, engine);
+
+        List<BulkSmsRequest.SmsItem> items = new ArrayList<>();
+        for (String[] message : fixture.getCorpus().getMessages()) {
+            BulkSmsRequest.SmsItem item = new BulkSmsRequest.SmsItem();
+            item.setSmsTitle(message[0]);
+            item.setSms(message[1]);
+            items.add(item);
+        }
+        request = new BulkSmsRequest();
+        request.setSmsList(items);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public BulkSmsResponse processBulkSms() {
+        return fixture.getRegexService().processBulkSms(request);
+    }
+}
@@ -0,0 +1,62 @@
+package com.bankingparser.service;
+
+import com.bankingparser.benchmark.ParserFixture;
+import com.bankingparser.benchmark.SmsCorpus;
+import com.bankingparser.dto.ExtractedFieldsResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RegexService.findPattern for one SMS at a time, cycling through a fixed corpus
+ * (about 10% of it unmatched, which takes the FAILED write-behind path).
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FindPatternBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int patternCount;
+
+    // parser.engine: one regex per pattern, or the combined per-bank automaton
+    @Param({"regex", "automaton"})
+    private String engine;
+
+    private ParserFixture fixture;
+    private List<String[]> messages;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = new ParserFixture(new SmsCorpus(patternCount, 4096, 42), false, engine);
+        messages = fixture.getCorpus().getMessages();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public ExtractedFieldsResponse findPattern() {
+        String[] message = messages.get(next++ & (messages.size() - 1));
+        return fixture.getRegexService().findPattern(message[1], message[0]);
+    }
+}
@@ -0,0 +1,74 @@
+package com.bankingparser.service;
+
+import com.bankingparser.benchmark.ParserFixture;
+import com.bankingparser.benchmark.SmsCorpus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MerchantCategoryService.getCategoryForMerchant against a 320-row merchant table.
+ *
+ * exact   - the merchant name is a row of the table
+ * partial - the name contains a known merchant ("ZOMATO ONLINE ORDER")
+ * miss    - no row matches; with no API key configured the LLM step answers OTHER at once
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class MerchantCategoryBenchmark {
+
+    @Param({"exact", "partial", "miss"})
+    private String lookup;
+
+    private ParserFixture fixture;
+    private String[] names;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = new ParserFixture(new SmsCorpus(10, 0, 42), false);
+
+        String[] merchants = SmsCorpus.getMerchantNames();
+        names = new String[merchants.length];
+        for (int i = 0; i < merchants.length; i++) {
+            switch (lookup) {
+                case "exact":
+                    names[i] = merchants[i].toLowerCase();
+                    break;
+                case "partial":
+                    names[i] = merchants[i] + " ONLINE ORDER";
+                    break;
+                default:
+                    names[i] = "UNLISTED VENDOR " + i;
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public String getCategoryForMerchant() {
+        String name = names[next];
+        next = (next + 1) % names.length;
+        return fixture.getMerchantCategoryService().getCategoryForMerchant(name);
+    }
+}
@@ -0,0 +1,37 @@
+package com.bankingparser.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TransactionService.parseDate for each date layout banks send, plus a string in no layout.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ParseDateBenchmark {
+
+    @Param({"10-Jan-26", "14Jan2026", "2026-01-10", "10/01/2026", "1/1/26", "not a date"})
+    private String date;
+
+    private final TransactionService transactionService = new TransactionService();
+
+    @Benchmark
+    public LocalDate parseDate() {
+        return transactionService.parseDate(date);
+    }
+}
@@ -0,0 +1,104 @@
+package com.bankingparser.service;
+
+import com.bankingparser.dto.BulkSaveTransactionResponse;
+import com.bankingparser.dto.SaveTransactionRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+/**
+ * TransactionService.saveTransactions writing a 10,000-transaction inbox into an in-memory
+ * H2 transaction_table.
+ *
+ * batchSize=1 commits every row on its own, as one /user/saveTransaction call per row did;
+ * larger sizes are the bulk path. H2 runs in-process, so there is no network round trip
+ * per statement: against MySQL the gap between the two is wider than measured here.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TransactionIngestBenchmark {
+
+    private static final String CREATE_TABLE =
+            "CREATE TABLE transaction_table (tx_id INT AUTO_INCREMENT PRIMARY KEY, user_id INT NOT NULL, " +
+            "msg TEXT NOT NULL, bank_name VARCHAR(255), merchant_name VARCHAR(255), amount DECIMAL(38, 2), " +
+            "account_number VARCHAR(255), tx_type VARCHAR(255), msg_type VARCHAR(255), msg_subtype VARCHAR(255), " +
+            "date DATE, reference_no VARCHAR(255), available_balance DECIMAL(38, 2))";
+
+    @Param({"1", "100", "500"})
+    private int batchSize;
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionService transactionService;
+    private List<SaveTransactionRequest> inbox;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataSource = new SingleConnectionDataSource("jdbc:h2:mem:ingest;MODE=MySQL;DB_CLOSE_DELAY=-1", true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS transaction_table");
+        jdbcTemplate.execute(CREATE_TABLE);
+
+        transactionService = new TransactionService();
+        setField(transactionService, "jdbcTemplate", jdbcTemplate);
+        setField(transactionService, "bulkBatchSize", batchSize);
+
+        Random random = new Random(42);
+        inbox = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            SaveTransactionRequest request = new SaveTransactionRequest();
+            request.setMsg("Rs " + random.nextInt(100_000) + ".00 debited from A/c XX1234 at MERCHANT " + i);
+            request.setBankName("HDFC Bank");
+            request.setMerchantName("MERCHANT " + i);
+            request.setAmount(BigDecimal.valueOf(random.nextInt(10_000_000), 2));
+            request.setAccountNumber("XX1234");
+            request.setTxType("DEBIT");
+            request.setMsgType("TRANSACTION");
+            request.setMsgSubtype("SHOPPING");
+            request.setDate("10-Jan-26");
+            request.setReferenceNo(String.valueOf(100_000_000_000L + i));
+            request.setAvailableBalance(BigDecimal.valueOf(random.nextInt(100_000_000), 2));
+            inbox.add(request);
+        }
+    }
+
+    // Every call starts from an empty table, so the index does not grow across calls
+    @Setup(Level.Invocation)
+    public void emptyTable() {
+        jdbcTemplate.execute("TRUNCATE TABLE transaction_table");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dataSource.destroy();
+    }
+
+    @Benchmark
+    public BulkSaveTransactionResponse saveTransactions() {
+        return transactionService.saveTransactions(1, inbox);
+    }
+}
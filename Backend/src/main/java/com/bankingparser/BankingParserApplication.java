@@ -2,8 +2,10 @@ package com.bankingparser;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class BankingParserApplication {
     public static void main(String[] args) {
         SpringApplication.run(BankingParserApplication.class, args);
@@ -0,0 +1,26 @@
+package com.bankingparser.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ForkJoinPool;
+
+@Configuration
+public class BulkParseConfig {
+
+    /**
+     * Number of worker threads for /user/bulkParse (0 = one per available core)
+     */
+    @Value("${bulk.parse.parallelism:0}")
+    private int parallelism;
+
+    /**
+     * Dedicated pool for bulk parsing so large imports do not starve the common pool
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ForkJoinPool bulkParsePool() {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        return new ForkJoinPool(threads);
+    }
+}
@@ -0,0 +1,73 @@
+package com.bankingparser.config;
+
+import com.bankingparser.parser.PatternRegistry;
+import com.bankingparser.service.CircuitBreaker;
+import com.bankingparser.service.FailedClusterService;
+import com.bankingparser.service.FailedPatternWriter;
+import com.bankingparser.service.GroqMerchantClassifier;
+import com.bankingparser.service.MerchantCategoryService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Gauges over parser state; read only when metrics are scraped, never on the parse path
+     */
+    @Bean
+    public MeterBinder parserStateMetrics(PatternRegistry patternRegistry,
+                                          FailedPatternWriter failedPatternWriter,
+                                          FailedClusterService failedClusterService,
+                                          MerchantCategoryService merchantCategoryService,
+                                          GroqMerchantClassifier groqMerchantClassifier) {
+        return registry -> {
+            Gauge.builder("parser.patterns.approved", patternRegistry, patterns -> patterns.current().size())
+                    .description("Approved patterns in the live snapshot")
+                    .register(registry);
+            Gauge.builder("parser.automaton.patterns", patternRegistry, PatternRegistry::automatonCoverage)
+                    .description("Approved patterns decided by the combined automaton (parser.engine=automaton)")
+                    .register(registry);
+            Gauge.builder("parser.failed.queue.size", failedPatternWriter, FailedPatternWriter::getQueued)
+                    .description("Unmatched SMS templates waiting to be written as FAILED patterns")
+                    .register(registry);
+            FunctionCounter.builder("parser.failed.dropped", failedPatternWriter, FailedPatternWriter::getDropped)
+                    .description("New FAILED templates dropped because the write-behind queue was full")
+                    .register(registry);
+            FunctionCounter.builder("parser.failed.write.lost", failedPatternWriter, FailedPatternWriter::getLostOnError)
+                    .description("Unmatched SMS occurrences lost because their FAILED batch could not be written or requeued")
+                    .register(registry);
+            Gauge.builder("parser.failed.clusters", failedClusterService, FailedClusterService::size)
+                    .description("Open clusters of unmatched SMS awaiting a maker")
+                    .register(registry);
+            Gauge.builder("merchant.index.size", merchantCategoryService, MerchantCategoryService::getIndexedCount)
+                    .description("Merchants held in memory for category lookup")
+                    .register(registry);
+            Gauge.builder("merchant.category.llm.queue", merchantCategoryService, MerchantCategoryService::getUnclassifiedCount)
+                    .description("Unknown merchants waiting for batched LLM classification")
+                    .register(registry);
+            FunctionCounter.builder("merchant.category.llm.dropped", merchantCategoryService,
+                            MerchantCategoryService::getUnclassifiedDropped)
+                    .description("Unknown merchants not queued because the classification queue was full")
+                    .register(registry);
+            Gauge.builder("merchant.category.llm.negative", merchantCategoryService, MerchantCategoryService::getNegativeCacheSize)
+                    .description("Merchants the LLM recently answered OTHER or failed on, not sent again until their TTL ends")
+                    .register(registry);
+            Gauge.builder("merchant.category.llm.circuit.open", groqMerchantClassifier,
+                            classifier -> classifier.getCircuitState() == CircuitBreaker.State.CLOSED ? 0 : 1)
+                    .description("1 while the Groq circuit breaker is open or half open")
+                    .register(registry);
+            FunctionCounter.builder("merchant.category.llm.circuit.openings", groqMerchantClassifier,
+                            GroqMerchantClassifier::getCircuitOpenings)
+                    .description("Times the Groq circuit breaker opened")
+                    .register(registry);
+            FunctionCounter.builder("merchant.category.llm.short.circuited", groqMerchantClassifier,
+                            GroqMerchantClassifier::getShortCircuited)
+                    .description("Classification batches refused because the Groq circuit was open")
+                    .register(registry);
+        };
+    }
+}
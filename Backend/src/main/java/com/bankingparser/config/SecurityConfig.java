@@ -3,6 +3,7 @@ package com.bankingparser.config;
 import com.bankingparser.security.JwtAuthenticationFilter;
 import com.bankingparser.security.UserDetailServiceImpl;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -16,6 +17,8 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 
 @Configuration
 @EnableWebSecurity
@@ -28,6 +31,13 @@ public class SecurityConfig {
     @Autowired
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
+    @Value("${server.port:8080}")
+    private int serverPort;
+
+    // Falls back to the app port when no separate management port is configured
+    @Value("${management.server.port:${server.port:8080}}")
+    private int managementPort;
+
     @Bean
     public PasswordEncoder passwordEncoder() {
         return new BCryptPasswordEncoder();
@@ -52,6 +62,8 @@ public class SecurityConfig {
             .csrf(csrf -> csrf.disable())
             .authorizeHttpRequests(auth -> auth
                 .requestMatchers("/auth/**", "/h2-console/**").permitAll()
+                .requestMatchers("/actuator/health/**").permitAll()
+                .requestMatchers(prometheusScrape()).permitAll()
                 .requestMatchers("/admin/**").hasRole("ADMIN")
                 .requestMatchers("/maker/**").hasRole("MAKER")
                 .requestMatchers("/checker/**").hasRole("CHECKER")
@@ -69,4 +81,15 @@ public class SecurityConfig {
 
         return http.build();
     }
+
+    /**
+     * The Prometheus scrape is only open on the internal management port; it needs
+     * authentication on the app port, or when both ports are the same
+     */
+    private RequestMatcher prometheusScrape() {
+        RequestMatcher path = new AntPathRequestMatcher("/actuator/prometheus");
+        return request -> managementPort != serverPort
+                && request.getLocalPort() == managementPort
+                && path.matches(request);
+    }
 }
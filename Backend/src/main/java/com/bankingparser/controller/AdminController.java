@@ -1,7 +1,11 @@
 package com.bankingparser.controller;
 
+import com.bankingparser.dto.MerchantClassifierEvaluationResponse;
+import com.bankingparser.dto.PatternOrderingResponse;
 import com.bankingparser.dto.UserResponse;
 import com.bankingparser.model.User;
+import com.bankingparser.service.MerchantCategoryService;
+import com.bankingparser.service.PatternService;
 import com.bankingparser.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -9,6 +13,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -23,6 +28,12 @@ public class AdminController {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private PatternService patternService;
+
+    @Autowired
+    private MerchantCategoryService merchantCategoryService;
+
     /**
      * Get user counts by role
      * Endpoint: GET /admin/userCounts
@@ -76,4 +87,27 @@ public class AdminController {
             return ResponseEntity.badRequest().body("Error creating user: " + e.getMessage());
         }
     }
+
+    /**
+     * Get the approved patterns per bank in the order they are tried, with hit rates
+     * Endpoint: GET /admin/patternOrdering
+     */
+    @GetMapping("/patternOrdering")
+    public ResponseEntity<List<PatternOrderingResponse>> getPatternOrdering() {
+        return ResponseEntity.ok(patternService.getPatternOrdering());
+    }
+
+    /**
+     * Evaluate the local merchant classifier against held-out merchant_category rows
+     * Endpoint: GET /admin/merchantClassifier/evaluate?holdout=0.2
+     */
+    @GetMapping("/merchantClassifier/evaluate")
+    public ResponseEntity<?> evaluateMerchantClassifier(@RequestParam(defaultValue = "0.2") double holdout) {
+        try {
+            MerchantClassifierEvaluationResponse evaluation = merchantCategoryService.evaluateClassifier(holdout);
+            return ResponseEntity.ok(evaluation);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error evaluating classifier: " + e.getMessage());
+        }
+    }
 }
@@ -35,6 +35,16 @@ public class CheckerController {
         return ResponseEntity.ok(pendings);
     }
 
+    /**
+     * Get all quarantined patterns (pulled from matching for catastrophic backtracking)
+     * Endpoint: GET /checker/getQuarantined
+     */
+    @GetMapping("/getQuarantined")
+    public ResponseEntity<List<Pattern>> getQuarantined() {
+        List<Pattern> quarantined = patternService.getQuarantined();
+        return ResponseEntity.ok(quarantined);
+    }
+
     /**
      * Extract fields from SMS using provided regex pattern
      * Endpoint: POST /checker/extractFields
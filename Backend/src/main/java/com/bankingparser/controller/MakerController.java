@@ -2,6 +2,7 @@ package com.bankingparser.controller;
 
 import com.bankingparser.dto.ExtractFieldsRequest;
 import com.bankingparser.dto.ExtractedFieldsResponse;
+import com.bankingparser.dto.FailedClusterResponse;
 import com.bankingparser.dto.FindPatternRequest;
 import com.bankingparser.dto.SavePatternRequest;
 import com.bankingparser.model.Pattern;
@@ -56,6 +57,38 @@ public class MakerController {
         return ResponseEntity.ok(failed);
     }
 
+    /**
+     * Get failed patterns one page at a time, most frequent first
+     * (page size capped at failed.list.max-size)
+     * Endpoint: GET /maker/getFailedPage?page=0&size=100
+     */
+    @GetMapping("/getFailedPage")
+    public ResponseEntity<List<Pattern>> getFailedPage(@RequestParam(defaultValue = "0") int page,
+                                                       @RequestParam(defaultValue = "100") int size) {
+        List<Pattern> failed = patternService.getFailed(page, size);
+        return ResponseEntity.ok(failed);
+    }
+
+    /**
+     * Get unmatched SMS grouped by bank and template, most frequent first
+     * Endpoint: GET /maker/getFailedClusters
+     */
+    @GetMapping("/getFailedClusters")
+    public ResponseEntity<List<FailedClusterResponse>> getFailedClusters() {
+        List<FailedClusterResponse> clusters = patternService.getFailedClusters();
+        return ResponseEntity.ok(clusters);
+    }
+
+    /**
+     * Get all quarantined patterns (pulled from matching for catastrophic backtracking)
+     * Endpoint: GET /maker/getQuarantined
+     */
+    @GetMapping("/getQuarantined")
+    public ResponseEntity<List<Pattern>> getQuarantined() {
+        List<Pattern> quarantined = patternService.getQuarantined();
+        return ResponseEntity.ok(quarantined);
+    }
+
     /**
      * Extract fields from SMS using provided regex pattern
      * Endpoint: POST /maker/extractFields
@@ -4,16 +4,27 @@ import com.bankingparser.dto.BulkSmsRequest;
 import com.bankingparser.dto.BulkSmsResponse;
 import com.bankingparser.dto.ExtractedFieldsResponse;
 import com.bankingparser.dto.FindPatternRequest;
+import com.bankingparser.dto.BulkSaveTransactionRequest;
+import com.bankingparser.dto.BulkSaveTransactionResponse;
 import com.bankingparser.dto.SaveTransactionRequest;
+import com.bankingparser.dto.TransactionPageRequest;
+import com.bankingparser.dto.TransactionPageResponse;
 import com.bankingparser.model.Transaction;
 import com.bankingparser.service.RegexService;
 import com.bankingparser.service.TransactionService;
 import com.bankingparser.security.JwtUtil;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
 
 @RestController
 @RequestMapping("/user")
@@ -47,6 +58,29 @@ public class UserController {
         }
     }
 
+    /**
+     * Get one page of the current user's transactions, newest first
+     * Endpoint: GET /user/transactions/page?limit=50&cursor=...&fromDate=2026-01-01&toDate=2026-01-31
+     *           &bank=...&msgSubtype=...&txType=...&minAmount=100&maxAmount=5000&includeMsg=false
+     * 
+     * All parameters are optional; pass the returned nextCursor as cursor to get the next page.
+     * The SMS text (msg) is left out unless includeMsg=true
+     */
+    @GetMapping("/transactions/page")
+    public ResponseEntity<?> getTransactionPage(
+            @RequestHeader("Authorization") String authHeader,
+            TransactionPageRequest request) {
+        try {
+            String token = authHeader.substring(7); // Remove "Bearer " prefix
+            Integer userId = jwtUtil.extractUserId(token);
+
+            TransactionPageResponse page = transactionService.getTransactionPage(userId, request);
+            return ResponseEntity.ok(page);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error retrieving transactions: " + e.getMessage());
+        }
+    }
+
     /**
      * Find matching pattern for SMS and extract fields
      * Endpoint: POST /user/findPattern
@@ -80,6 +114,31 @@ public class UserController {
         }
     }
 
+    /**
+     * Save many parsed transactions to history in one call
+     * Endpoint: POST /user/saveTransactions
+     * Body: { "transactions": [ { "msg": "...", "bankName": "...", "amount": 1000, ... }, ... ] }
+     * 
+     * Rows are written with batched inserts; each item reports saved (with its txId) or its error
+     */
+    @PostMapping("/saveTransactions")
+    public ResponseEntity<?> saveTransactions(
+            @RequestHeader("Authorization") String authHeader,
+            @RequestBody BulkSaveTransactionRequest request) {
+        try {
+            String token = authHeader.substring(7); // Remove "Bearer " prefix
+            Integer userId = jwtUtil.extractUserId(token);
+
+            if (request.getTransactions() == null || request.getTransactions().isEmpty()) {
+                return ResponseEntity.badRequest().body("Error saving transactions: transactions is required");
+            }
+            BulkSaveTransactionResponse response = transactionService.saveTransactions(userId, request.getTransactions());
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error saving transactions: " + e.getMessage());
+        }
+    }
+
     /**
      * Bulk SMS parsing - process multiple SMS messages at once
      * Endpoint: POST /user/bulkParse
@@ -93,4 +152,26 @@ public class UserController {
         BulkSmsResponse response = regexService.processBulkSms(request);
         return ResponseEntity.ok(response);
     }
+
+    /**
+     * Streaming bulk SMS parsing
+     * Endpoint: POST /user/bulkParseStream
+     * Body: newline-delimited JSON, one { "smsTitle": "AD-HDFCBK", "sms": "..." } per line
+     *       (send Content-Encoding: gzip to upload a compressed body)
+     * 
+     * Responds with newline-delimited SmsResult records, written as each SMS is parsed
+     * Does NOT save failed patterns to DB
+     */
+    @PostMapping(value = "/bulkParseStream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void bulkParseStream(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        InputStream body = request.getInputStream();
+        String contentEncoding = request.getHeader(HttpHeaders.CONTENT_ENCODING);
+        if (contentEncoding != null && contentEncoding.toLowerCase().contains("gzip")) {
+            body = new GZIPInputStream(body, 64 * 1024);
+        }
+
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        regexService.processBulkSmsStream(body, response.getOutputStream());
+    }
 }
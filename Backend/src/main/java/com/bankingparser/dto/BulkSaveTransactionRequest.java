@@ -0,0 +1,14 @@
+package com.bankingparser.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkSaveTransactionRequest {
+    private List<SaveTransactionRequest> transactions;
+}
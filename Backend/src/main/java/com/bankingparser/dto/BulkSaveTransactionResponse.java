@@ -0,0 +1,35 @@
+package com.bankingparser.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkSaveTransactionResponse {
+    private int totalCount;
+    private int successCount;
+    private int failedCount;
+    private List<ItemResult> results;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ItemResult {
+        private int index;              // Original index in request
+        private boolean saved;
+        private Integer txId;           // Id of the stored transaction (null if not saved)
+        private String message;         // Error message if not saved
+
+        public static ItemResult success(int index, Integer txId) {
+            return new ItemResult(index, true, txId, "Transaction saved successfully");
+        }
+
+        public static ItemResult failed(int index, String message) {
+            return new ItemResult(index, false, null, message);
+        }
+    }
+}
@@ -1,10 +1,13 @@
 package com.bankingparser.dto;
 
+import com.bankingparser.util.MinorUnits;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.math.BigDecimal;
 import java.util.List;
 
 @Data
@@ -26,8 +29,11 @@ public class BulkSmsResponse {
         private boolean matched;
         private String message;         // Error message if not matched
         
-        // Extracted fields (null if not matched)
-        private BigDecimal amount;
+        // Extracted fields (null if not matched); amounts in paise
+        @JsonProperty("amount")
+        @JsonSerialize(using = MinorUnits.Json.Serializer.class)
+        @JsonDeserialize(using = MinorUnits.Json.Deserializer.class)
+        private Long amountPaise;
         private String accountNumber;
         private String bankName;
         private String merchantName;
@@ -35,7 +41,10 @@ public class BulkSmsResponse {
         private String msgType;
         private String msgSubtype;
         private String date;
-        private BigDecimal availableBalance;
+        @JsonProperty("availableBalance")
+        @JsonSerialize(using = MinorUnits.Json.Serializer.class)
+        @JsonDeserialize(using = MinorUnits.Json.Deserializer.class)
+        private Long availableBalancePaise;
         private String referenceNo;
         
         // Pattern info
@@ -50,7 +59,7 @@ public class BulkSmsResponse {
             result.setMessage("Pattern matched successfully");
             
             // Copy extracted fields
-            result.setAmount(extracted.getAmount());
+            result.setAmountPaise(extracted.getAmountPaise());
             result.setAccountNumber(extracted.getAccountNumber());
             result.setBankName(extracted.getBankName());
             result.setMerchantName(extracted.getMerchantName());
@@ -58,7 +67,7 @@ public class BulkSmsResponse {
             result.setMsgType(extracted.getMsgType());
             result.setMsgSubtype(extracted.getMsgSubtype());
             result.setDate(extracted.getDate());
-            result.setAvailableBalance(extracted.getAvailableBalance());
+            result.setAvailableBalancePaise(extracted.getAvailableBalancePaise());
             result.setReferenceNo(extracted.getReferenceNo());
             result.setPatternId(extracted.getPatternId());
             
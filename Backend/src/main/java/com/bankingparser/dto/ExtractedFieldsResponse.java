@@ -1,11 +1,13 @@
 package com.bankingparser.dto;
 
+import com.bankingparser.util.MinorUnits;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.math.BigDecimal;
-
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -13,8 +15,11 @@ public class ExtractedFieldsResponse {
     private boolean matched;
     private String message;
     
-    // Extracted fields from regex
-    private BigDecimal amount;
+    // Extracted fields from regex; amounts in paise, written to JSON as decimals
+    @JsonProperty("amount")
+    @JsonSerialize(using = MinorUnits.Json.Serializer.class)
+    @JsonDeserialize(using = MinorUnits.Json.Deserializer.class)
+    private Long amountPaise;
     private String accountNumber;
     private String bankName;
     private String merchantName;
@@ -22,7 +27,10 @@ public class ExtractedFieldsResponse {
     private String msgType;
     private String msgSubtype;
     private String date;
-    private BigDecimal availableBalance;
+    @JsonProperty("availableBalance")
+    @JsonSerialize(using = MinorUnits.Json.Serializer.class)
+    @JsonDeserialize(using = MinorUnits.Json.Deserializer.class)
+    private Long availableBalancePaise;
     private String referenceNo;
     
     // Flags to track if values were parsed from SMS or came from pattern defaults
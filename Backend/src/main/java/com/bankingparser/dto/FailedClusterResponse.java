@@ -0,0 +1,22 @@
+package com.bankingparser.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FailedClusterResponse {
+    private Integer bankId;
+    private String bankName;
+    private String smsTitle;
+    private String templateFingerprint;  // Hex fingerprint of the normalized template shape
+    private long count;                  // Unmatched SMS seen for this template
+    private LocalDateTime firstSeen;
+    private LocalDateTime lastSeen;
+    private String sample;               // One representative SMS
+    private Integer patternId;           // Representative FAILED pattern to fix (null until persisted)
+}
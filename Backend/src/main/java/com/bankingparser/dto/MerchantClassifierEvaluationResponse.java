@@ -0,0 +1,18 @@
+package com.bankingparser.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MerchantClassifierEvaluationResponse {
+    private int trainingRows;
+    private int heldOutRows;
+    private double accuracy;              // Share of held-out rows predicted right
+    private double minConfidence;         // merchant.classifier.min-confidence
+    private double confidentShare;        // Share of held-out rows predicted at or above minConfidence
+    private double confidentAccuracy;     // Accuracy among those (what the LLM is skipped for)
+    private double averagePredictMicros;
+}
@@ -0,0 +1,27 @@
+package com.bankingparser.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatternOrderingResponse {
+    private Integer bankId;
+    private List<PatternEntry> patterns;   // In the order they are tried (priority order)
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PatternEntry {
+        private int position;
+        private Integer patternId;
+        private long attempts;
+        private long hits;
+        private double hitRate;             // hits / attempts
+        private long budgetTrips;           // Attempts aborted by the match budget
+    }
+}
@@ -0,0 +1,23 @@
+package com.bankingparser.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionPageRequest {
+    private String cursor;            // nextCursor of the previous page; absent for the first page
+    private Integer limit;            // Page size (default transaction.page.default-size)
+    private String fromDate;          // yyyy-MM-dd, inclusive
+    private String toDate;            // yyyy-MM-dd, inclusive
+    private String bank;              // Exact bank name
+    private String msgSubtype;
+    private String txType;
+    private BigDecimal minAmount;     // Inclusive
+    private BigDecimal maxAmount;     // Inclusive
+    private boolean includeMsg;       // Also return the original SMS text
+}
@@ -0,0 +1,16 @@
+package com.bankingparser.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionPageResponse {
+    private List<TransactionSummary> transactions;   // Newest first (date, then txId)
+    private boolean hasMore;
+    private String nextCursor;                       // Pass as cursor for the next page; null on the last page
+}
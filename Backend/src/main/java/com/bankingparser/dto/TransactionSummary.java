@@ -0,0 +1,42 @@
+package com.bankingparser.dto;
+
+import com.bankingparser.util.MinorUnits;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * A transaction as listed in the history: Transaction without its user, and without the
+ * SMS text unless it was asked for
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionSummary {
+    private Integer txId;
+    private String bankName;
+    private String merchantName;
+
+    @JsonProperty("amount")
+    @JsonSerialize(using = MinorUnits.Json.Serializer.class)
+    private Long amountPaise;
+
+    private String accountNumber;
+    private String txType;
+    private String msgType;
+    private String msgSubtype;
+    private LocalDate date;
+    private String referenceNo;
+
+    @JsonProperty("availableBalance")
+    @JsonSerialize(using = MinorUnits.Json.Serializer.class)
+    private Long availableBalancePaise;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String msg;               // Only with includeMsg=true
+}
@@ -0,0 +1,276 @@
+package com.bankingparser.metrics;
+
+import com.bankingparser.model.Bank;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer meters for the SMS parse pipeline, exposed at /actuator/prometheus on the management port.
+ *
+ * Every meter is registered once and kept in a field (per-bank counters in a map keyed
+ * by bank name), so recording on the hot path is a counter increment or a timer update
+ * with no tag building or registry lookup.
+ */
+@Component
+public class PipelineMetrics {
+
+    // Tag value for SMS whose title matched no bank
+    private static final String UNKNOWN_BANK = "unknown";
+
+    private final MeterRegistry registry;
+
+    private final Timer bankResolved;
+    private final Timer bankUnknown;
+    private final DistributionSummary patternsTried;
+    private final Timer extraction;
+    private final Counter budgetTripLive;
+    private final Counter budgetTripReplay;
+    private final Map<String, BankMeters> banks = new ConcurrentHashMap<>();
+
+    private final Counter categoryExact;
+    private final Counter categoryPartial;
+    private final Counter categoryLocal;
+    private final Counter categoryMiss;
+    private final Timer llmSuccess;
+    private final Timer llmInvalid;
+    private final Timer llmError;
+    private final Counter llmSkipped;
+    private final DistributionSummary llmBatch;
+    private final Counter llmAvoidedInFlight;
+    private final Counter llmAvoidedNegative;
+
+    private final DistributionSummary bulkBatch;
+    private final DistributionSummary bulkStream;
+
+    public PipelineMetrics(MeterRegistry registry) {
+        this.registry = registry;
+
+        bankResolved = bankResolution(registry, "found");
+        bankUnknown = bankResolution(registry, "unknown");
+        patternsTried = DistributionSummary.builder("parser.patterns.tried")
+                .description("Patterns run against one SMS before a match or giving up")
+                .register(registry);
+        extraction = Timer.builder("parser.extraction")
+                .description("Reading fields out of a successful match")
+                .register(registry);
+        budgetTripLive = budgetTrip(registry, "live");
+        budgetTripReplay = budgetTrip(registry, "replay");
+
+        categoryExact = categoryLookup(registry, "exact");
+        categoryPartial = categoryLookup(registry, "partial");
+        categoryLocal = categoryLookup(registry, "local");
+        categoryMiss = categoryLookup(registry, "miss");
+        llmSuccess = llmCall(registry, "success");
+        llmInvalid = llmCall(registry, "invalid");
+        llmError = llmCall(registry, "error");
+        llmSkipped = Counter.builder("merchant.category.llm.skipped")
+                .description("LLM classifications skipped because no API key is configured")
+                .register(registry);
+        llmBatch = DistributionSummary.builder("merchant.category.llm.batch")
+                .description("Merchants classified per Groq call")
+                .register(registry);
+        llmAvoidedInFlight = llmAvoided(registry, "in_flight");
+        llmAvoidedNegative = llmAvoided(registry, "negative_cache");
+
+        bulkBatch = bulkSize(registry, "batch");
+        bulkStream = bulkSize(registry, "stream");
+    }
+
+    public void recordBankResolution(long nanos, boolean found) {
+        (found ? bankResolved : bankUnknown).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordPatternsTried(int tried) {
+        patternsTried.record(tried);
+    }
+
+    public void recordExtraction(long nanos) {
+        extraction.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * A pattern run stopped by the match budget; replay trips never count toward quarantine
+     */
+    public void recordBudgetTrip(boolean replay) {
+        (replay ? budgetTripReplay : budgetTripLive).increment();
+    }
+
+    public void recordMatched(Bank bank) {
+        forBank(bank).matched.increment();
+    }
+
+    public void recordUnmatched(Bank bank) {
+        forBank(bank).unmatched.increment();
+    }
+
+    /**
+     * SMS of a resolved bank that has no approved patterns at all
+     */
+    public void recordNoPatterns(Bank bank) {
+        forBank(bank).noPatterns.increment();
+    }
+
+    public void recordCategoryExact() {
+        categoryExact.increment();
+    }
+
+    public void recordCategoryPartial() {
+        categoryPartial.increment();
+    }
+
+    /**
+     * Not in the merchant table, answered by the local classifier
+     */
+    public void recordCategoryLocal() {
+        categoryLocal.increment();
+    }
+
+    public void recordCategoryMiss() {
+        categoryMiss.increment();
+    }
+
+    public void recordLlmSuccess(long nanos) {
+        llmSuccess.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * The LLM answered, but not with a valid category
+     */
+    public void recordLlmInvalid(long nanos) {
+        llmInvalid.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordLlmError(long nanos) {
+        llmError.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordLlmSkipped() {
+        llmSkipped.increment();
+    }
+
+    public void recordLlmBatch(int merchants) {
+        llmBatch.record(merchants);
+    }
+
+    /**
+     * An unknown merchant already queued or being classified; joined instead of queued again
+     */
+    public void recordLlmInFlight() {
+        llmAvoidedInFlight.increment();
+    }
+
+    /**
+     * An unknown merchant recently answered OTHER or failed; not sent again until its TTL ends
+     */
+    public void recordLlmNegativeHit() {
+        llmAvoidedNegative.increment();
+    }
+
+    public void recordBulkBatch(int size) {
+        bulkBatch.record(size);
+    }
+
+    public void recordBulkStream(int size) {
+        bulkStream.record(size);
+    }
+
+    /**
+     * Startup warm-up; runs once, so its meters are registered on demand
+     */
+    public void recordWarmup(long nanos, int rounds, boolean settled) {
+        Timer.builder("parser.warmup")
+                .description("Startup warm-up replay, before the instance reports ready")
+                .tag("settled", String.valueOf(settled))
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("parser.warmup.rounds")
+                .description("Sample replay rounds run during startup warm-up")
+                .register(registry)
+                .record(rounds);
+    }
+
+    private BankMeters forBank(Bank bank) {
+        String name = bank != null && bank.getBankname() != null ? bank.getBankname() : UNKNOWN_BANK;
+        BankMeters meters = banks.get(name);
+        if (meters == null) {
+            meters = banks.computeIfAbsent(name, this::newBankMeters);
+        }
+        return meters;
+    }
+
+    private BankMeters newBankMeters(String bankName) {
+        return new BankMeters(
+                smsOutcome(bankName, "matched"),
+                smsOutcome(bankName, "unmatched"),
+                smsOutcome(bankName, "no_patterns"));
+    }
+
+    private Counter smsOutcome(String bankName, String outcome) {
+        return Counter.builder("parser.sms")
+                .description("Parsed SMS by bank and outcome")
+                .tag("bank", bankName)
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private static Timer bankResolution(MeterRegistry registry, String result) {
+        return Timer.builder("parser.bank.resolution")
+                .description("Resolving the bank from the SMS title")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private static Counter budgetTrip(MeterRegistry registry, String source) {
+        return Counter.builder("parser.match.budget.trips")
+                .description("Pattern runs stopped by the match step/time budget")
+                .tag("source", source)
+                .register(registry);
+    }
+
+    private static Counter categoryLookup(MeterRegistry registry, String result) {
+        return Counter.builder("merchant.category.lookup")
+                .description("Merchant category lookups by how the merchant table answered")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private static Timer llmCall(MeterRegistry registry, String outcome) {
+        return Timer.builder("merchant.category.llm")
+                .description("Groq merchant classification calls")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private static Counter llmAvoided(MeterRegistry registry, String reason) {
+        return Counter.builder("merchant.category.llm.avoided")
+                .description("Merchant classifications answered without a Groq call of their own")
+                .tag("reason", reason)
+                .register(registry);
+    }
+
+    private static DistributionSummary bulkSize(MeterRegistry registry, String mode) {
+        return DistributionSummary.builder("parser.bulk.size")
+                .description("SMS per bulk parse request")
+                .tag("mode", mode)
+                .register(registry);
+    }
+
+    private static final class BankMeters {
+        private final Counter matched;
+        private final Counter unmatched;
+        private final Counter noPatterns;
+
+        private BankMeters(Counter matched, Counter unmatched, Counter noPatterns) {
+            this.matched = matched;
+            this.unmatched = unmatched;
+            this.noPatterns = noPatterns;
+        }
+    }
+}
@@ -6,7 +6,9 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "merchant_category")
+@Table(name = "merchant_category", indexes = {
+    @Index(name = "idx_merchant_category_canonical_key", columnList = "canonical_key")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -21,6 +23,10 @@ public class MerchantCategory {
     
     @Column(nullable = false)
     private String category; // FOOD, HEALTH, SHOPPING, TRAVEL, ENTERTAINMENT, BILLS, TRANSFER, OTHER
+
+    // MerchantNames.canonicalKey(merchantName); variants of one merchant share it
+    @Column(name = "canonical_key")
+    private String canonicalKey;
     
     public MerchantCategory(String merchantName, String category) {
         this.merchantName = merchantName;
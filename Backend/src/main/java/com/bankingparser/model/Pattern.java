@@ -6,8 +6,12 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
+
 @Entity
-@Table(name = "pattern_table")
+@Table(name = "pattern_table", indexes = {
+        @Index(name = "idx_pattern_status_fingerprint", columnList = "status, template_fingerprint")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -28,7 +32,7 @@ public class Pattern {
     private String sample;
     
     @Column(nullable = false)
-    private String status; // "PENDING", "APPROVED", "REJECTED", "FAILED"
+    private String status; // "PENDING", "APPROVED", "REJECTED", "FAILED", "QUARANTINED", "RESOLVED"
     
     @Column(name = "bank_name")
     private String bankName;
@@ -48,6 +52,19 @@ public class Pattern {
     @Column(name = "sms_title")
     private String smsTitle;
     
+    // FAILED rows only: template fingerprint of the sample and how many SMS it stands for
+    @Column(name = "template_fingerprint")
+    private Long templateFingerprint;
+    
+    @Column(name = "occurrence_count")
+    private Integer occurrenceCount;
+    
+    @Column(name = "first_seen")
+    private LocalDateTime firstSeen;
+    
+    @Column(name = "last_seen")
+    private LocalDateTime lastSeen;
+    
     @JsonIgnore
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "bank_id", insertable = false, updatable = false)
@@ -1,16 +1,27 @@
 package com.bankingparser.model;
 
+import com.bankingparser.util.MinorUnits;
+import com.bankingparser.util.MinorUnitsConverter;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "transaction_table")
+// Keyset pagination of the history walks (user_id, date, tx_id); each equality filter has
+// its own index with the same ordering after it. Amount ranges are filtered on the rows read.
+@Table(name = "transaction_table", indexes = {
+    @Index(name = "idx_transaction_user_date", columnList = "user_id, date, tx_id"),
+    @Index(name = "idx_transaction_user_bank_date", columnList = "user_id, bank_name, date, tx_id"),
+    @Index(name = "idx_transaction_user_subtype_date", columnList = "user_id, msg_subtype, date, tx_id"),
+    @Index(name = "idx_transaction_user_type_date", columnList = "user_id, tx_type, date, tx_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -33,7 +44,13 @@ public class Transaction {
     @Column(name = "merchant_name")
     private String merchantName;
     
-    private BigDecimal amount;
+    // Paise; the column keeps its decimal type
+    @Column(name = "amount")
+    @Convert(converter = MinorUnitsConverter.class)
+    @JsonProperty("amount")
+    @JsonSerialize(using = MinorUnits.Json.Serializer.class)
+    @JsonDeserialize(using = MinorUnits.Json.Deserializer.class)
+    private Long amountPaise;
     
     @Column(name = "account_number")
     private String accountNumber;
@@ -53,7 +70,11 @@ public class Transaction {
     private String referenceNo;
     
     @Column(name = "available_balance")
-    private java.math.BigDecimal availableBalance;
+    @Convert(converter = MinorUnitsConverter.class)
+    @JsonProperty("availableBalance")
+    @JsonSerialize(using = MinorUnits.Json.Serializer.class)
+    @JsonDeserialize(using = MinorUnits.Json.Deserializer.class)
+    private Long availableBalancePaise;
     
     @JsonIgnore
     @ManyToOne(fetch = FetchType.LAZY)
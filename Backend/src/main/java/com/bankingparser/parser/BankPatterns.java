@@ -0,0 +1,166 @@
+package com.bankingparser.parser;
+
+import com.bankingparser.util.AhoCorasick;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The approved patterns of one bank, in matching order, plus a literal prefilter.
+ *
+ * Every pattern's required literals (see {@link LiteralExtractor}) are loaded into one
+ * Aho-Corasick automaton. A single scan of the SMS tells which literals are present,
+ * and only patterns whose literals all occur are handed to the regex engine.
+ * Patterns without literals are always candidates.
+ *
+ * Patterns are kept and tried in priority order (pattern id), so the first one that
+ * matches wins.
+ *
+ * With the {@link PatternEngine#AUTOMATON} engine, the patterns are also compiled into one
+ * {@link CombinedAutomaton}. Its single pass decides exactly which covered patterns match,
+ * so only those (plus prefiltered patterns it cannot express) reach the regex engine.
+ */
+public class BankPatterns {
+
+    public static final BankPatterns EMPTY = new BankPatterns(List.of());
+
+    private static final int[] NO_LITERALS = new int[0];
+
+    private final List<CompiledPattern> patterns;      // priority order
+    private final int[][] requiredLiteralIds;           // indexed like patterns
+    private final AhoCorasick<Integer> literals;
+    private final Map<Integer, CompiledPattern> byId;
+    private final CombinedAutomaton automaton;          // null with the regex engine
+    private final boolean prefilterNeeded;              // some pattern is left to the literal prefilter
+
+    public BankPatterns(List<CompiledPattern> patterns) {
+        this(patterns, PatternEngine.REGEX);
+    }
+
+    public BankPatterns(List<CompiledPattern> patterns, PatternEngine engine) {
+        this.patterns = List.copyOf(patterns);
+        this.byId = indexById(this.patterns);
+        this.requiredLiteralIds = new int[this.patterns.size()][];
+
+        Map<String, Integer> literalIds = new HashMap<>();
+        AhoCorasick.Builder<Integer> builder = AhoCorasick.builder();
+        for (int i = 0; i < this.patterns.size(); i++) {
+            List<String> required = this.patterns.get(i).getRequiredLiterals();
+            if (required.isEmpty()) {
+                requiredLiteralIds[i] = NO_LITERALS;
+                continue;
+            }
+            int[] ids = new int[required.size()];
+            for (int j = 0; j < required.size(); j++) {
+                String key = AhoCorasick.fold(required.get(j));
+                Integer id = literalIds.get(key);
+                if (id == null) {
+                    id = literalIds.size();
+                    literalIds.put(key, id);
+                    builder.add(key, id);
+                }
+                ids[j] = id;
+            }
+            requiredLiteralIds[i] = ids;
+        }
+        this.literals = builder.build();
+        this.automaton = engine == PatternEngine.AUTOMATON ? CombinedAutomaton.build(this.patterns) : null;
+        this.prefilterNeeded = prefilterNeeded(this.automaton, this.requiredLiteralIds);
+    }
+
+    /**
+     * Patterns in the order they are tried
+     */
+    public List<CompiledPattern> getPatterns() {
+        return patterns;
+    }
+
+    /**
+     * Approved pattern of this bank with the given id, or null
+     */
+    public CompiledPattern byId(Integer patternId) {
+        return patternId != null ? byId.get(patternId) : null;
+    }
+
+    public boolean isEmpty() {
+        return patterns.isEmpty();
+    }
+
+    public int size() {
+        return patterns.size();
+    }
+
+    /**
+     * Number of patterns decided by the combined automaton (0 with the regex engine)
+     */
+    public int automatonCoverage() {
+        return automaton != null ? automaton.coveredCount() : 0;
+    }
+
+    /**
+     * Patterns that can possibly match the SMS, in try order
+     */
+    public List<CompiledPattern> candidates(CharSequence sms) {
+        if (sms == null) {
+            return patterns;
+        }
+        // null if the automaton is off, or cannot decide this SMS
+        BitSet matched = automaton != null ? automaton.matches(sms) : null;
+        if (literals.size() == 0 && matched == null) {
+            return patterns;
+        }
+
+        BitSet present = null;
+        if (literals.size() > 0 && (matched == null || prefilterNeeded)) {
+            BitSet found = new BitSet(literals.size());
+            literals.search(sms, (start, end, id) -> {
+                found.set(id);
+                return true;
+            });
+            present = found;
+        }
+
+        List<CompiledPattern> candidates = new ArrayList<>(patterns.size());
+        for (int index = 0; index < patterns.size(); index++) {
+            boolean candidate;
+            if (matched != null && automaton.covers(index)) {
+                candidate = matched.get(index);
+            } else {
+                candidate = present == null || allPresent(requiredLiteralIds[index], present);
+            }
+            if (candidate) {
+                candidates.add(patterns.get(index));
+            }
+        }
+        return candidates;
+    }
+
+    private static boolean prefilterNeeded(CombinedAutomaton automaton, int[][] requiredLiteralIds) {
+        for (int i = 0; i < requiredLiteralIds.length; i++) {
+            if (requiredLiteralIds[i].length > 0 && (automaton == null || !automaton.covers(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean allPresent(int[] ids, BitSet present) {
+        for (int id : ids) {
+            if (!present.get(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Map<Integer, CompiledPattern> indexById(List<CompiledPattern> patterns) {
+        Map<Integer, CompiledPattern> index = new HashMap<>();
+        for (CompiledPattern pattern : patterns) {
+            index.put(pattern.getPatternId(), pattern);
+        }
+        return Map.copyOf(index);
+    }
+}
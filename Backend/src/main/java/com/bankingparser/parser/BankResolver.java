@@ -0,0 +1,88 @@
+package com.bankingparser.parser;
+
+import com.bankingparser.model.Bank;
+import com.bankingparser.repository.BankRepository;
+import com.bankingparser.util.AhoCorasick;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Resolves the bank an SMS belongs to from its sender title (e.g. "AD-HDFCBK").
+ *
+ * All bank names from bank_table are compiled into one case-insensitive Aho-Corasick
+ * automaton, so a title is resolved in a single pass without touching the database.
+ * When several bank names occur in a title the longest one wins ("SBI CARD" beats "SBI"),
+ * then the one that starts first.
+ */
+@Component
+public class BankResolver {
+
+    @Autowired
+    private BankRepository bankRepository;
+
+    private volatile Index index = new Index(List.of(), AhoCorasick.<Bank>builder().build());
+
+    @PostConstruct
+    public void init() {
+        reload();
+    }
+
+    /**
+     * Rebuild the automaton from bank_table (call after a bank is created)
+     */
+    public synchronized void reload() {
+        List<Bank> banks = List.copyOf(bankRepository.findAll());
+        AhoCorasick.Builder<Bank> builder = AhoCorasick.builder();
+        for (Bank bank : banks) {
+            if (bank.getBankname() != null) {
+                builder.add(bank.getBankname().trim(), bank);
+            }
+        }
+        index = new Index(banks, builder.build());
+    }
+
+    /**
+     * Find the bank whose name occurs in the SMS title, or null if none does
+     */
+    public Bank resolve(String smsTitle) {
+        if (smsTitle == null || smsTitle.isEmpty()) {
+            return null;
+        }
+        return index.automaton.longestMatch(smsTitle);
+    }
+
+    /**
+     * Find a bank by a free-text bank name typed by a maker.
+     * Matches if a bank name occurs in the given name, or the given name occurs in a bank name.
+     */
+    public Bank findByName(String bankName) {
+        if (bankName == null || bankName.trim().isEmpty()) {
+            return null;
+        }
+        Index current = index;
+        Bank matched = current.automaton.longestMatch(bankName);
+        if (matched != null) {
+            return matched;
+        }
+        String bankNameUpper = bankName.toUpperCase();
+        for (Bank bank : current.banks) {
+            if (bank.getBankname() != null && bank.getBankname().toUpperCase().contains(bankNameUpper)) {
+                return bank;
+            }
+        }
+        return null;
+    }
+
+    private static final class Index {
+        private final List<Bank> banks;
+        private final AhoCorasick<Bank> automaton;
+
+        private Index(List<Bank> banks, AhoCorasick<Bank> automaton) {
+            this.banks = banks;
+            this.automaton = automaton;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.bankingparser.parser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Immutable set of UTF-16 chars, stored as sorted, non-adjacent inclusive ranges.
+ */
+final class CharRanges {
+
+    static final int MAX = Character.MAX_VALUE;
+
+    static final CharRanges EMPTY = new CharRanges(new int[0]);
+    static final CharRanges ALL = new CharRanges(new int[]{0, MAX});
+
+    // [lo0, hi0, lo1, hi1, ...]
+    private final int[] bounds;
+
+    private CharRanges(int[] bounds) {
+        this.bounds = bounds;
+    }
+
+    static CharRanges of(int lo, int hi) {
+        return new CharRanges(new int[]{lo, hi});
+    }
+
+    static CharRanges single(int c) {
+        return of(c, c);
+    }
+
+    static CharRanges union(List<CharRanges> sets) {
+        List<int[]> ranges = new ArrayList<>();
+        for (CharRanges set : sets) {
+            for (int i = 0; i < set.bounds.length; i += 2) {
+                ranges.add(new int[]{set.bounds[i], set.bounds[i + 1]});
+            }
+        }
+        return normalize(ranges);
+    }
+
+    CharRanges union(CharRanges other) {
+        return union(List.of(this, other));
+    }
+
+    CharRanges complement() {
+        List<int[]> ranges = new ArrayList<>();
+        int next = 0;
+        for (int i = 0; i < bounds.length; i += 2) {
+            if (bounds[i] > next) {
+                ranges.add(new int[]{next, bounds[i] - 1});
+            }
+            next = bounds[i + 1] + 1;
+        }
+        if (next <= MAX) {
+            ranges.add(new int[]{next, MAX});
+        }
+        return normalize(ranges);
+    }
+
+    /**
+     * Close the set under ASCII case, the way CASE_INSENSITIVE (without UNICODE_CASE) matches
+     */
+    CharRanges asciiCaseInsensitive() {
+        List<int[]> ranges = new ArrayList<>();
+        for (int i = 0; i < bounds.length; i += 2) {
+            int lo = bounds[i];
+            int hi = bounds[i + 1];
+            ranges.add(new int[]{lo, hi});
+            addShifted(ranges, lo, hi, 'a', 'z', 'A' - 'a');
+            addShifted(ranges, lo, hi, 'A', 'Z', 'a' - 'A');
+        }
+        return normalize(ranges);
+    }
+
+    boolean contains(int c) {
+        // Binary search over range starts
+        int low = 0;
+        int high = bounds.length / 2 - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (c < bounds[2 * mid]) {
+                high = mid - 1;
+            } else if (c > bounds[2 * mid + 1]) {
+                low = mid + 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Every position where membership can change: each range start and the char after each range end
+     */
+    void addBoundaries(Set<Integer> boundaries) {
+        for (int i = 0; i < bounds.length; i += 2) {
+            boundaries.add(bounds[i]);
+            if (bounds[i + 1] < MAX) {
+                boundaries.add(bounds[i + 1] + 1);
+            }
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof CharRanges && Arrays.equals(bounds, ((CharRanges) o).bounds);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(bounds);
+    }
+
+    private static void addShifted(List<int[]> ranges, int lo, int hi, char from, char to, int shift) {
+        int start = Math.max(lo, from);
+        int end = Math.min(hi, to);
+        if (start <= end) {
+            ranges.add(new int[]{start + shift, end + shift});
+        }
+    }
+
+    private static CharRanges normalize(List<int[]> ranges) {
+        ranges.sort((a, b) -> Integer.compare(a[0], b[0]));
+        int[] merged = new int[ranges.size() * 2];
+        int size = 0;
+        for (int[] range : ranges) {
+            if (size > 0 && range[0] <= merged[size - 1] + 1) {
+                merged[size - 1] = Math.max(merged[size - 1], range[1]);
+            } else {
+                merged[size++] = range[0];
+                merged[size++] = range[1];
+            }
+        }
+        return new CharRanges(Arrays.copyOf(merged, size));
+    }
+}
@@ -0,0 +1,511 @@
+package com.bankingparser.parser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * All of a bank's automaton-compatible patterns compiled into one NFA, searched through a
+ * lazily built DFA.
+ *
+ * One pass over the SMS reports every pattern that matches somewhere in it (find() semantics),
+ * so java.util.regex only runs on the pattern that wins, to extract its groups. Patterns
+ * {@link RegexSubset} cannot express are not covered and keep going through the regex path.
+ *
+ * DFA states are created on first use and cached. The cache is bounded: when it fills up it
+ * is dropped and rebuilt from the states the current inputs need, and an automaton that keeps
+ * thrashing gives up so the bank falls back to plain regex matching.
+ *
+ * Thread-safe. Scans read transitions without locking; only building a missing transition
+ * takes the lock. A DState only has final fields, so a racing reader of next[] sees either
+ * null (and builds under the lock) or a fully constructed state.
+ */
+final class CombinedAutomaton {
+
+    private static final int MAX_NFA_STATES = 200_000;
+    private static final int MAX_PATTERN_STATES = 20_000;
+    private static final int MAX_DFA_STATES = 4_096;
+    private static final int MAX_CACHE_RESETS = 64;
+
+    // NFA state kinds
+    private static final int CHAR = 0;
+    private static final int SPLIT = 1;
+    private static final int MATCH = 2;
+
+    private static final int[] NONE = new int[0];
+
+    private final int patternCount;
+    private final BitSet covered;
+
+    // NFA, struct-of-arrays; out2 only for SPLIT, pattern only for MATCH
+    private int[] kind = new int[256];
+    private int[] out1 = new int[256];
+    private int[] out2 = new int[256];
+    private int[] pattern = new int[256];
+    private boolean[] endAnchored = new boolean[256];
+    private CharRanges[] ranges = new CharRanges[256];
+    private int stateCount;
+    private int patternStart;
+
+    // Alphabet partition: chars with equal membership in every set share a class
+    private int[] classStarts;
+    private final byte[] asciiClass = new byte[128];
+    private BitSet[] classesOf;      // per CHAR state: classes it accepts
+    private int classCount;
+
+    // Epsilon closure of every unanchored start, implied in every DFA state and not stored
+    private int[] restart;
+    private BitSet inRestart;
+    private int[][] restartMoves;    // per class, lazily
+
+    private final Object lock = new Object();
+    private Map<StateKey, DState> cache = new HashMap<>();
+    private volatile DState initial;
+    private volatile boolean disabled;
+    private int resets;
+
+    // Scratch for building transitions (guarded by lock)
+    private int[] mark;
+    private int markGeneration;
+    private int[] stack;
+
+    private CombinedAutomaton(int patternCount) {
+        this.patternCount = patternCount;
+        this.covered = new BitSet(patternCount);
+    }
+
+    /**
+     * Compile the patterns (indexed as in the list) that the automaton supports; null if none is
+     */
+    static CombinedAutomaton build(List<CompiledPattern> patterns) {
+        CombinedAutomaton automaton = new CombinedAutomaton(patterns.size());
+        List<Integer> unanchoredStarts = new ArrayList<>();
+        List<Integer> anchoredStarts = new ArrayList<>();
+
+        for (int i = 0; i < patterns.size(); i++) {
+            RegexSubset.Parsed parsed = RegexSubset.parse(patterns.get(i).getRegex());
+            if (parsed == null) {
+                continue;
+            }
+            int checkpoint = automaton.stateCount;
+            automaton.patternStart = checkpoint;
+            try {
+                int match = automaton.newState(MATCH);
+                automaton.pattern[match] = i;
+                automaton.endAnchored[match] = parsed.anchoredEnd;
+                int start = automaton.compile(parsed.body, match);
+                (parsed.anchoredStart ? anchoredStarts : unanchoredStarts).add(start);
+                automaton.covered.set(i);
+            } catch (TooLarge e) {
+                // Too big to expand (e.g. large counted repeats) - leave it to the regex engine
+                automaton.stateCount = checkpoint;
+            }
+        }
+        if (automaton.covered.isEmpty()) {
+            return null;
+        }
+        automaton.finish(unanchoredStarts, anchoredStarts);
+        return automaton;
+    }
+
+    /**
+     * Whether the pattern at this index is decided by the automaton
+     */
+    boolean covers(int index) {
+        return covered.get(index);
+    }
+
+    int coveredCount() {
+        return covered.cardinality();
+    }
+
+    /**
+     * Indexes of covered patterns that find() a match in the text,
+     * or null if the automaton cannot decide for this text
+     */
+    BitSet matches(CharSequence text) {
+        if (disabled) {
+            return null;
+        }
+        int length = text.length();
+        int endA = length;
+        int endB = -1;
+        int endC = -1;
+        // $ (without MULTILINE) also matches before a final line terminator, and before a final \r\n
+        if (length > 0) {
+            char last = text.charAt(length - 1);
+            boolean crlf = last == '\n' && length > 1 && text.charAt(length - 2) == '\r';
+            if (crlf) {
+                endC = length - 2;
+            } else if (isLineTerminator(last)) {
+                endB = length - 1;
+            }
+        }
+
+        BitSet matched = new BitSet(patternCount);
+        DState state = initial;
+        for (int i = 0; ; i++) {
+            for (int p : state.accept) {
+                matched.set(p);
+            }
+            if (state.acceptAtEnd.length > 0 && (i == endA || i == endB || i == endC)) {
+                for (int p : state.acceptAtEnd) {
+                    matched.set(p);
+                }
+            }
+            if (i == length) {
+                return matched;
+            }
+            char c = text.charAt(i);
+            if (Character.isSurrogate(c)) {
+                // java.util.regex matches supplementary characters as one code point
+                return null;
+            }
+            int cls = c < 128 ? asciiClass[c] : classOf(c);
+            DState next = state.next[cls];
+            if (next == null) {
+                next = transition(state, cls);
+                if (next == null) {
+                    return null;
+                }
+            }
+            state = next;
+        }
+    }
+
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    // ---- NFA construction --------------------------------------------------------------
+
+    private int newState(int stateKind) {
+        if (stateCount == MAX_NFA_STATES || stateCount - patternStart == MAX_PATTERN_STATES) {
+            throw TooLarge.INSTANCE;
+        }
+        if (stateCount == kind.length) {
+            int size = kind.length * 2;
+            kind = Arrays.copyOf(kind, size);
+            out1 = Arrays.copyOf(out1, size);
+            out2 = Arrays.copyOf(out2, size);
+            pattern = Arrays.copyOf(pattern, size);
+            endAnchored = Arrays.copyOf(endAnchored, size);
+            ranges = Arrays.copyOf(ranges, size);
+        }
+        kind[stateCount] = stateKind;
+        return stateCount++;
+    }
+
+    private int split(int first, int second) {
+        int state = newState(SPLIT);
+        out1[state] = first;
+        out2[state] = second;
+        return state;
+    }
+
+    /**
+     * Thompson construction, back to front: returns the entry state of node followed by next
+     */
+    private int compile(RegexSubset.Node node, int next) {
+        if (node instanceof RegexSubset.Chars) {
+            int state = newState(CHAR);
+            ranges[state] = ((RegexSubset.Chars) node).chars;
+            out1[state] = next;
+            return state;
+        }
+        if (node instanceof RegexSubset.Sequence) {
+            List<RegexSubset.Node> items = ((RegexSubset.Sequence) node).items;
+            int entry = next;
+            for (int i = items.size() - 1; i >= 0; i--) {
+                entry = compile(items.get(i), entry);
+            }
+            return entry;
+        }
+        if (node instanceof RegexSubset.Alternation) {
+            List<RegexSubset.Node> branches = ((RegexSubset.Alternation) node).branches;
+            int entry = compile(branches.get(branches.size() - 1), next);
+            for (int i = branches.size() - 2; i >= 0; i--) {
+                entry = split(compile(branches.get(i), next), entry);
+            }
+            return entry;
+        }
+        RegexSubset.Repeat repeat = (RegexSubset.Repeat) node;
+        int entry = next;
+        if (repeat.max == RegexSubset.Repeat.UNBOUNDED) {
+            int loop = split(-1, next);
+            // Compile before touching out1: compiling may grow (replace) the arrays
+            int body = compile(repeat.body, loop);
+            out1[loop] = body;
+            entry = loop;
+        } else {
+            for (int i = repeat.min; i < repeat.max; i++) {
+                entry = split(compile(repeat.body, entry), next);
+            }
+        }
+        for (int i = 0; i < repeat.min; i++) {
+            entry = compile(repeat.body, entry);
+        }
+        return entry;
+    }
+
+    private void finish(List<Integer> unanchoredStarts, List<Integer> anchoredStarts) {
+        // Partition the alphabet on every range boundary
+        Set<Integer> boundaries = new TreeSet<>();
+        boundaries.add(0);
+        Map<CharRanges, BitSet> classSets = new HashMap<>();
+        for (int s = 0; s < stateCount; s++) {
+            if (kind[s] == CHAR) {
+                ranges[s].addBoundaries(boundaries);
+            }
+        }
+        classStarts = boundaries.stream().mapToInt(Integer::intValue).toArray();
+        classCount = classStarts.length;
+        // At most 128 partition starts fall in ASCII, so its class ids fit a byte
+        for (int c = 0; c < 128; c++) {
+            asciiClass[c] = (byte) classOf(c);
+        }
+
+        classesOf = new BitSet[stateCount];
+        for (int s = 0; s < stateCount; s++) {
+            if (kind[s] != CHAR) {
+                continue;
+            }
+            classesOf[s] = classSets.computeIfAbsent(ranges[s], set -> {
+                BitSet classes = new BitSet(classCount);
+                for (int k = 0; k < classCount; k++) {
+                    if (set.contains(classStarts[k])) {
+                        classes.set(k);
+                    }
+                }
+                return classes;
+            });
+            ranges[s] = null;
+        }
+
+        mark = new int[stateCount];
+        stack = new int[stateCount];
+
+        restart = closure(toArray(unanchoredStarts), null);
+        inRestart = new BitSet(stateCount);
+        for (int s : restart) {
+            inRestart.set(s);
+        }
+        restartMoves = new int[classCount][];
+
+        List<Integer> allStarts = new ArrayList<>(unanchoredStarts);
+        allStarts.addAll(anchoredStarts);
+        synchronized (lock) {
+            initial = state(closure(toArray(allStarts), inRestart));
+        }
+    }
+
+    /**
+     * Class of a char: the last partition start at or below it
+     */
+    private int classOf(int c) {
+        int low = 0;
+        int high = classStarts.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (classStarts[mid] <= c) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    // ---- Lazy DFA ----------------------------------------------------------------------
+
+    private DState transition(DState from, int cls) {
+        synchronized (lock) {
+            DState existing = from.next[cls];
+            if (existing != null) {
+                return existing;
+            }
+            if (disabled) {
+                return null;
+            }
+
+            int[] moved = closure(move(from.states, cls), null);
+            int[] fromRestart = restartMoves[cls];
+            if (fromRestart == null) {
+                fromRestart = closure(move(restart, cls), null);
+                restartMoves[cls] = fromRestart;
+            }
+            int[] merged = withoutRestart(union(moved, fromRestart));
+
+            if (cache.size() >= MAX_DFA_STATES) {
+                if (++resets > MAX_CACHE_RESETS) {
+                    System.err.println("Combined pattern automaton keeps overflowing its state cache; using regex matching for this bank");
+                    disabled = true;
+                    return null;
+                }
+                // Unlink the old states so they can be collected; a scan still holding one
+                // just rebuilds its next transition under the lock
+                for (DState old : cache.values()) {
+                    Arrays.fill(old.next, null);
+                }
+                cache = new HashMap<>();
+                cache.put(new StateKey(initial.states), initial);
+            }
+            DState target = state(merged);
+            from.next[cls] = target;
+            return target;
+        }
+    }
+
+    private DState state(int[] states) {
+        StateKey key = new StateKey(states);
+        DState state = cache.get(key);
+        if (state == null) {
+            state = new DState(states, accepting(states, false), accepting(states, true), classCount);
+            cache.put(key, state);
+        }
+        return state;
+    }
+
+    /**
+     * Patterns whose MATCH state is in the set (or implied by the restart closure)
+     */
+    private int[] accepting(int[] states, boolean atEnd) {
+        List<Integer> patterns = new ArrayList<>();
+        for (int[] set : new int[][]{states, restart}) {
+            for (int s : set) {
+                if (kind[s] == MATCH && endAnchored[s] == atEnd) {
+                    patterns.add(pattern[s]);
+                }
+            }
+        }
+        return patterns.isEmpty() ? NONE : toArray(patterns);
+    }
+
+    private int[] move(int[] states, int cls) {
+        int[] targets = new int[states.length];
+        int size = 0;
+        for (int s : states) {
+            if (kind[s] == CHAR && classesOf[s].get(cls)) {
+                targets[size++] = out1[s];
+            }
+        }
+        return Arrays.copyOf(targets, size);
+    }
+
+    /**
+     * Epsilon closure, keeping only CHAR and MATCH states, sorted; optionally minus some states
+     */
+    private int[] closure(int[] from, BitSet exclude) {
+        int generation = ++markGeneration;
+        int top = 0;
+        for (int s : from) {
+            if (mark[s] != generation) {
+                mark[s] = generation;
+                stack[top++] = s;
+            }
+        }
+        int[] result = new int[16];
+        int size = 0;
+        while (top > 0) {
+            int s = stack[--top];
+            if (kind[s] == SPLIT) {
+                for (int target : new int[]{out1[s], out2[s]}) {
+                    if (mark[target] != generation) {
+                        mark[target] = generation;
+                        stack[top++] = target;
+                    }
+                }
+            } else if (exclude == null || !exclude.get(s)) {
+                if (size == result.length) {
+                    result = Arrays.copyOf(result, size * 2);
+                }
+                result[size++] = s;
+            }
+        }
+        int[] sorted = Arrays.copyOf(result, size);
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    private int[] withoutRestart(int[] states) {
+        int[] kept = new int[states.length];
+        int size = 0;
+        for (int s : states) {
+            if (!inRestart.get(s)) {
+                kept[size++] = s;
+            }
+        }
+        return Arrays.copyOf(kept, size);
+    }
+
+    private static int[] union(int[] a, int[] b) {
+        int[] merged = new int[a.length + b.length];
+        int i = 0;
+        int j = 0;
+        int size = 0;
+        while (i < a.length || j < b.length) {
+            int next;
+            if (j == b.length || (i < a.length && a[i] < b[j])) {
+                next = a[i++];
+            } else if (i == a.length || b[j] < a[i]) {
+                next = b[j++];
+            } else {
+                next = a[i++];
+                j++;
+            }
+            merged[size++] = next;
+        }
+        return Arrays.copyOf(merged, size);
+    }
+
+    private static int[] toArray(List<Integer> values) {
+        return values.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static final class DState {
+        final int[] states;          // NFA states beyond the restart closure
+        final int[] accept;          // patterns matched once this state is reached
+        final int[] acceptAtEnd;     // $-anchored patterns matched if the input ends here
+        final DState[] next;         // by char class, filled lazily
+
+        DState(int[] states, int[] accept, int[] acceptAtEnd, int classCount) {
+            this.states = states;
+            this.accept = accept;
+            this.acceptAtEnd = acceptAtEnd;
+            this.next = new DState[classCount];
+        }
+    }
+
+    private static final class StateKey {
+        private final int[] states;
+        private final int hash;
+
+        StateKey(int[] states) {
+            this.states = states;
+            this.hash = Arrays.hashCode(states);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof StateKey && Arrays.equals(states, ((StateKey) o).states);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class TooLarge extends RuntimeException {
+        static final TooLarge INSTANCE = new TooLarge();
+
+        private TooLarge() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.bankingparser.parser;
+
+import com.bankingparser.model.Pattern;
+
+import java.util.List;
+
+/**
+ * An APPROVED pattern together with its precompiled regex.
+ * Instances are immutable and shared by all request threads.
+ */
+public class CompiledPattern {
+
+    private final Pattern source;
+    private final java.util.regex.Pattern regex;
+    private final List<String> requiredLiterals;
+    private final ExtractionPlan extractionPlan;
+    private final PatternStats stats;
+
+    public CompiledPattern(Pattern source, java.util.regex.Pattern regex, PatternStats stats) {
+        this.source = source;
+        this.regex = regex;
+        this.requiredLiterals = LiteralExtractor.requiredLiterals(source.getPattern());
+        this.extractionPlan = ExtractionPlan.forPattern(regex);
+        this.stats = stats;
+    }
+
+    /**
+     * Compile an APPROVED pattern the same way the parser always has (case-insensitive)
+     */
+    public static CompiledPattern compile(Pattern source, PatternStats stats) {
+        java.util.regex.Pattern regex = java.util.regex.Pattern.compile(
+                source.getPattern(),
+                java.util.regex.Pattern.CASE_INSENSITIVE
+        );
+        return new CompiledPattern(source, regex, stats);
+    }
+
+    public Pattern getSource() {
+        return source;
+    }
+
+    public java.util.regex.Pattern getRegex() {
+        return regex;
+    }
+
+    /**
+     * Literal substrings every match must contain, extracted once at approval time
+     */
+    public List<String> getRequiredLiterals() {
+        return requiredLiterals;
+    }
+
+    public ExtractionPlan getExtractionPlan() {
+        return extractionPlan;
+    }
+
+    public PatternStats getStats() {
+        return stats;
+    }
+
+    public Integer getPatternId() {
+        return source.getPatternId();
+    }
+
+    public Integer getBankId() {
+        return source.getBankId();
+    }
+}
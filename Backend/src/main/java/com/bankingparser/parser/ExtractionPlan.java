@@ -0,0 +1,265 @@
+package com.bankingparser.parser;
+
+import com.bankingparser.dto.ExtractedFieldsResponse;
+import com.bankingparser.util.DateShape;
+import com.bankingparser.util.MinorUnits;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Precomputed mapping from a regex's named groups to ExtractedFieldsResponse fields.
+ *
+ * Built once per compiled pattern, so extraction only reads groups the pattern
+ * actually has and never relies on IllegalArgumentException for missing names.
+ * Aliases keep their historical precedence: merchantName over merchant,
+ * txType over type, referenceNumber over refNo.
+ * Amount groups are decoded into paise straight from the matched input, without
+ * materializing the group as a String. The date group is normalized to ISO (yyyy-MM-dd);
+ * the plan remembers which {@link DateShape} its pattern's dates came in, so later
+ * matches decode with that layout directly and skip classification.
+ */
+public final class ExtractionPlan {
+
+    // Group number used when the scan of the regex source could not be verified
+    private static final int UNKNOWN_NUMBER = 0;
+
+    private final Slot amount;
+    private final Slot accountNumber;
+    private final Slot bankName;
+    private final Slot merchantName;
+    private final Slot txType;
+    private final Slot msgType;
+    private final Slot msgSubtype;
+    private final Slot date;
+    private final Slot availableBalance;
+    private final Slot referenceNo;
+
+    // Layout of the last date this pattern produced; a benign race, any value is a valid hint
+    private volatile DateShape dateShape;
+
+    private ExtractionPlan(Map<String, Integer> groups) {
+        this.amount = group(groups, "amount", null);
+        this.accountNumber = group(groups, "accountNumber", null);
+        this.bankName = group(groups, "bankName", null);
+        this.merchantName = group(groups, "merchantName", "merchant");
+        this.txType = group(groups, "txType", "type");
+        this.msgType = group(groups, "msgType", null);
+        this.msgSubtype = group(groups, "msgSubtype", null);
+        this.date = group(groups, "date", null);
+        this.availableBalance = group(groups, "availableBalance", null);
+        this.referenceNo = group(groups, "referenceNumber", "refNo");
+    }
+
+    /**
+     * Derive the plan for a compiled regex from its named groups
+     */
+    public static ExtractionPlan forPattern(java.util.regex.Pattern regex) {
+        return new ExtractionPlan(namedGroups(regex));
+    }
+
+    /**
+     * Copy every planned group of a successful match into the response.
+     * input must be the text the matcher ran on.
+     */
+    public void apply(Matcher matcher, CharSequence input, ExtractedFieldsResponse response) {
+        if (amount != null) {
+            response.setAmountPaise(amount.readPaise(matcher, input));
+        }
+        if (accountNumber != null) {
+            response.setAccountNumber(accountNumber.read(matcher));
+        }
+        if (bankName != null) {
+            response.setBankName(bankName.read(matcher));
+        }
+        if (merchantName != null) {
+            response.setMerchantName(merchantName.read(matcher));
+        }
+        if (txType != null) {
+            response.setTxType(txType.read(matcher));
+        }
+        if (msgType != null) {
+            response.setMsgType(msgType.read(matcher));
+        }
+        if (msgSubtype != null) {
+            response.setMsgSubtype(msgSubtype.read(matcher));
+        }
+        if (date != null) {
+            response.setDate(isoDate(matcher, input));
+        }
+        if (availableBalance != null) {
+            response.setAvailableBalancePaise(availableBalance.readPaise(matcher, input));
+        }
+        if (referenceNo != null) {
+            response.setReferenceNo(referenceNo.read(matcher));
+        }
+    }
+
+    /**
+     * The date group as yyyy-MM-dd, or as captured if it is in no known layout
+     */
+    private String isoDate(Matcher matcher, CharSequence input) {
+        int start = date.start(matcher);
+        if (start < 0) {
+            return null;
+        }
+        int end = date.end(matcher);
+        DateShape shape = dateShape;
+        LocalDate parsed = shape != null ? shape.parse(input, start, end) : null;
+        if (parsed == null) {
+            shape = DateShape.classify(input, start, end);
+            parsed = shape != null ? shape.parse(input, start, end) : null;
+            if (parsed != null) {
+                dateShape = shape;
+            }
+        }
+        return parsed != null ? parsed.toString() : input.subSequence(start, end).toString();
+    }
+
+    private static Slot group(Map<String, Integer> groups, String name, String alias) {
+        if (groups.containsKey(name)) {
+            return new Slot(groups.get(name), name);
+        }
+        if (alias != null && groups.containsKey(alias)) {
+            return new Slot(groups.get(alias), alias);
+        }
+        return null;
+    }
+
+    /**
+     * Where a field's value lives in a match: by group number when known, else by verified name
+     */
+    private static final class Slot {
+        private final int number;
+        private final String name;
+
+        private Slot(int number, String name) {
+            this.number = number;
+            this.name = name;
+        }
+
+        private String read(Matcher matcher) {
+            return number != UNKNOWN_NUMBER ? matcher.group(number) : matcher.group(name);
+        }
+
+        private int start(Matcher matcher) {
+            return number != UNKNOWN_NUMBER ? matcher.start(number) : matcher.start(name);
+        }
+
+        private int end(Matcher matcher) {
+            return number != UNKNOWN_NUMBER ? matcher.end(number) : matcher.end(name);
+        }
+
+        /**
+         * Captured amount ("1,00,000.50") in paise, or null if absent or not a plain decimal number
+         */
+        private Long readPaise(Matcher matcher, CharSequence input) {
+            int start = start(matcher);
+            if (start < 0) {
+                return null;
+            }
+            int end = end(matcher);
+            long paise = MinorUnits.parse(input, start, end);
+            return paise != MinorUnits.NONE ? paise : null;
+        }
+    }
+
+    /**
+     * Map of group name to group number, found by scanning the regex source.
+     * If the scan disagrees with the compiled pattern's group count, names are
+     * confirmed one by one against the regex engine instead.
+     */
+    static Map<String, Integer> namedGroups(java.util.regex.Pattern regex) {
+        String source = regex.pattern();
+        Map<String, Integer> groups = new HashMap<>();
+        int capturing = 0;
+        int i = 0;
+        while (i < source.length()) {
+            char c = source.charAt(i);
+            if (c == '\\') {
+                if (i + 1 < source.length() && source.charAt(i + 1) == 'Q') {
+                    int end = source.indexOf("\\E", i + 2);
+                    i = end < 0 ? source.length() : end + 2;
+                } else {
+                    i += 2;
+                }
+                continue;
+            }
+            if (c == '[') {
+                i = skipClass(source, i);
+                continue;
+            }
+            if (c == '(') {
+                if (i + 1 < source.length() && source.charAt(i + 1) == '?') {
+                    if (i + 2 < source.length() && source.charAt(i + 2) == '<'
+                            && i + 3 < source.length() && source.charAt(i + 3) != '=' && source.charAt(i + 3) != '!') {
+                        int close = source.indexOf('>', i + 3);
+                        if (close > 0) {
+                            capturing++;
+                            groups.put(source.substring(i + 3, close), capturing);
+                            i = close + 1;
+                            continue;
+                        }
+                    }
+                } else {
+                    capturing++;
+                }
+            }
+            i++;
+        }
+
+        if (capturing == regex.matcher("").groupCount()) {
+            return groups;
+        }
+        return confirmedNames(regex, groups);
+    }
+
+    /**
+     * Fallback for sources the scanner misreads: keep only names the regex engine accepts,
+     * to be read by name since their numbers are uncertain
+     */
+    private static Map<String, Integer> confirmedNames(java.util.regex.Pattern regex, Map<String, Integer> candidates) {
+        Map<String, Integer> confirmed = new HashMap<>();
+        for (String name : candidates.keySet()) {
+            try {
+                // A back reference only compiles if the named group exists
+                java.util.regex.Pattern.compile("(?:" + regex.pattern() + ")\\k<" + name + ">", regex.flags());
+                confirmed.put(name, UNKNOWN_NUMBER);
+            } catch (PatternSyntaxException e) {
+                // Not a real group name - leave the field out of the plan
+            }
+        }
+        return confirmed;
+    }
+
+    private static int skipClass(String source, int open) {
+        int depth = 0;
+        int i = open;
+        while (i < source.length()) {
+            char c = source.charAt(i);
+            if (c == '\\') {
+                i += 2;
+                continue;
+            }
+            if (c == '[') {
+                depth++;
+                if (i + 1 < source.length() && source.charAt(i + 1) == '^') {
+                    i++;
+                }
+                if (i + 1 < source.length() && source.charAt(i + 1) == ']') {
+                    i++;
+                }
+            } else if (c == ']') {
+                depth--;
+                if (depth == 0) {
+                    return i + 1;
+                }
+            }
+            i++;
+        }
+        return source.length();
+    }
+}
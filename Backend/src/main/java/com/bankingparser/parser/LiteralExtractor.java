@@ -0,0 +1,255 @@
+package com.bankingparser.parser;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Extracts literal substrings that every match of a regex must contain.
+ *
+ * The analysis is deliberately conservative: it only looks at the top-level sequence
+ * of the regex (groups, character classes and escapes such as \d end a literal run),
+ * and gives up entirely on top-level alternation, comment mode or Unicode case folding.
+ * Returning too few literals only costs speed; returning a wrong one would lose matches.
+ */
+public final class LiteralExtractor {
+
+    // Shorter literals prune too little to be worth a lookup
+    static final int MIN_LITERAL_LENGTH = 3;
+    static final int MAX_LITERALS = 4;
+
+    private LiteralExtractor() {
+    }
+
+    /**
+     * Required literals of a regex, longest first (empty if none can be proven)
+     */
+    public static List<String> requiredLiterals(String regex) {
+        if (regex == null || regex.isEmpty() || regex.contains("\\Q")) {
+            return List.of();
+        }
+
+        Set<String> literals = new LinkedHashSet<>();
+        StringBuilder run = new StringBuilder();
+        boolean lastAtomLiteral = false;
+        int i = 0;
+        int n = regex.length();
+
+        while (i < n) {
+            char c = regex.charAt(i);
+            switch (c) {
+                case '|':
+                    // Top-level alternation: no literal is required by every branch
+                    return List.of();
+                case '(':
+                    if (hasUnsupportedFlag(regex, i)) {
+                        return List.of();
+                    }
+                    flush(run, literals);
+                    i = skipGroup(regex, i);
+                    lastAtomLiteral = false;
+                    continue;
+                case '[':
+                    flush(run, literals);
+                    i = skipClass(regex, i);
+                    lastAtomLiteral = false;
+                    continue;
+                case '.':
+                case '^':
+                case '$':
+                    flush(run, literals);
+                    lastAtomLiteral = false;
+                    i++;
+                    continue;
+                case '*':
+                case '?':
+                case '+':
+                case '{': {
+                    boolean optional = c != '+' && !(c == '{' && minRepeat(regex, i) > 0);
+                    if (lastAtomLiteral && run.length() > 0) {
+                        if (optional) {
+                            // The quantified char may be absent, so it cannot be part of the run
+                            run.setLength(run.length() - 1);
+                        }
+                        flush(run, literals);
+                    }
+                    i = skipQuantifier(regex, i);
+                    lastAtomLiteral = false;
+                    continue;
+                }
+                case '\\': {
+                    if (i + 1 >= n) {
+                        return List.of();
+                    }
+                    char next = regex.charAt(i + 1);
+                    if (Character.isLetterOrDigit(next)) {
+                        flush(run, literals);
+                        i = skipEscape(regex, i);
+                        lastAtomLiteral = false;
+                    } else {
+                        run.append(next);
+                        lastAtomLiteral = true;
+                        i += 2;
+                    }
+                    continue;
+                }
+                default:
+                    run.append(c);
+                    lastAtomLiteral = true;
+                    i++;
+            }
+        }
+        flush(run, literals);
+
+        List<String> sorted = new ArrayList<>(literals);
+        sorted.sort(Comparator.comparingInt(String::length).reversed());
+        return List.copyOf(sorted.subList(0, Math.min(MAX_LITERALS, sorted.size())));
+    }
+
+    private static void flush(StringBuilder run, Set<String> literals) {
+        if (run.length() >= MIN_LITERAL_LENGTH) {
+            literals.add(run.toString());
+        }
+        run.setLength(0);
+    }
+
+    /**
+     * True for inline flag groups that turn on comment mode (?x) or Unicode case folding (?u),
+     * both of which change what a literal in the regex text can match
+     */
+    private static boolean hasUnsupportedFlag(String regex, int open) {
+        if (open + 1 >= regex.length() || regex.charAt(open + 1) != '?') {
+            return false;
+        }
+        for (int i = open + 2; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            if (c == 'x' || c == 'u') {
+                return true;
+            }
+            if (!Character.isLetter(c) && c != '-') {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private static int skipGroup(String regex, int open) {
+        int depth = 0;
+        int i = open;
+        while (i < regex.length()) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                i += 2;
+                continue;
+            }
+            if (c == '[') {
+                i = skipClass(regex, i);
+                continue;
+            }
+            if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+                if (depth == 0) {
+                    return i + 1;
+                }
+            }
+            i++;
+        }
+        return regex.length();
+    }
+
+    private static int skipClass(String regex, int open) {
+        int depth = 0;
+        int i = open;
+        while (i < regex.length()) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                i += 2;
+                continue;
+            }
+            if (c == '[') {
+                depth++;
+                // A ']' right after '[' or '[^' is a literal member
+                if (i + 1 < regex.length() && regex.charAt(i + 1) == '^') {
+                    i++;
+                }
+                if (i + 1 < regex.length() && regex.charAt(i + 1) == ']') {
+                    i++;
+                }
+            } else if (c == ']') {
+                depth--;
+                if (depth == 0) {
+                    return i + 1;
+                }
+            }
+            i++;
+        }
+        return regex.length();
+    }
+
+    private static int skipEscape(String regex, int backslash) {
+        int i = backslash + 1;
+        char kind = regex.charAt(i++);
+        switch (kind) {
+            case 'p':
+            case 'P':
+            case 'x':
+            case 'N':
+                if (i < regex.length() && regex.charAt(i) == '{') {
+                    int close = regex.indexOf('}', i);
+                    return close < 0 ? regex.length() : close + 1;
+                }
+                return Math.min(regex.length(), i + (kind == 'x' ? 2 : 1));
+            case 'u':
+                return Math.min(regex.length(), i + 4);
+            case 'c':
+                return Math.min(regex.length(), i + 1);
+            case 'k': {
+                int close = regex.indexOf('>', i);
+                return close < 0 ? regex.length() : close + 1;
+            }
+            case '0':
+                while (i < regex.length() && i < backslash + 5 && regex.charAt(i) >= '0' && regex.charAt(i) <= '7') {
+                    i++;
+                }
+                return i;
+            default:
+                while (Character.isDigit(kind) && i < regex.length() && Character.isDigit(regex.charAt(i))) {
+                    i++;
+                }
+                return i;
+        }
+    }
+
+    private static int minRepeat(String regex, int brace) {
+        int value = 0;
+        boolean digits = false;
+        for (int i = brace + 1; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            if (c < '0' || c > '9') {
+                break;
+            }
+            value = value * 10 + (c - '0');
+            digits = true;
+        }
+        return digits ? value : 0;
+    }
+
+    private static int skipQuantifier(String regex, int start) {
+        int i = start;
+        if (regex.charAt(i) == '{') {
+            int close = regex.indexOf('}', i);
+            i = close < 0 ? regex.length() : close + 1;
+        } else {
+            i++;
+        }
+        // Lazy or possessive suffix
+        if (i < regex.length() && (regex.charAt(i) == '?' || regex.charAt(i) == '+')) {
+            i++;
+        }
+        return i;
+    }
+}
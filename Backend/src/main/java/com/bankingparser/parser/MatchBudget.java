@@ -0,0 +1,77 @@
+package com.bankingparser.parser;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Step and time limit for a single regex match attempt.
+ *
+ * java.util.regex has no timeout, but it reads its input only through CharSequence.charAt,
+ * so wrapping the SMS in a counting CharSequence lets us abort a runaway backtracking
+ * match from inside the engine.
+ */
+public final class MatchBudget {
+
+    /**
+     * Budget used for background work such as checking patterns against stored samples
+     */
+    public static final MatchBudget DEFAULT = new MatchBudget(1_000_000L, 50L);
+
+    // Reading the clock on every char would dominate the cost of matching
+    private static final int CLOCK_CHECK_INTERVAL = 4096;
+
+    private final long maxSteps;
+    private final long timeoutNanos;
+
+    public MatchBudget(long maxSteps, long timeoutMillis) {
+        this.maxSteps = maxSteps;
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+    }
+
+    /**
+     * Wrap the text so that matching against it fails fast once the budget is spent
+     */
+    public CharSequence guard(String text) {
+        return new BudgetedCharSequence(text, maxSteps, System.nanoTime() + timeoutNanos);
+    }
+
+    private static final class BudgetedCharSequence implements CharSequence {
+
+        private final String text;
+        private final long maxSteps;
+        private final long deadline;
+        private long steps;
+
+        private BudgetedCharSequence(String text, long maxSteps, long deadline) {
+            this.text = text;
+            this.maxSteps = maxSteps;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (++steps > maxSteps) {
+                throw new MatchBudgetExceededException("Match exceeded " + maxSteps + " steps");
+            }
+            if (steps % CLOCK_CHECK_INTERVAL == 0 && System.nanoTime() - deadline > 0) {
+                throw new MatchBudgetExceededException("Match exceeded its time budget");
+            }
+            return text.charAt(index);
+        }
+
+        @Override
+        public int length() {
+            return text.length();
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            // Group extraction happens after the match, outside the budget
+            return text.substring(start, end);
+        }
+
+        @Override
+        public String toString() {
+            return text;
+        }
+    }
+}
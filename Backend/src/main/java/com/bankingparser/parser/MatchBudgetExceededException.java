@@ -0,0 +1,12 @@
+package com.bankingparser.parser;
+
+/**
+ * Thrown from inside the regex engine when a match attempt runs out of budget.
+ * Carries no stack trace: it is expected control flow on a hot path, not a bug.
+ */
+public class MatchBudgetExceededException extends RuntimeException {
+
+    public MatchBudgetExceededException(String message) {
+        super(message, null, false, false);
+    }
+}
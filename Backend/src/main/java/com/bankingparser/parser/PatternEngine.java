@@ -0,0 +1,20 @@
+package com.bankingparser.parser;
+
+/**
+ * How a bank's approved patterns are searched for the one that matches an SMS.
+ * Selected per deployment with parser.engine.
+ */
+public enum PatternEngine {
+
+    /**
+     * Try the patterns one by one with java.util.regex, behind the literal prefilter
+     */
+    REGEX,
+
+    /**
+     * One combined automaton pass per bank picks the matching patterns;
+     * java.util.regex only runs on those, to extract groups.
+     * Patterns the automaton cannot express keep the regex path.
+     */
+    AUTOMATON
+}
@@ -0,0 +1,32 @@
+package com.bankingparser.parser;
+
+import java.util.regex.Matcher;
+
+/**
+ * The approved pattern that matched an SMS, with the matcher positioned on the match
+ * and the SMS it ran on
+ */
+public class PatternMatch {
+
+    private final CompiledPattern pattern;
+    private final Matcher matcher;
+    private final String input;
+
+    public PatternMatch(CompiledPattern pattern, Matcher matcher, String input) {
+        this.pattern = pattern;
+        this.matcher = matcher;
+        this.input = input;
+    }
+
+    public CompiledPattern getPattern() {
+        return pattern;
+    }
+
+    public Matcher getMatcher() {
+        return matcher;
+    }
+
+    public String getInput() {
+        return input;
+    }
+}
@@ -0,0 +1,124 @@
+package com.bankingparser.parser;
+
+import com.bankingparser.metrics.PipelineMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.regex.Matcher;
+
+/**
+ * Finds the first approved pattern of a bank that matches an SMS.
+ *
+ * Every attempt runs under a {@link MatchBudget}. A pattern that runs out of budget is
+ * skipped for that SMS and counted; once it trips the budget quarantine-after times within
+ * quarantine-window-ms it is skipped from then on and handed to the registry, which takes
+ * it out of the live set and sends it back for review. Occasional trips spread over a
+ * long time (GC pauses, load spikes) age out of the window instead of adding up.
+ */
+@Component
+public class PatternMatcher {
+
+    @Autowired
+    private PatternRegistry patternRegistry;
+
+    @Autowired
+    private PipelineMetrics pipelineMetrics;
+
+    @Value("${parser.match.max-steps:1000000}")
+    private long maxSteps;
+
+    @Value("${parser.match.timeout-ms:50}")
+    private long timeoutMillis;
+
+    @Value("${parser.match.quarantine-after:3}")
+    private int quarantineAfter;
+
+    @Value("${parser.match.quarantine-window-ms:600000}")
+    private long quarantineWindowMs;
+
+    private MatchBudget budget;
+
+    @PostConstruct
+    public void init() {
+        budget = new MatchBudget(maxSteps, timeoutMillis);
+    }
+
+    public MatchBudget getBudget() {
+        return budget;
+    }
+
+    /**
+     * First matching pattern of the bank in priority order, or null if none matches
+     */
+    public PatternMatch match(PatternSnapshot snapshot, Integer bankId, String sms) {
+        return match(snapshot, bankId, sms, false);
+    }
+
+    /**
+     * match for live traffic or, with warmUp, for a replay that is not traffic (a warm-up, or
+     * the maker's check): replays may run while the JIT is cold, so their budget trips never
+     * count toward quarantine, and they record no metrics
+     */
+    public PatternMatch match(PatternSnapshot snapshot, Integer bankId, String sms, boolean warmUp) {
+        BankPatterns bankPatterns = snapshot.forBank(bankId);
+        if (sms == null || bankPatterns.isEmpty()) {
+            return null;
+        }
+
+        int tried = 0;
+        for (CompiledPattern compiled : bankPatterns.candidates(sms)) {
+            tried++;
+            PatternMatch match = tryPattern(compiled, sms, warmUp);
+            if (match != null) {
+                recordPatternsTried(tried, warmUp);
+                return match;
+            }
+        }
+        recordPatternsTried(tried, warmUp);
+        return null;
+    }
+
+    /**
+     * Run one pattern against the SMS under the match budget
+     */
+    public PatternMatch tryPattern(CompiledPattern compiled, String sms) {
+        return tryPattern(compiled, sms, false);
+    }
+
+    private PatternMatch tryPattern(CompiledPattern compiled, String sms, boolean warmUp) {
+        PatternStats stats = compiled.getStats();
+        if (stats.isQuarantined()) {
+            return null;
+        }
+        stats.recordAttempt();
+        try {
+            Matcher matcher = compiled.getRegex().matcher(budget.guard(sms));
+            if (matcher.find()) {
+                stats.recordHit();
+                return new PatternMatch(compiled, matcher, sms);
+            }
+        } catch (MatchBudgetExceededException | StackOverflowError e) {
+            pipelineMetrics.recordBudgetTrip(warmUp);
+            if (!warmUp) {
+                onBudgetExceeded(compiled);
+            }
+        }
+        return null;
+    }
+
+    private void recordPatternsTried(int tried, boolean warmUp) {
+        if (!warmUp) {
+            pipelineMetrics.recordPatternsTried(tried);
+        }
+    }
+
+    private void onBudgetExceeded(CompiledPattern compiled) {
+        int recentTrips = compiled.getStats().recordBudgetTrip(System.nanoTime(),
+                quarantineWindowMs * 1_000_000L, quarantineAfter);
+        if (recentTrips >= quarantineAfter && compiled.getStats().markQuarantined()) {
+            patternRegistry.requestQuarantine(compiled.getPatternId());
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.bankingparser.parser;
+
+import com.bankingparser.model.Pattern;
+import com.bankingparser.repository.PatternRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Process-wide registry of precompiled APPROVED patterns.
+ *
+ * Readers call {@link #current()} and work on an immutable snapshot without locking.
+ * Writers rebuild a complete snapshot from the database and swap it in atomically.
+ *
+ * parser.engine picks how each bank's patterns are searched (see {@link PatternEngine}).
+ */
+@Component
+public class PatternRegistry {
+
+    @Autowired
+    private PatternRepository patternRepository;
+
+    @Value("${parser.engine:regex}")
+    private String engineName;
+
+    private PatternEngine engine = PatternEngine.REGEX;
+
+    private volatile PatternSnapshot snapshot = PatternSnapshot.EMPTY;
+
+    // Usage counters by pattern id, kept across rebuilds while the pattern stays approved
+    private final Map<Integer, PatternStats> stats = new ConcurrentHashMap<>();
+
+    // Patterns flagged by the matcher, taken out of the live set by applyQuarantines
+    private final Set<Integer> pendingQuarantine = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void init() {
+        engine = PatternEngine.valueOf(engineName.trim().toUpperCase());
+        reload();
+    }
+
+    /**
+     * Current snapshot of approved patterns (never null)
+     */
+    public PatternSnapshot current() {
+        return snapshot;
+    }
+
+    public PatternEngine getEngine() {
+        return engine;
+    }
+
+    /**
+     * Approved patterns decided by the combined automaton, over all banks
+     */
+    public int automatonCoverage() {
+        int covered = 0;
+        for (BankPatterns bankPatterns : snapshot.getPatternsByBank().values()) {
+            covered += bankPatterns.automatonCoverage();
+        }
+        return covered;
+    }
+
+    /**
+     * Rebuild the snapshot from pattern_table and publish it.
+     * Rebuilds are serialized so that two concurrent approvals cannot publish out of order.
+     */
+    public synchronized PatternSnapshot reload() {
+        List<Pattern> approved = patternRepository.findByStatusOrderByPatternIdAsc("APPROVED");
+
+        // Drop the counters of patterns no longer approved, so one that is approved again
+        // (e.g. fixed after a quarantine) starts with clean trip and quarantine state
+        Set<Integer> approvedIds = new HashSet<>();
+        for (Pattern pattern : approved) {
+            approvedIds.add(pattern.getPatternId());
+        }
+        stats.keySet().retainAll(approvedIds);
+
+        Map<Integer, List<CompiledPattern>> building = new LinkedHashMap<>();
+        for (Pattern pattern : approved) {
+            if (pattern.getBankId() == null || pattern.getPattern() == null) {
+                continue;
+            }
+            CompiledPattern compiled;
+            try {
+                compiled = CompiledPattern.compile(pattern, statsFor(pattern.getPatternId()));
+            } catch (PatternSyntaxException e) {
+                // Skip invalid patterns, same as the matching loop always did
+                continue;
+            }
+            building.computeIfAbsent(pattern.getBankId(), k -> new ArrayList<>()).add(compiled);
+        }
+
+        Map<Integer, BankPatterns> frozen = new HashMap<>();
+        for (Map.Entry<Integer, List<CompiledPattern>> entry : building.entrySet()) {
+            frozen.put(entry.getKey(), new BankPatterns(entry.getValue(), engine));
+        }
+
+        PatternSnapshot next = new PatternSnapshot(snapshot.getVersion() + 1, Map.copyOf(frozen));
+        snapshot = next;
+        return next;
+    }
+
+    /**
+     * Ask for a pattern to be taken out of the live set because it keeps exceeding the
+     * match budget. Cheap enough for the request thread that saw the trip: the database
+     * update and the rebuild happen on the next {@link #applyQuarantines} run.
+     */
+    public void requestQuarantine(Integer patternId) {
+        pendingQuarantine.add(patternId);
+    }
+
+    /**
+     * Move the requested patterns to status QUARANTINED, so makers and checkers can fix and
+     * resubmit them, and rebuild the snapshot once for all of them
+     */
+    @Scheduled(fixedDelayString = "${parser.match.quarantine-interval-ms:1000}")
+    public synchronized void applyQuarantines() {
+        if (pendingQuarantine.isEmpty()) {
+            return;
+        }
+        List<Integer> patternIds = new ArrayList<>(pendingQuarantine);
+        pendingQuarantine.removeAll(patternIds);
+        try {
+            for (Integer patternId : patternIds) {
+                patternRepository.findById(patternId).ifPresent(pattern -> {
+                    if ("APPROVED".equals(pattern.getStatus())) {
+                        pattern.setStatus("QUARANTINED");
+                        patternRepository.save(pattern);
+                    }
+                });
+            }
+        } catch (Exception e) {
+            // Try again on the next run; the matcher skips flagged patterns meanwhile
+            pendingQuarantine.addAll(patternIds);
+            System.err.println("Error quarantining patterns " + patternIds + ": " + e.getMessage());
+            return;
+        }
+        reload();
+    }
+
+    /**
+     * Clear all usage counters (e.g. after synthetic warm-up traffic)
+     */
+    public synchronized void resetStats() {
+        stats.values().forEach(PatternStats::reset);
+    }
+
+    private PatternStats statsFor(Integer patternId) {
+        return stats.computeIfAbsent(patternId, id -> new PatternStats());
+    }
+}
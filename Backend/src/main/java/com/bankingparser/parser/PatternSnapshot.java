@@ -0,0 +1,46 @@
+package com.bankingparser.parser;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Immutable view of all APPROVED patterns, grouped by bank.
+ * A new snapshot is published as a whole whenever the approved set changes,
+ * so readers never observe a partially rebuilt registry.
+ */
+public class PatternSnapshot {
+
+    public static final PatternSnapshot EMPTY = new PatternSnapshot(0L, Collections.emptyMap());
+
+    private final long version;
+    private final Map<Integer, BankPatterns> patternsByBank;
+
+    public PatternSnapshot(long version, Map<Integer, BankPatterns> patternsByBank) {
+        this.version = version;
+        this.patternsByBank = patternsByBank;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Approved patterns for a bank, in matching order (empty if none)
+     */
+    public BankPatterns forBank(Integer bankId) {
+        BankPatterns patterns = patternsByBank.get(bankId);
+        return patterns != null ? patterns : BankPatterns.EMPTY;
+    }
+
+    public Map<Integer, BankPatterns> getPatternsByBank() {
+        return patternsByBank;
+    }
+
+    public int size() {
+        int size = 0;
+        for (BankPatterns patterns : patternsByBank.values()) {
+            size += patterns.size();
+        }
+        return size;
+    }
+}
@@ -0,0 +1,87 @@
+package com.bankingparser.parser;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free usage counters for one approved pattern.
+ * Kept by pattern id in the registry, so they survive snapshot rebuilds while the pattern
+ * stays approved; a pattern that leaves the approved set and comes back starts afresh.
+ */
+public class PatternStats {
+
+    private final LongAdder attempts = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final AtomicLong budgetTrips = new AtomicLong();
+    private final AtomicBoolean quarantined = new AtomicBoolean();
+
+    // nanoTime of recent budget trips, oldest first; guarded by this (trips are rare)
+    private long[] recentTrips = new long[0];
+
+    public void recordAttempt() {
+        attempts.increment();
+    }
+
+    public void recordHit() {
+        hits.increment();
+    }
+
+    /**
+     * Count a match attempt that ran out of budget at time now (System.nanoTime);
+     * returns how many trips, this one included, happened within the last windowNanos.
+     * At most maxTracked recent trips are remembered.
+     */
+    public synchronized int recordBudgetTrip(long now, long windowNanos, int maxTracked) {
+        budgetTrips.incrementAndGet();
+        int keepFrom = 0;
+        while (keepFrom < recentTrips.length && now - recentTrips[keepFrom] > windowNanos) {
+            keepFrom++;
+        }
+        keepFrom = Math.max(keepFrom, recentTrips.length + 1 - Math.max(1, maxTracked));
+        long[] trips = Arrays.copyOfRange(recentTrips, keepFrom, recentTrips.length + 1);
+        trips[trips.length - 1] = now;
+        recentTrips = trips;
+        return trips.length;
+    }
+
+    /**
+     * Flag the pattern as quarantined; true only for the caller that flipped the flag
+     */
+    public boolean markQuarantined() {
+        return quarantined.compareAndSet(false, true);
+    }
+
+    /**
+     * Whether the pattern was flagged for quarantine; it is skipped until it leaves the live set
+     */
+    public boolean isQuarantined() {
+        return quarantined.get();
+    }
+
+    public long getBudgetTrips() {
+        return budgetTrips.get();
+    }
+
+    public long getAttempts() {
+        return attempts.sum();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public double getHitRate() {
+        long tried = attempts.sum();
+        return tried == 0 ? 0.0 : (double) hits.sum() / tried;
+    }
+
+    synchronized void reset() {
+        attempts.reset();
+        hits.reset();
+        budgetTrips.set(0);
+        recentTrips = new long[0];
+        quarantined.set(false);
+    }
+}
@@ -0,0 +1,539 @@
+package com.bankingparser.parser;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parser for the part of java.util.regex syntax that a finite automaton can match exactly,
+ * under the flags patterns are compiled with (CASE_INSENSITIVE only).
+ *
+ * Supported: literals and escapes, \Q..\E, ., \d \w \s and their negations, bracket classes
+ * with ranges and negation, capturing / non-capturing / named groups, alternation, greedy and
+ * lazy quantifiers, ^ at the very start and $ at the very end. Anything else (backreferences,
+ * lookaround, possessive quantifiers, word boundaries, inline flags, nested classes...) makes
+ * {@link #parse} return null, and the pattern stays on the regex engine.
+ *
+ * Lazy and greedy quantifiers accept the same strings, so they are treated alike: the
+ * automaton only answers whether a pattern matches, java.util.regex still extracts groups.
+ */
+final class RegexSubset {
+
+    /**
+     * Node of the parsed pattern
+     */
+    abstract static class Node {
+    }
+
+    static final class Chars extends Node {
+        final CharRanges chars;
+
+        Chars(CharRanges chars) {
+            this.chars = chars;
+        }
+    }
+
+    static final class Sequence extends Node {
+        final List<Node> items;
+
+        Sequence(List<Node> items) {
+            this.items = items;
+        }
+    }
+
+    static final class Alternation extends Node {
+        final List<Node> branches;
+
+        Alternation(List<Node> branches) {
+            this.branches = branches;
+        }
+    }
+
+    static final class Repeat extends Node {
+        static final int UNBOUNDED = -1;
+
+        final Node body;
+        final int min;
+        final int max;
+
+        Repeat(Node body, int min, int max) {
+            this.body = body;
+            this.min = min;
+            this.max = max;
+        }
+    }
+
+    private static final class Anchor extends Node {
+        final boolean start;
+
+        Anchor(boolean start) {
+            this.start = start;
+        }
+    }
+
+    /**
+     * A parsed pattern: its body plus whether it is anchored at either end
+     */
+    static final class Parsed {
+        final Node body;
+        final boolean anchoredStart;
+        final boolean anchoredEnd;
+
+        Parsed(Node body, boolean anchoredStart, boolean anchoredEnd) {
+            this.body = body;
+            this.anchoredStart = anchoredStart;
+            this.anchoredEnd = anchoredEnd;
+        }
+    }
+
+    // Upper bound for {n,m} counts; larger repeats would not fit in the automaton anyway
+    private static final int MAX_REPEAT = 1000;
+
+    private static final CharRanges DIGIT = CharRanges.of('0', '9');
+    private static final CharRanges WORD = CharRanges.union(List.of(
+            CharRanges.of('a', 'z'), CharRanges.of('A', 'Z'), CharRanges.single('_'), DIGIT));
+    private static final CharRanges SPACE = CharRanges.union(List.of(
+            CharRanges.single(' '), CharRanges.of('\t', '\r')));
+    // Without DOTALL, '.' excludes the line terminators \n \r \u0085 \u2028 \u2029
+    private static final CharRanges DOT = CharRanges.union(List.of(
+            CharRanges.single('\n'), CharRanges.single('\r'), CharRanges.single('\u0085'),
+            CharRanges.of('\u2028', '\u2029'))).complement();
+
+    private final String pattern;
+    private int pos;
+
+    private RegexSubset(String pattern) {
+        this.pattern = pattern;
+    }
+
+    /**
+     * Parse a pattern compiled with the given flags, or null if the automaton cannot match it exactly
+     */
+    static Parsed parse(java.util.regex.Pattern regex) {
+        if (regex.flags() != java.util.regex.Pattern.CASE_INSENSITIVE || hasSurrogates(regex.pattern())) {
+            // Supplementary characters are matched as whole code points by java.util.regex
+            return null;
+        }
+        try {
+            RegexSubset parser = new RegexSubset(removeQuoting(regex.pattern()));
+            Node root = parser.alternation();
+            if (parser.pos != parser.pattern.length()) {
+                return null;
+            }
+            return anchors(root);
+        } catch (UnsupportedSyntax e) {
+            return null;
+        }
+    }
+
+    /**
+     * Pull a leading ^ and trailing $ off the top level; anchors anywhere else are unsupported
+     */
+    private static Parsed anchors(Node root) {
+        List<Node> items = root instanceof Sequence ? new ArrayList<>(((Sequence) root).items) : new ArrayList<>(List.of(root));
+        boolean anchoredStart = false;
+        boolean anchoredEnd = false;
+        if (!items.isEmpty() && items.get(0) instanceof Anchor && ((Anchor) items.get(0)).start) {
+            items.remove(0);
+            anchoredStart = true;
+        }
+        if (!items.isEmpty() && items.get(items.size() - 1) instanceof Anchor && !((Anchor) items.get(items.size() - 1)).start) {
+            items.remove(items.size() - 1);
+            anchoredEnd = true;
+        }
+        Node body = new Sequence(items);
+        if (containsAnchor(body)) {
+            return null;
+        }
+        return new Parsed(body, anchoredStart, anchoredEnd);
+    }
+
+    private static boolean containsAnchor(Node node) {
+        if (node instanceof Anchor) {
+            return true;
+        }
+        if (node instanceof Sequence) {
+            for (Node item : ((Sequence) node).items) {
+                if (containsAnchor(item)) {
+                    return true;
+                }
+            }
+        } else if (node instanceof Alternation) {
+            for (Node branch : ((Alternation) node).branches) {
+                if (containsAnchor(branch)) {
+                    return true;
+                }
+            }
+        } else if (node instanceof Repeat) {
+            return containsAnchor(((Repeat) node).body);
+        }
+        return false;
+    }
+
+    /**
+     * Rewrite \Q..\E sections as escaped literals, the same way java.util.regex does before parsing
+     */
+    private static String removeQuoting(String pattern) {
+        if (!pattern.contains("\\Q")) {
+            return pattern;
+        }
+        StringBuilder out = new StringBuilder(pattern.length() * 2);
+        int i = 0;
+        while (i < pattern.length()) {
+            char c = pattern.charAt(i);
+            if (c != '\\' || i + 1 >= pattern.length()) {
+                out.append(c);
+                i++;
+                continue;
+            }
+            char next = pattern.charAt(i + 1);
+            if (next != 'Q') {
+                out.append(c).append(next);
+                i += 2;
+                continue;
+            }
+            i += 2;
+            int end = pattern.indexOf("\\E", i);
+            String quoted = end >= 0 ? pattern.substring(i, end) : pattern.substring(i);
+            for (int j = 0; j < quoted.length(); j++) {
+                char q = quoted.charAt(j);
+                if (q < 128 && !Character.isLetterOrDigit(q)) {
+                    out.append('\\');
+                }
+                out.append(q);
+            }
+            i = end >= 0 ? end + 2 : pattern.length();
+        }
+        return out.toString();
+    }
+
+    private Node alternation() {
+        List<Node> branches = new ArrayList<>();
+        branches.add(sequence());
+        while (more() && peek() == '|') {
+            pos++;
+            branches.add(sequence());
+        }
+        return branches.size() == 1 ? branches.get(0) : new Alternation(branches);
+    }
+
+    private Node sequence() {
+        List<Node> items = new ArrayList<>();
+        while (more() && peek() != '|' && peek() != ')') {
+            items.add(quantified(atom()));
+        }
+        return items.size() == 1 ? items.get(0) : new Sequence(items);
+    }
+
+    private Node atom() {
+        char c = pattern.charAt(pos++);
+        switch (c) {
+            case '(':
+                return group();
+            case '[':
+                return charClass();
+            case '.':
+                return new Chars(DOT);
+            case '^':
+                return new Anchor(true);
+            case '$':
+                return new Anchor(false);
+            case '\\': {
+                int escaped = escapedChar();
+                return new Chars(escaped >= 0 ? literal(escaped) : shorthand());
+            }
+            case '*':
+            case '+':
+            case '?':
+            case '{':
+                throw UnsupportedSyntax.INSTANCE;
+            default:
+                return new Chars(literal(c));
+        }
+    }
+
+    private Node group() {
+        if (more() && peek() == '?') {
+            pos++;
+            if (more() && peek() == ':') {
+                pos++;
+            } else if (more() && peek() == '<' && pos + 1 < pattern.length()
+                    && Character.isLetter(pattern.charAt(pos + 1))) {
+                int close = pattern.indexOf('>', pos);
+                if (close < 0) {
+                    throw UnsupportedSyntax.INSTANCE;
+                }
+                pos = close + 1;
+            } else {
+                // Lookaround, atomic groups, inline flags
+                throw UnsupportedSyntax.INSTANCE;
+            }
+        }
+        Node inner = alternation();
+        expect(')');
+        return inner;
+    }
+
+    private Node quantified(Node atom) {
+        if (!more()) {
+            return atom;
+        }
+        int min;
+        int max;
+        switch (peek()) {
+            case '*':
+                min = 0;
+                max = Repeat.UNBOUNDED;
+                pos++;
+                break;
+            case '+':
+                min = 1;
+                max = Repeat.UNBOUNDED;
+                pos++;
+                break;
+            case '?':
+                min = 0;
+                max = 1;
+                pos++;
+                break;
+            case '{':
+                pos++;
+                min = number();
+                if (more() && peek() == ',') {
+                    pos++;
+                    max = more() && peek() == '}' ? Repeat.UNBOUNDED : number();
+                } else {
+                    max = min;
+                }
+                expect('}');
+                break;
+            default:
+                return atom;
+        }
+        if (atom instanceof Anchor || (max != Repeat.UNBOUNDED && max < min)) {
+            throw UnsupportedSyntax.INSTANCE;
+        }
+        if (more() && peek() == '?') {
+            pos++;  // lazy: same language
+        } else if (more() && peek() == '+') {
+            throw UnsupportedSyntax.INSTANCE;  // possessive: can reject strings the automaton accepts
+        }
+        if (more() && (peek() == '*' || peek() == '+' || peek() == '?' || peek() == '{')) {
+            throw UnsupportedSyntax.INSTANCE;
+        }
+        return new Repeat(atom, min, max);
+    }
+
+    private int number() {
+        int start = pos;
+        while (more() && peek() >= '0' && peek() <= '9') {
+            pos++;
+        }
+        if (start == pos || pos - start > 4) {
+            throw UnsupportedSyntax.INSTANCE;
+        }
+        int value = Integer.parseInt(pattern.substring(start, pos));
+        if (value > MAX_REPEAT) {
+            throw UnsupportedSyntax.INSTANCE;
+        }
+        return value;
+    }
+
+    private Node charClass() {
+        boolean negated = false;
+        if (more() && peek() == '^') {
+            negated = true;
+            pos++;
+        }
+        if (more() && peek() == ']') {
+            throw UnsupportedSyntax.INSTANCE;
+        }
+
+        List<CharRanges> members = new ArrayList<>();
+        boolean first = true;
+        while (true) {
+            if (!more()) {
+                throw UnsupportedSyntax.INSTANCE;
+            }
+            char c = peek();
+            if (c == ']') {
+                pos++;
+                break;
+            }
+            if (c == '[' || (c == '&' && pos + 1 < pattern.length() && pattern.charAt(pos + 1) == '&')) {
+                // Nested classes, unions and intersections
+                throw UnsupportedSyntax.INSTANCE;
+            }
+            if (c == '-' && !first && !nextIsClassEnd()) {
+                throw UnsupportedSyntax.INSTANCE;
+            }
+            pos++;
+
+            int low = c;
+            CharRanges member = null;
+            if (c == '\\') {
+                low = escapedChar();
+                if (low < 0) {
+                    member = shorthand();
+                }
+            }
+            boolean range = more() && peek() == '-' && !nextIsClassEnd();
+            if (member != null) {
+                if (range) {
+                    throw UnsupportedSyntax.INSTANCE;
+                }
+            } else if (range) {
+                pos++;
+                int high = rangeEnd();
+                if (high < low) {
+                    throw UnsupportedSyntax.INSTANCE;
+                }
+                member = CharRanges.of(low, high);
+            } else {
+                member = CharRanges.single(low);
+            }
+            members.add(member);
+            first = false;
+        }
+
+        CharRanges chars = CharRanges.union(members).asciiCaseInsensitive();
+        return new Chars(negated ? chars.complement() : chars);
+    }
+
+    private int rangeEnd() {
+        if (!more()) {
+            throw UnsupportedSyntax.INSTANCE;
+        }
+        char c = pattern.charAt(pos++);
+        if (c == '[') {
+            throw UnsupportedSyntax.INSTANCE;
+        }
+        if (c != '\\') {
+            return c;
+        }
+        int escaped = escapedChar();
+        if (escaped < 0) {
+            throw UnsupportedSyntax.INSTANCE;
+        }
+        return escaped;
+    }
+
+    private boolean nextIsClassEnd() {
+        return pos + 1 < pattern.length() && pattern.charAt(pos + 1) == ']';
+    }
+
+    /**
+     * The char an escape sequence stands for, or -1 (nothing consumed) if it is a shorthand class
+     */
+    private int escapedChar() {
+        if (!more()) {
+            throw UnsupportedSyntax.INSTANCE;
+        }
+        char c = peek();
+        switch (c) {
+            case 'd':
+            case 'D':
+            case 'w':
+            case 'W':
+            case 's':
+            case 'S':
+                return -1;
+            default:
+                pos++;
+        }
+        switch (c) {
+            case 't':
+                return '\t';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 'f':
+                return '\f';
+            case 'a':
+                return '\u0007';
+            case 'e':
+                return '\u001B';
+            case 'x':
+                return hex(2);
+            case 'u':
+                return hex(4);
+            default:
+                if (Character.isLetterOrDigit(c)) {
+                    // Backreferences, octal, \b \B \A \z \Z \G \p \h \v \R \k ...
+                    throw UnsupportedSyntax.INSTANCE;
+                }
+                return c;
+        }
+    }
+
+    private CharRanges shorthand() {
+        switch (pattern.charAt(pos++)) {
+            case 'd':
+                return DIGIT;
+            case 'D':
+                return DIGIT.complement();
+            case 'w':
+                return WORD;
+            case 'W':
+                return WORD.complement();
+            case 's':
+                return SPACE;
+            default:
+                return SPACE.complement();
+        }
+    }
+
+    private int hex(int digits) {
+        if (pos + digits > pattern.length()) {
+            throw UnsupportedSyntax.INSTANCE;
+        }
+        int value = 0;
+        for (int i = 0; i < digits; i++) {
+            int digit = Character.digit(pattern.charAt(pos++), 16);
+            if (digit < 0) {
+                throw UnsupportedSyntax.INSTANCE;
+            }
+            value = value * 16 + digit;
+        }
+        if (Character.isSurrogate((char) value)) {
+            throw UnsupportedSyntax.INSTANCE;
+        }
+        return value;
+    }
+
+    private static CharRanges literal(int c) {
+        return CharRanges.single(c).asciiCaseInsensitive();
+    }
+
+    private static boolean hasSurrogates(String pattern) {
+        for (int i = 0; i < pattern.length(); i++) {
+            if (Character.isSurrogate(pattern.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void expect(char c) {
+        if (!more() || pattern.charAt(pos) != c) {
+            throw UnsupportedSyntax.INSTANCE;
+        }
+        pos++;
+    }
+
+    private boolean more() {
+        return pos < pattern.length();
+    }
+
+    private char peek() {
+        return pattern.charAt(pos);
+    }
+
+    private static final class UnsupportedSyntax extends RuntimeException {
+        static final UnsupportedSyntax INSTANCE = new UnsupportedSyntax();
+
+        private UnsupportedSyntax() {
+            super(null, null, false, false);
+        }
+    }
+}
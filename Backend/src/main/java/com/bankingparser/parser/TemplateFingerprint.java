@@ -0,0 +1,102 @@
+package com.bankingparser.parser;
+
+/**
+ * Cheap 64-bit fingerprint of an SMS template.
+ *
+ * Two messages produced from the same bank template differ only in their volatile tokens,
+ * so the fingerprint hashes the text with those tokens masked out:
+ * numbers (including "1,00,000.50" and dates like "14-01-26") become one placeholder,
+ * masked account numbers such as "XX1234" or "**1234" are absorbed into that placeholder,
+ * letters are upper-cased and whitespace runs collapse to one space.
+ * Computed in one pass without allocating.
+ */
+public final class TemplateFingerprint {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final char NUMBER = '#';
+
+    private TemplateFingerprint() {
+    }
+
+    public static long of(CharSequence sms) {
+        long hash = FNV_OFFSET;
+        if (sms == null) {
+            return hash;
+        }
+
+        boolean inNumber = false;
+        boolean inSpace = false;
+        int pendingMaskStart = -1;   // start of an "XX"/"**" run that may prefix a number
+        int length = sms.length();
+
+        for (int i = 0; i < length; i++) {
+            char c = sms.charAt(i);
+
+            if (c >= '0' && c <= '9') {
+                pendingMaskStart = -1;
+                if (!inNumber) {
+                    hash = mix(hash, NUMBER);
+                    inNumber = true;
+                }
+                inSpace = false;
+                continue;
+            }
+            if (inNumber && (c == ',' || c == '.' || c == '-' || c == '/' || c == ':')
+                    && i + 1 < length && isDigit(sms.charAt(i + 1))) {
+                // Separator inside an amount, date or time
+                continue;
+            }
+            inNumber = false;
+
+            if (c == 'X' || c == 'x' || c == '*') {
+                if (pendingMaskStart < 0) {
+                    pendingMaskStart = i;
+                }
+                continue;
+            }
+            hash = flushMask(hash, sms, pendingMaskStart, i);
+            pendingMaskStart = -1;
+
+            if (Character.isWhitespace(c)) {
+                if (!inSpace) {
+                    hash = mix(hash, ' ');
+                    inSpace = true;
+                }
+                continue;
+            }
+            inSpace = false;
+            hash = mix(hash, c < 128 ? asciiUpper(c) : Character.toUpperCase(c));
+        }
+        return flushMask(hash, sms, pendingMaskStart, length);
+    }
+
+    /**
+     * A mask run not followed by digits is ordinary text ("XXL", "TAX")
+     */
+    private static long flushMask(long hash, CharSequence sms, int start, int end) {
+        if (start < 0) {
+            return hash;
+        }
+        for (int j = start; j < end; j++) {
+            hash = mix(hash, asciiUpper(sms.charAt(j)));
+        }
+        return hash;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static char asciiUpper(char c) {
+        return (c >= 'a' && c <= 'z') ? (char) (c - 32) : c;
+    }
+
+    private static long mix(long hash, char c) {
+        hash ^= c & 0xff;
+        hash *= FNV_PRIME;
+        hash ^= c >>> 8;
+        hash *= FNV_PRIME;
+        return hash;
+    }
+}
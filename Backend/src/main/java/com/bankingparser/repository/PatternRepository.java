@@ -1,6 +1,7 @@
 package com.bankingparser.repository;
 
 import com.bankingparser.model.Pattern;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -9,6 +10,8 @@ import java.util.List;
 @Repository
 public interface PatternRepository extends JpaRepository<Pattern, Integer> {
     List<Pattern> findByStatus(String status);
+    List<Pattern> findByStatus(String status, Pageable pageable);
+    List<Pattern> findByStatusOrderByPatternIdAsc(String status);
     List<Pattern> findByBankId(Integer bankId);
     List<Pattern> findByBankIdAndStatus(Integer bankId, String status);
 }
@@ -0,0 +1,107 @@
+package com.bankingparser.service;
+
+/**
+ * Count-based circuit breaker for an outbound dependency.
+ *
+ * After failureThreshold consecutive failures the circuit opens and calls are refused
+ * for openMillis. Then one trial call is let through (half open): its success closes the
+ * circuit, its failure opens it again for another openMillis.
+ *
+ * Every state change starts a new generation, and each permitted call carries the
+ * generation it was let through in. An outcome reported for an older generation is
+ * stale and ignored: a slow call sent while the circuit was closed can neither close a
+ * half-open circuit nor count towards opening one that has closed again since.
+ */
+public final class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    /**
+     * Returned by {@link #tryAcquire} when the call is refused
+     */
+    public static final long REFUSED = -1;
+
+    private final int failureThreshold;
+    private final long openNanos;
+
+    private State state = State.CLOSED;
+    private long generation;
+    private int consecutiveFailures;
+    private long openUntil;
+    private boolean trialInFlight;
+    private long timesOpened;
+
+    public CircuitBreaker(int failureThreshold, long openMillis) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openNanos = openMillis * 1_000_000L;
+    }
+
+    /**
+     * Permit for a call to go out now, or {@link #REFUSED}. In half-open state only the
+     * trial call is allowed. The caller must report the outcome with the permit.
+     */
+    public synchronized long tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return generation;
+            case OPEN:
+                if (System.nanoTime() - openUntil < 0) {
+                    return REFUSED;
+                }
+                moveTo(State.HALF_OPEN);
+                trialInFlight = true;
+                return generation;
+            default:
+                if (trialInFlight) {
+                    return REFUSED;
+                }
+                trialInFlight = true;
+                return generation;
+        }
+    }
+
+    /**
+     * Whether calls would currently be refused, without claiming the trial call
+     */
+    public synchronized boolean isRejecting() {
+        return (state == State.OPEN && System.nanoTime() - openUntil < 0)
+                || (state == State.HALF_OPEN && trialInFlight);
+    }
+
+    public synchronized void onSuccess(long permit) {
+        if (permit != generation) {
+            return;
+        }
+        consecutiveFailures = 0;
+        if (state == State.HALF_OPEN) {
+            moveTo(State.CLOSED);
+        }
+    }
+
+    public synchronized void onFailure(long permit) {
+        if (permit != generation) {
+            return;
+        }
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            moveTo(State.OPEN);
+            openUntil = System.nanoTime() + openNanos;
+            timesOpened++;
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized long getTimesOpened() {
+        return timesOpened;
+    }
+
+    private void moveTo(State next) {
+        state = next;
+        generation++;
+        consecutiveFailures = 0;
+        trialInFlight = false;
+    }
+}
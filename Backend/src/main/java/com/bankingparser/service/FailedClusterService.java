@@ -0,0 +1,317 @@
+package com.bankingparser.service;
+
+import com.bankingparser.dto.FailedClusterResponse;
+import com.bankingparser.model.Pattern;
+import com.bankingparser.parser.TemplateFingerprint;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maker-facing view of unmatched SMS, grouped by bank and template shape.
+ *
+ * Clusters live in memory and are updated as failures arrive, so listing them never
+ * scans pattern_table. The occurrence-counted FAILED rows are the durable copy: at startup
+ * the database groups them by template (folding older duplicate rows into one cluster) and
+ * returns only the failed.clusters.capacity most recently seen templates; the sample text is
+ * then read for the representative row of each, never for every FAILED row.
+ *
+ * At most failed.clusters.capacity clusters are held; the least recently seen one is
+ * evicted to make room, so junk sender titles cannot grow the heap. An evicted template
+ * that comes back is rebuilt from its row: the row's stored count is folded in when the
+ * write-behind finds it. Resolving a cluster marks all its FAILED rows RESOLVED, so it
+ * stays resolved across restarts.
+ */
+@Service
+@DependsOn("entityManagerFactory") // schema update must add first_seen/last_seen before load()
+public class FailedClusterService {
+
+    // One row per template, keyed like FailedTemplateKey: the bank, or the title when there is none
+    private static final String LOAD_CLUSTERS =
+            "SELECT MIN(pattern_id) AS pattern_id, bank_id, MAX(bank_name) AS bank_name, template_fingerprint, " +
+            "SUM(COALESCE(occurrence_count, 1)) AS occurrences, MIN(first_seen) AS earliest, MAX(last_seen) AS latest " +
+            "FROM pattern_table WHERE status = 'FAILED' AND template_fingerprint IS NOT NULL " +
+            "GROUP BY bank_id, CASE WHEN bank_id IS NULL THEN bank_name END, template_fingerprint " +
+            "ORDER BY latest DESC, pattern_id LIMIT ?";
+
+    private static final String LOAD_SAMPLES =
+            "SELECT pattern_id, sms_title, sample_ex FROM pattern_table WHERE pattern_id IN (%s)";
+
+    // FAILED rows saved before template_fingerprint existed
+    private static final String FIND_UNFINGERPRINTED =
+            "SELECT pattern_id, sample_ex FROM pattern_table WHERE status = 'FAILED' AND template_fingerprint IS NULL";
+
+    private static final String SET_FINGERPRINT =
+            "UPDATE pattern_table SET template_fingerprint = ? WHERE pattern_id = ?";
+
+    private static final int SAMPLE_BATCH_SIZE = 500;
+
+    private static final String RESOLVE_ROWS =
+            "UPDATE pattern_table SET status = 'RESOLVED' WHERE status = 'FAILED' AND pattern_id IN (%s)";
+
+    private static final String RESOLVE_BANK_TEMPLATE =
+            "UPDATE pattern_table SET status = 'RESOLVED' WHERE status = 'FAILED' " +
+            "AND template_fingerprint = ? AND bank_id = ?";
+
+    private static final String RESOLVE_TITLE_TEMPLATE =
+            "UPDATE pattern_table SET status = 'RESOLVED' WHERE status = 'FAILED' " +
+            "AND template_fingerprint = ? AND bank_id IS NULL AND bank_name = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${failed.clusters.capacity:5000}")
+    private int capacity = 5000;
+
+    // Access order: the first entry is the least recently seen cluster. Guarded by itself.
+    private final LinkedHashMap<FailedTemplateKey, Cluster> clusters = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<FailedTemplateKey, Cluster> eldest) {
+            return size() > capacity;
+        }
+    };
+
+    @PostConstruct
+    public void load() {
+        fingerprintOldRows();
+
+        List<Map<String, Object>> templates = jdbcTemplate.queryForList(LOAD_CLUSTERS, capacity);
+        Map<Integer, Map<String, Object>> samples = new HashMap<>();
+        for (int from = 0; from < templates.size(); from += SAMPLE_BATCH_SIZE) {
+            List<Object> ids = new ArrayList<>();
+            for (Map<String, Object> template : templates.subList(from, Math.min(templates.size(), from + SAMPLE_BATCH_SIZE))) {
+                ids.add(template.get("pattern_id"));
+            }
+            String placeholders = String.join(",", Collections.nCopies(ids.size(), "?"));
+            for (Map<String, Object> row : jdbcTemplate.queryForList(String.format(LOAD_SAMPLES, placeholders), ids.toArray())) {
+                samples.put(((Number) row.get("pattern_id")).intValue(), row);
+            }
+        }
+
+        synchronized (clusters) {
+            // Most recent first, so the least recently seen template ends up eldest
+            for (int i = templates.size() - 1; i >= 0; i--) {
+                Map<String, Object> template = templates.get(i);
+                Integer patternId = ((Number) template.get("pattern_id")).intValue();
+                Integer bankId = template.get("bank_id") != null ? ((Number) template.get("bank_id")).intValue() : null;
+                String bankName = (String) template.get("bank_name");
+                long fingerprint = ((Number) template.get("template_fingerprint")).longValue();
+                Map<String, Object> sample = samples.getOrDefault(patternId, Map.of());
+
+                FailedTemplateKey key = new FailedTemplateKey(bankId, bankName, fingerprint);
+                Cluster cluster = new Cluster(key, bankName, (String) sample.get("sms_title"),
+                        (String) sample.get("sample_ex"), null);
+                // The grouped count covers every FAILED row of the template, known by id or not
+                cluster.countsStoredRows = true;
+                cluster.add(((Number) template.get("occurrences")).longValue(),
+                        toLocalDateTime(template.get("earliest")), toLocalDateTime(template.get("latest")));
+                cluster.attach(patternId);
+                clusters.put(key, cluster);
+            }
+        }
+    }
+
+    /**
+     * Give FAILED rows from before template_fingerprint existed their fingerprint, so the
+     * database can group them; once done, later startups find none
+     */
+    private void fingerprintOldRows() {
+        List<Object[]> updates = new ArrayList<>();
+        jdbcTemplate.query(FIND_UNFINGERPRINTED, rs -> {
+            updates.add(new Object[]{TemplateFingerprint.of(rs.getString("sample_ex")), rs.getInt("pattern_id")});
+        });
+        if (!updates.isEmpty()) {
+            try {
+                jdbcTemplate.batchUpdate(SET_FINGERPRINT, updates);
+            } catch (Exception e) {
+                // Those rows stay out of the clusters until the next startup tries again
+                System.err.println("Error storing FAILED pattern fingerprints: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Count one more unmatched SMS for its template
+     */
+    void record(FailedTemplateKey key, String sms, String smsTitle, LocalDateTime seenAt) {
+        Cluster cluster;
+        synchronized (clusters) {
+            cluster = clusters.computeIfAbsent(key, k -> new Cluster(k, k.bankName, smsTitle, sms, seenAt));
+        }
+        cluster.add(1, seenAt, seenAt);
+    }
+
+    /**
+     * Link a cluster to the FAILED row this process just inserted for its template
+     */
+    void attach(FailedTemplateKey key, Integer patternId) {
+        Cluster cluster = get(key);
+        if (cluster != null) {
+            cluster.attach(patternId);
+        }
+    }
+
+    /**
+     * Link a cluster to a FAILED row stored before (by an earlier run, or before the cluster
+     * was evicted). If the cluster did not know the row yet, the occurrences the row already
+     * counted are added to the cluster.
+     */
+    void attachExisting(FailedTemplateKey key, Integer patternId, long storedCount,
+                        LocalDateTime storedFirstSeen, LocalDateTime storedLastSeen) {
+        Cluster cluster = get(key);
+        if (cluster != null && cluster.attach(patternId) && !cluster.countsStoredRows()) {
+            cluster.add(storedCount, storedFirstSeen, storedLastSeen);
+        }
+    }
+
+    /**
+     * A maker picked up this FAILED pattern: its template no longer needs attention.
+     * The cluster goes away, and its other FAILED rows are marked RESOLVED.
+     */
+    public void resolve(Pattern pattern) {
+        FailedTemplateKey patternKey = pattern.getTemplateFingerprint() != null
+                ? new FailedTemplateKey(pattern.getBankId(), pattern.getBankName(), pattern.getTemplateFingerprint())
+                : null;
+        List<Cluster> resolved = new ArrayList<>();
+        synchronized (clusters) {
+            clusters.values().removeIf(cluster -> {
+                if (cluster.key.equals(patternKey) || cluster.represents(pattern.getPatternId())) {
+                    resolved.add(cluster);
+                    return true;
+                }
+                return false;
+            });
+        }
+        for (Cluster cluster : resolved) {
+            try {
+                List<Integer> rowIds = cluster.rowIds();
+                if (!rowIds.isEmpty()) {
+                    String placeholders = String.join(",", Collections.nCopies(rowIds.size(), "?"));
+                    jdbcTemplate.update(String.format(RESOLVE_ROWS, placeholders), rowIds.toArray());
+                }
+                FailedTemplateKey key = cluster.key;
+                if (key.bankId != null) {
+                    jdbcTemplate.update(RESOLVE_BANK_TEMPLATE, key.fingerprint, key.bankId);
+                } else {
+                    jdbcTemplate.update(RESOLVE_TITLE_TEMPLATE, key.fingerprint, key.bankName);
+                }
+            } catch (Exception e) {
+                // The cluster is gone from memory either way; its rows come back only after a restart
+                System.err.println("Error resolving FAILED patterns: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * All clusters, most frequent first
+     */
+    public List<FailedClusterResponse> getClusters() {
+        List<Cluster> held;
+        synchronized (clusters) {
+            held = new ArrayList<>(clusters.values());
+        }
+        List<FailedClusterResponse> result = new ArrayList<>(held.size());
+        for (Cluster cluster : held) {
+            result.add(cluster.toResponse());
+        }
+        result.sort(Comparator.comparingLong(FailedClusterResponse::getCount).reversed());
+        return result;
+    }
+
+    public int size() {
+        synchronized (clusters) {
+            return clusters.size();
+        }
+    }
+
+    private Cluster get(FailedTemplateKey key) {
+        synchronized (clusters) {
+            return clusters.get(key);
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime();
+        }
+        return value instanceof LocalDateTime dateTime ? dateTime : null;
+    }
+
+    private static final class Cluster {
+        private final FailedTemplateKey key;
+        private final String bankName;
+        private final String smsTitle;
+        private final String sample;
+        private long count;
+        private LocalDateTime firstSeen;
+        private LocalDateTime lastSeen;
+        private Integer patternId;
+        private final List<Integer> rowIds = new ArrayList<>(1);   // FAILED rows known by id
+        // Loaded grouped at startup: count already includes every stored row of the template
+        private boolean countsStoredRows;
+
+        private Cluster(FailedTemplateKey key, String bankName, String smsTitle, String sample, LocalDateTime seenAt) {
+            this.key = key;
+            this.bankName = bankName;
+            this.smsTitle = smsTitle;
+            this.sample = sample;
+            this.firstSeen = seenAt;
+            this.lastSeen = seenAt;
+        }
+
+        synchronized void add(long occurrences, LocalDateTime first, LocalDateTime last) {
+            count += occurrences;
+            if (first != null && (firstSeen == null || first.isBefore(firstSeen))) {
+                firstSeen = first;
+            }
+            if (last != null && (lastSeen == null || last.isAfter(lastSeen))) {
+                lastSeen = last;
+            }
+        }
+
+        /**
+         * Fold in a row; false if the cluster already knew it
+         */
+        synchronized boolean attach(Integer id) {
+            if (id == null || rowIds.contains(id)) {
+                return false;
+            }
+            rowIds.add(id);
+            // Keep the oldest row as the representative
+            if (patternId == null || id < patternId) {
+                patternId = id;
+            }
+            return true;
+        }
+
+        synchronized boolean countsStoredRows() {
+            return countsStoredRows;
+        }
+
+        synchronized boolean represents(Integer id) {
+            return rowIds.contains(id);
+        }
+
+        synchronized List<Integer> rowIds() {
+            return new ArrayList<>(rowIds);
+        }
+
+        synchronized FailedClusterResponse toResponse() {
+            return new FailedClusterResponse(key.bankId, bankName, smsTitle,
+                    Long.toHexString(key.fingerprint), count, firstSeen, lastSeen, sample, patternId);
+        }
+    }
+}
@@ -0,0 +1,363 @@
+package com.bankingparser.service;
+
+import com.bankingparser.model.Bank;
+import com.bankingparser.parser.TemplateFingerprint;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind queue for unmatched SMS that become FAILED patterns.
+ *
+ * Unmatched SMS are keyed by bank and template fingerprint. A repeat of a queued template
+ * only bumps its count, and a repeat of a template already stored as a FAILED row bumps
+ * that row's occurrence_count instead of inserting a duplicate. The queue is flushed
+ * periodically with JDBC batch statements, and drained on shutdown.
+ *
+ * Full-queue policy: once the queue holds failed.write-behind.capacity distinct templates,
+ * further new templates are dropped (and counted) until the next flush, while repeats of
+ * templates already queued are still counted. Makers lose a sample, never a request;
+ * the in-memory failed clusters still count every occurrence.
+ *
+ * Write-error policy: each batch is written in one database transaction, so a failed batch
+ * leaves nothing behind and goes back into the queue, merged with any newer occurrences
+ * of the same templates. Templates that no longer fit in the queue are dropped, and their
+ * occurrences counted as lost. After a failed flush the next ones back off, doubling from
+ * the flush interval up to failed.write-behind.max-backoff-ms.
+ */
+@Service
+public class FailedPatternWriter {
+
+    private static final String FIND_EXISTING =
+            "SELECT pattern_id, bank_id, bank_name, template_fingerprint, occurrence_count, first_seen, last_seen " +
+            "FROM pattern_table " +
+            "WHERE status = 'FAILED' AND template_fingerprint IN (%s)";
+
+    private static final String INCREMENT =
+            "UPDATE pattern_table SET occurrence_count = COALESCE(occurrence_count, 1) + ?, last_seen = ? " +
+            "WHERE pattern_id = ?";
+
+    private static final String INSERT =
+            "INSERT INTO pattern_table (regex_pattern, sample_ex, status, sms_title, bank_id, bank_name, " +
+            "template_fingerprint, occurrence_count, first_seen, last_seen) " +
+            "VALUES ('', ?, 'FAILED', ?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private FailedClusterService failedClusterService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${failed.write-behind.capacity:10000}")
+    private int capacity;
+
+    @Value("${failed.write-behind.batch-size:500}")
+    private int batchSize;
+
+    @Value("${failed.write-behind.flush-interval-ms:2000}")
+    private long flushIntervalMs;
+
+    @Value("${failed.write-behind.max-backoff-ms:60000}")
+    private long maxBackoffMs;
+
+    private final Map<FailedTemplateKey, PendingFailure> pending = new ConcurrentHashMap<>();
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder lostOnError = new LongAdder();
+
+    // Guarded by this (flush is synchronized)
+    private long backoffMs;
+    private long retryAt;
+
+    /**
+     * Queue an unmatched SMS; returns false if it was dropped because the queue is full
+     */
+    public boolean enqueue(String sms, String smsTitle, Bank bank) {
+        Integer bankId = bank != null ? bank.getBankId() : null;
+        // Without a bank, the title is stored as bankName for reference
+        String bankName = bank != null ? bank.getBankname()
+                : (smsTitle != null && !smsTitle.isEmpty() ? smsTitle : null);
+        FailedTemplateKey key = new FailedTemplateKey(bankId, bankName, TemplateFingerprint.of(sms));
+        LocalDateTime now = LocalDateTime.now();
+
+        enqueued.increment();
+        failedClusterService.record(key, sms, smsTitle, now);
+
+        PendingFailure existing = pending.computeIfPresent(key, (k, failure) -> failure.increment(now));
+        if (existing != null) {
+            coalesced.increment();
+            return true;
+        }
+        if (pending.size() >= capacity) {
+            dropped.increment();
+            return false;
+        }
+        pending.merge(key, new PendingFailure(sms, smsTitle, now), (queued, fresh) -> queued.increment(now));
+        return true;
+    }
+
+    /**
+     * Persist everything queued so far, unless a recent write error asks to wait
+     */
+    @Scheduled(fixedDelayString = "${failed.write-behind.flush-interval-ms:2000}")
+    public synchronized void flush() {
+        if (backoffMs > 0 && System.nanoTime() - retryAt < 0) {
+            return;
+        }
+        writeQueued();
+    }
+
+    @PreDestroy
+    public synchronized void drain() {
+        writeQueued();
+    }
+
+    private void writeQueued() {
+        List<Map.Entry<FailedTemplateKey, PendingFailure>> batch = new ArrayList<>(Math.min(pending.size(), batchSize));
+        List<Map.Entry<FailedTemplateKey, PendingFailure>> unwritten = new ArrayList<>();
+        Iterator<FailedTemplateKey> keys = pending.keySet().iterator();
+        while (keys.hasNext()) {
+            FailedTemplateKey key = keys.next();
+            PendingFailure failure = pending.remove(key);
+            if (failure != null) {
+                batch.add(Map.entry(key, failure));
+            }
+            if (batch.size() == batchSize) {
+                if (!write(batch)) {
+                    unwritten.addAll(batch);
+                }
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty() && !write(batch)) {
+            unwritten.addAll(batch);
+        }
+
+        if (unwritten.isEmpty()) {
+            backoffMs = 0;
+            return;
+        }
+        requeue(unwritten);
+        backoffMs = backoffMs == 0 ? flushIntervalMs : Math.min(backoffMs * 2, maxBackoffMs);
+        retryAt = System.nanoTime() + backoffMs * 1_000_000L;
+    }
+
+    /**
+     * Put entries whose write failed back into the queue, as far as capacity allows
+     */
+    private void requeue(List<Map.Entry<FailedTemplateKey, PendingFailure>> unwritten) {
+        for (Map.Entry<FailedTemplateKey, PendingFailure> entry : unwritten) {
+            PendingFailure failure = entry.getValue();
+            // The requeued entry is older: it keeps its sample and first-seen time
+            PendingFailure merged = pending.computeIfPresent(entry.getKey(), (key, newer) -> failure.absorb(newer));
+            if (merged != null) {
+                continue;
+            }
+            if (pending.size() >= capacity) {
+                dropped.increment();
+                lostOnError.add(failure.count);
+                continue;
+            }
+            pending.merge(entry.getKey(), failure, (newer, requeued) -> requeued.absorb(newer));
+        }
+    }
+
+    public int getQueued() {
+        return pending.size();
+    }
+
+    public long getEnqueued() {
+        return enqueued.sum();
+    }
+
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * Occurrences given up because their batch failed to write and the queue was full
+     */
+    public long getLostOnError() {
+        return lostOnError.sum();
+    }
+
+    /**
+     * Write one batch in a single transaction; false if nothing of it was stored
+     */
+    private boolean write(List<Map.Entry<FailedTemplateKey, PendingFailure>> batch) {
+        List<FailedTemplateKey> inserted = new ArrayList<>();
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                inserted.clear();
+                writeInTransaction(batch, inserted);
+            });
+        } catch (Exception e) {
+            // Never let a flush error escape the scheduler; the batch is requeued by the caller
+            System.err.println("Error writing FAILED patterns: " + e.getMessage());
+            return false;
+        }
+        try {
+            attachInserted(inserted);
+        } catch (Exception e) {
+            // The rows are stored; the clusters only miss their pattern id until the next repeat
+            System.err.println("Error reading inserted FAILED patterns: " + e.getMessage());
+        }
+        return true;
+    }
+
+    private void writeInTransaction(List<Map.Entry<FailedTemplateKey, PendingFailure>> batch,
+                                    List<FailedTemplateKey> inserted) {
+        List<Object[]> increments = new ArrayList<>();
+        List<Object[]> inserts = new ArrayList<>();
+        List<FailedTemplateKey> keys = new ArrayList<>(batch.size());
+        for (Map.Entry<FailedTemplateKey, PendingFailure> entry : batch) {
+            keys.add(entry.getKey());
+        }
+        Map<Long, List<Map<String, Object>>> existingByFingerprint = findExisting(keys);
+
+        for (Map.Entry<FailedTemplateKey, PendingFailure> entry : batch) {
+            FailedTemplateKey key = entry.getKey();
+            PendingFailure failure = entry.getValue();
+
+            List<Map<String, Object>> existing = existingByFingerprint.getOrDefault(key.fingerprint, List.of());
+            Map<String, Object> row = findSameSource(existing, key);
+
+            if (row != null) {
+                Integer patternId = ((Number) row.get("pattern_id")).intValue();
+                increments.add(new Object[]{failure.count, Timestamp.valueOf(failure.lastSeen), patternId});
+                // Counts already stored are folded into a cluster that did not know the row (evicted, or not loaded)
+                long storedCount = row.get("occurrence_count") != null ? ((Number) row.get("occurrence_count")).longValue() : 1;
+                failedClusterService.attachExisting(key, patternId, storedCount,
+                        toLocalDateTime(row.get("first_seen")), toLocalDateTime(row.get("last_seen")));
+            } else {
+                inserts.add(new Object[]{failure.sms, failure.smsTitle, key.bankId, key.bankName,
+                        key.fingerprint, failure.count,
+                        Timestamp.valueOf(failure.firstSeen), Timestamp.valueOf(failure.lastSeen)});
+                inserted.add(key);
+            }
+        }
+
+        if (!increments.isEmpty()) {
+            jdbcTemplate.batchUpdate(INCREMENT, increments);
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT, inserts);
+        }
+    }
+
+    /**
+     * Tell the failed clusters which rows now hold the newly inserted templates
+     */
+    private void attachInserted(List<FailedTemplateKey> inserted) {
+        Map<Long, List<Map<String, Object>>> rows = findExisting(inserted);
+        for (FailedTemplateKey key : inserted) {
+            Map<String, Object> row = findSameSource(rows.getOrDefault(key.fingerprint, List.of()), key);
+            if (row != null) {
+                failedClusterService.attach(key, ((Number) row.get("pattern_id")).intValue());
+            }
+        }
+    }
+
+    /**
+     * Existing FAILED rows for the given templates' fingerprints, in one query
+     */
+    private Map<Long, List<Map<String, Object>>> findExisting(List<FailedTemplateKey> keys) {
+        Set<Long> distinct = new HashSet<>();
+        for (FailedTemplateKey key : keys) {
+            distinct.add(key.fingerprint);
+        }
+        List<Object> fingerprints = new ArrayList<>(distinct);
+        String placeholders = String.join(",", Collections.nCopies(fingerprints.size(), "?"));
+
+        Map<Long, List<Map<String, Object>>> byFingerprint = new HashMap<>();
+        for (Map<String, Object> row : jdbcTemplate.queryForList(String.format(FIND_EXISTING, placeholders), fingerprints.toArray())) {
+            long fingerprint = ((Number) row.get("template_fingerprint")).longValue();
+            byFingerprint.computeIfAbsent(fingerprint, fp -> new ArrayList<>()).add(row);
+        }
+        return byFingerprint;
+    }
+
+    private static Map<String, Object> findSameSource(List<Map<String, Object>> rows, FailedTemplateKey key) {
+        for (Map<String, Object> row : rows) {
+            Integer bankId = row.get("bank_id") != null ? ((Number) row.get("bank_id")).intValue() : null;
+            boolean sameSource = key.bankId != null
+                    ? key.bankId.equals(bankId)
+                    : bankId == null && Objects.equals(key.bankName, row.get("bank_name"));
+            if (sameSource) {
+                return row;
+            }
+        }
+        return null;
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime();
+        }
+        return value instanceof LocalDateTime dateTime ? dateTime : null;
+    }
+
+    /**
+     * First sample seen for a template plus the number of SMS folded into it.
+     * Only mutated inside ConcurrentHashMap compute functions, so plain fields are safe.
+     */
+    private static final class PendingFailure {
+        private final String sms;
+        private final String smsTitle;
+        private final LocalDateTime firstSeen;
+        private LocalDateTime lastSeen;
+        private int count = 1;
+
+        private PendingFailure(String sms, String smsTitle, LocalDateTime seenAt) {
+            this.sms = sms;
+            this.smsTitle = smsTitle;
+            this.firstSeen = seenAt;
+            this.lastSeen = seenAt;
+        }
+
+        private PendingFailure increment(LocalDateTime seenAt) {
+            count++;
+            lastSeen = seenAt;
+            return this;
+        }
+
+        /**
+         * Fold in the occurrences of a newer entry for the same template
+         */
+        private PendingFailure absorb(PendingFailure newer) {
+            count += newer.count;
+            if (newer.lastSeen.isAfter(lastSeen)) {
+                lastSeen = newer.lastSeen;
+            }
+            return this;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.bankingparser.service;
+
+import java.util.Objects;
+
+/**
+ * Identity of an unmatched SMS template: the bank it came from plus its template fingerprint.
+ * When no bank could be resolved, the sender title (stored as bankName) stands in for the bank.
+ */
+final class FailedTemplateKey {
+
+    final Integer bankId;
+    final String bankName;
+    final long fingerprint;
+
+    FailedTemplateKey(Integer bankId, String bankName, long fingerprint) {
+        this.bankId = bankId;
+        this.bankName = bankName;
+        this.fingerprint = fingerprint;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof FailedTemplateKey)) {
+            return false;
+        }
+        FailedTemplateKey other = (FailedTemplateKey) o;
+        return fingerprint == other.fingerprint
+                && Objects.equals(bankId, other.bankId)
+                && (bankId != null || Objects.equals(bankName, other.bankName));
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(fingerprint) * 31 + (bankId != null ? bankId : Objects.hashCode(bankName));
+    }
+}
@@ -0,0 +1,232 @@
+package com.bankingparser.service;
+
+import com.bankingparser.metrics.PipelineMetrics;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Classifies merchant names with the Groq chat completions API, many merchants per prompt.
+ * The model is asked for a JSON object mapping each merchant to one category.
+ *
+ * Calls go through one shared java.net.http client (pooled keep-alive connections) and
+ * are sent asynchronously, with connect and per-call timeouts. At most
+ * groq.api.max-concurrent-calls are outstanding (bulkhead), and a {@link CircuitBreaker}
+ * stops calling after repeated failures (errors, timeouts, non-200 answers) until a trial
+ * call succeeds.
+ */
+@Service
+public class GroqMerchantClassifier {
+
+    // Valid categories
+    public static final Set<String> VALID_CATEGORIES = Set.of(
+        "FOOD", "HEALTH", "SHOPPING", "TRAVEL", "ENTERTAINMENT",
+        "BILLS", "SALARY", "TRANSFER", "FUEL", "GROCERIES", "OTHER"
+    );
+
+    private static final String MODEL = "llama-3.3-70b-versatile";
+
+    // Room in the answer for one "merchant": "CATEGORY" entry
+    private static final int TOKENS_PER_MERCHANT = 24;
+
+    @Autowired
+    private PipelineMetrics pipelineMetrics;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${groq.api.key:}")
+    private String groqApiKey;
+
+    @Value("${groq.api.url:https://api.groq.com/openai/v1/chat/completions}")
+    private String groqApiUrl;
+
+    @Value("${groq.api.connect-timeout-ms:2000}")
+    private long connectTimeoutMs;
+
+    @Value("${groq.api.timeout-ms:10000}")
+    private long timeoutMs;
+
+    @Value("${groq.api.max-concurrent-calls:4}")
+    private int maxConcurrentCalls;
+
+    @Value("${groq.api.circuit.failure-threshold:5}")
+    private int circuitFailureThreshold;
+
+    @Value("${groq.api.circuit.open-ms:30000}")
+    private long circuitOpenMs;
+
+    private HttpClient httpClient;
+    private Semaphore bulkhead;
+    private CircuitBreaker circuitBreaker;
+
+    private final LongAdder shortCircuited = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build();
+        bulkhead = new Semaphore(Math.max(1, maxConcurrentCalls));
+        circuitBreaker = new CircuitBreaker(circuitFailureThreshold, circuitOpenMs);
+    }
+
+    /**
+     * Whether an API key is configured; without one nothing is sent
+     */
+    public boolean isEnabled() {
+        return groqApiKey != null && !groqApiKey.isEmpty();
+    }
+
+    /**
+     * Whether a call would go out now: a key is configured and the circuit is not refusing calls
+     */
+    public boolean isAvailable() {
+        return isEnabled() && !circuitBreaker.isRejecting();
+    }
+
+    public CircuitBreaker.State getCircuitState() {
+        return circuitBreaker != null ? circuitBreaker.getState() : CircuitBreaker.State.CLOSED;
+    }
+
+    public long getCircuitOpenings() {
+        return circuitBreaker != null ? circuitBreaker.getTimesOpened() : 0;
+    }
+
+    /**
+     * Batches not sent because the circuit was open
+     */
+    public long getShortCircuited() {
+        return shortCircuited.sum();
+    }
+
+    /**
+     * Start classifying the given (upper-cased) merchant names in one call.
+     *
+     * Waits up to the call timeout for a bulkhead slot, and returns null if none frees up
+     * or the circuit breaker refuses the call, so the caller can keep the batch for later.
+     * Otherwise the future completes with the valid categories the model gave, by merchant
+     * name (merchants it left out or answered with an unknown category are missing), or
+     * with null if the call failed or timed out. It never completes exceptionally.
+     */
+    public CompletableFuture<Map<String, String>> classifyAsync(List<String> merchantNames) throws InterruptedException {
+        if (!isEnabled()) {
+            pipelineMetrics.recordLlmSkipped();
+            return CompletableFuture.completedFuture(null);
+        }
+        if (!bulkhead.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS)) {
+            return null;
+        }
+        long permit = circuitBreaker.tryAcquire();
+        if (permit == CircuitBreaker.REFUSED) {
+            bulkhead.release();
+            shortCircuited.increment();
+            return null;
+        }
+
+        long start = System.nanoTime();
+        CompletableFuture<HttpResponse<String>> call;
+        try {
+            call = httpClient.sendAsync(request(merchantNames), HttpResponse.BodyHandlers.ofString())
+                    .orTimeout(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            call = CompletableFuture.failedFuture(e);
+        }
+        // The outcome reaches the circuit breaker before the slot is freed, so a caller
+        // waiting for the slot sees the circuit as this call left it
+        return call.handle((response, error) -> {
+            if (error != null || response.statusCode() != 200) {
+                circuitBreaker.onFailure(permit);
+                bulkhead.release();
+                pipelineMetrics.recordLlmError(System.nanoTime() - start);
+                // Log error but don't fail
+                System.err.println("Error calling Groq API: "
+                        + (error != null ? error : "HTTP " + response.statusCode()));
+                return null;
+            }
+            circuitBreaker.onSuccess(permit);
+            bulkhead.release();
+            pipelineMetrics.recordLlmBatch(merchantNames.size());
+            Map<String, String> categories = readResponse(response.body(), merchantNames);
+            if (categories.isEmpty()) {
+                pipelineMetrics.recordLlmInvalid(System.nanoTime() - start);
+            } else {
+                pipelineMetrics.recordLlmSuccess(System.nanoTime() - start);
+            }
+            return categories;
+        });
+    }
+
+    private HttpRequest request(List<String> merchantNames) throws Exception {
+        String prompt = "Classify each of these merchants into exactly ONE of these categories: " +
+            "FOOD, HEALTH, SHOPPING, TRAVEL, ENTERTAINMENT, BILLS, SALARY, TRANSFER, FUEL, GROCERIES, OTHER. " +
+            "Respond with ONLY a JSON object whose keys are the merchant names exactly as given " +
+            "and whose values are the category names.\nMerchants:\n" +
+            objectMapper.writeValueAsString(merchantNames);
+
+        Map<String, Object> message = new HashMap<>();
+        message.put("role", "user");
+        message.put("content", prompt);
+
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("model", MODEL);
+        requestBody.put("messages", List.of(message));
+        requestBody.put("response_format", Map.of("type", "json_object"));
+        requestBody.put("max_tokens", 20 + TOKENS_PER_MERCHANT * merchantNames.size());
+        requestBody.put("temperature", 0);
+
+        return HttpRequest.newBuilder(URI.create(groqApiUrl))
+                .timeout(Duration.ofMillis(timeoutMs))
+                .header("Content-Type", "application/json")
+                .header("Authorization", "Bearer " + groqApiKey)
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(requestBody)))
+                .build();
+    }
+
+    /**
+     * Pick the requested merchants' valid categories out of a chat completion; empty if
+     * the answer is not the expected JSON
+     */
+    private Map<String, String> readResponse(String body, List<String> merchantNames) {
+        Map<String, String> byUpperName = new HashMap<>();
+        try {
+            Map<String, Object> completion = objectMapper.readValue(body, Map.class);
+            List<Map<String, Object>> choices = (List<Map<String, Object>>) completion.get("choices");
+            if (choices == null || choices.isEmpty()) {
+                return Map.of();
+            }
+            Map<String, Object> messageResponse = (Map<String, Object>) choices.get(0).get("message");
+            Map<String, Object> answer = objectMapper.readValue((String) messageResponse.get("content"), Map.class);
+            for (Map.Entry<String, Object> entry : answer.entrySet()) {
+                if (entry.getValue() instanceof String value) {
+                    byUpperName.put(entry.getKey().trim().toUpperCase(), value.trim().toUpperCase());
+                }
+            }
+        } catch (Exception e) {
+            return Map.of();
+        }
+
+        Map<String, String> categories = new HashMap<>();
+        for (String merchantName : merchantNames) {
+            String category = byUpperName.get(merchantName);
+            // Validate the category
+            if (category != null && VALID_CATEGORIES.contains(category)) {
+                categories.put(merchantName, category);
+            }
+        }
+        return categories;
+    }
+}
@@ -1,137 +1,469 @@
 package com.bankingparser.service;
 
+import com.bankingparser.dto.MerchantClassifierEvaluationResponse;
+import com.bankingparser.metrics.PipelineMetrics;
 import com.bankingparser.model.MerchantCategory;
 import com.bankingparser.repository.MerchantCategoryRepository;
+import com.bankingparser.util.MerchantNames;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.*;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * Merchant name to category lookup.
+ *
+ * Merchants are looked up by canonical key ({@link MerchantNames#canonicalKey}), so
+ * "ZOMATO LTD", "zomato.payu@hdfcbank" and "UPI/ZOMATO/1234" all find the ZOMATO row.
+ * The key is stored in merchant_category.canonical_key; rows that predate the column
+ * get theirs filled in when the index is next loaded. The first load after startup
+ * recomputes every stored key, so rows keyed under older rules are brought up to date.
+ *
+ * Lookups never touch the database: merchant_category is held in a {@link MerchantIndex},
+ * loaded at startup and rebuilt periodically (merchant.index.refresh-interval-ms).
+ * Rows added in between, by this instance's LLM classifications or addMerchantCategory,
+ * go to a {@link MerchantIndexDelta} with the same lookups, checked after the index until
+ * the next rebuild picks them up.
+ *
+ * A merchant missing from the index is first given to a local {@link MerchantNaiveBayes}
+ * model, trained from the same rows on every rebuild; its answer is used when it is at
+ * least merchant.classifier.min-confidence sure.
+ *
+ * Other unknown merchants are not classified inline: they are queued (once per name, however
+ * often they are seen) and answered with the provisional category OTHER; a local guess
+ * below the confidence threshold is not returned. A background worker sends
+ * the queue to the LLM in batches of merchant.llm.batch-size names per prompt and
+ * backfills merchant_category, so later lookups find the real category.
+ * A merchant the LLM calls OTHER (never stored) or fails on is remembered in a negative
+ * cache for merchant.llm.negative-ttl-ms / error-ttl-ms, so it is not sent again on
+ * every SMS that carries it. The cache holds at most merchant.llm.negative-cache-capacity
+ * merchants; when full, the oldest entry gives way.
+ */
 @Service
+@DependsOn("entityManagerFactory") // merchant_category must exist before the index is loaded
 public class MerchantCategoryService {
 
+    private static final String LOAD_MERCHANTS =
+            "SELECT id, merchant_name, canonical_key, category FROM merchant_category ORDER BY id";
+
+    private static final String SET_CANONICAL_KEY =
+            "UPDATE merchant_category SET canonical_key = ? WHERE id = ?";
+
+    // Another instance may have classified the same merchant first; the no-op update skips only that
+    // duplicate, where INSERT IGNORE would also turn truncation and NOT NULL errors into warnings
+    private static final String BACKFILL =
+            "INSERT INTO merchant_category (merchant_name, canonical_key, category) VALUES (?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE id = id";
+
+    // Returned for a merchant the LLM could not place, or still queued for it
+    private static final String PROVISIONAL_CATEGORY = "OTHER";
+
     @Autowired
     private MerchantCategoryRepository merchantCategoryRepository;
 
-    @Value("${groq.api.key:}")
-    private String groqApiKey;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PipelineMetrics pipelineMetrics;
+
+    @Autowired
+    private GroqMerchantClassifier groqMerchantClassifier;
+
+    @Value("${merchant.llm.batch-size:50}")
+    private int llmBatchSize;
+
+    @Value("${merchant.llm.queue-capacity:10000}")
+    private int llmQueueCapacity;
+
+    @Value("${merchant.llm.flush-interval-ms:1000}")
+    private long llmFlushIntervalMs;
+
+    @Value("${merchant.llm.negative-ttl-ms:86400000}")
+    private long negativeTtlMs;
+
+    @Value("${merchant.llm.error-ttl-ms:300000}")
+    private long errorTtlMs;
+
+    @Value("${merchant.llm.negative-cache-capacity:100000}")
+    private int negativeCacheCapacity;
+
+    @Value("${merchant.classifier.enabled:true}")
+    private boolean classifierEnabled;
+
+    @Value("${merchant.classifier.min-confidence:0.9}")
+    private double classifierMinConfidence;
+
+    private volatile MerchantIndex index = MerchantIndex.EMPTY;
+
+    private volatile MerchantNaiveBayes localClassifier = MerchantNaiveBayes.EMPTY;
+
+    // Stored canonical keys have been checked against the current rules since startup; guarded by this
+    private boolean rekeyed;
+
+    // Rows saved since the index was built, by canonical key
+    private final MerchantIndexDelta added = new MerchantIndexDelta();
+
+    // Merchants awaiting classification (canonical keys); a key stays here until its batch is answered
+    private final Set<String> unclassified = ConcurrentHashMap.newKeySet();
+    // The part of unclassified whose batch has been sent and not answered yet
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean classifyRequested = new AtomicBoolean();
+    private final LongAdder llmDropped = new LongAdder();
+
+    // Merchants not to send to the LLM again before a given System.nanoTime(); sized in init()
+    private NegativeCache negative = new NegativeCache(100_000);
+
+    // Own thread to batch and dispatch, so waiting for a bulkhead slot never holds up the shared @Scheduled thread
+    private final ScheduledExecutorService classifier = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "merchant-classifier");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PostConstruct
+    public void init() {
+        negative = new NegativeCache(negativeCacheCapacity);
+        reloadIndex();
+        classifier.scheduleWithFixedDelay(this::classifyQueued, llmFlushIntervalMs, llmFlushIntervalMs,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Queued merchants are simply queued again the next time they are seen
+        classifier.shutdownNow();
+    }
+
+    /**
+     * Rebuild the index from merchant_category, folding in the recently added rows
+     * (and anything other instances added), and retrain the local classifier on them
+     */
+    @Scheduled(fixedDelayString = "${merchant.index.refresh-interval-ms:300000}",
+            initialDelayString = "${merchant.index.refresh-interval-ms:300000}")
+    public synchronized void reloadIndex() {
+        // Rows added from here on may miss this load; they stay in the delta until the next one
+        long folded = added.mark();
+        MerchantIndex.Builder builder = MerchantIndex.builder();
+        MerchantNaiveBayes.Trainer trainer = MerchantNaiveBayes.trainer();
+        List<Object[]> missingKeys = new ArrayList<>();
+        boolean recompute = !rekeyed;
+        jdbcTemplate.query(LOAD_MERCHANTS, rs -> {
+            String canonicalKey = canonicalKey(rs, missingKeys, recompute);
+            String category = rs.getString("category");
+            builder.add(canonicalKey, category);
+            if (classifierEnabled) {
+                trainer.add(canonicalKey, category);
+            }
+        });
+        index = builder.build();
+        localClassifier = trainer.build();
+        added.removeUpTo(folded);
+
+        if (!missingKeys.isEmpty()) {
+            try {
+                jdbcTemplate.batchUpdate(SET_CANONICAL_KEY, missingKeys);
+            } catch (Exception e) {
+                // Computed again on the next load
+                System.err.println("Error storing merchant canonical keys: " + e.getMessage());
+                return;
+            }
+        }
+        rekeyed = true;
+    }
+
+    /**
+     * Merchants known to the lookup (index plus recent additions)
+     */
+    public int getIndexedCount() {
+        return index.size() + added.size();
+    }
+
+    /**
+     * Merchants waiting for LLM classification
+     */
+    public int getUnclassifiedCount() {
+        return unclassified.size();
+    }
+
+    /**
+     * Train on merchant_category minus a held-out share of its rows and report how well
+     * the local classifier predicts those rows. Rows are held out by a hash of their name,
+     * so repeated runs use the same split.
+     */
+    public MerchantClassifierEvaluationResponse evaluateClassifier(double holdoutFraction) {
+        if (holdoutFraction <= 0 || holdoutFraction >= 1) {
+            throw new RuntimeException("Holdout fraction must be between 0 and 1");
+        }
+        MerchantNaiveBayes.Trainer trainer = MerchantNaiveBayes.trainer();
+        List<MerchantCategory> heldOut = new ArrayList<>();
+        int holdoutBuckets = (int) Math.round(holdoutFraction * 1000);
+        jdbcTemplate.query(LOAD_MERCHANTS, rs -> {
+            String canonicalKey = canonicalKey(rs, new ArrayList<>(), false);
+            String category = rs.getString("category");
+            if (canonicalKey == null || category == null) {
+                return;
+            }
+            // Split by key, so variants of one merchant never sit on both sides
+            if (Math.floorMod(canonicalKey.hashCode() * 0x9E3779B9, 1000) < holdoutBuckets) {
+                heldOut.add(new MerchantCategory(null, canonicalKey, category, canonicalKey));
+            } else {
+                trainer.add(canonicalKey, category);
+            }
+        });
+        MerchantNaiveBayes model = trainer.build();
 
-    private final RestTemplate restTemplate = new RestTemplate();
+        int correct = 0;
+        int confident = 0;
+        int confidentCorrect = 0;
+        long nanos = 0;
+        for (MerchantCategory row : heldOut) {
+            long start = System.nanoTime();
+            MerchantNaiveBayes.Prediction prediction = model.predict(row.getMerchantName());
+            nanos += System.nanoTime() - start;
+            boolean right = prediction != null && prediction.getCategory().equals(row.getCategory());
+            if (right) {
+                correct++;
+            }
+            if (prediction != null && prediction.getConfidence() >= classifierMinConfidence) {
+                confident++;
+                if (right) {
+                    confidentCorrect++;
+                }
+            }
+        }
 
-    private static final String GROQ_API_URL = "https://api.groq.com/openai/v1/chat/completions";
+        MerchantClassifierEvaluationResponse response = new MerchantClassifierEvaluationResponse();
+        response.setTrainingRows(model.getTrainingRows());
+        response.setHeldOutRows(heldOut.size());
+        response.setAccuracy(ratio(correct, heldOut.size()));
+        response.setMinConfidence(classifierMinConfidence);
+        response.setConfidentShare(ratio(confident, heldOut.size()));
+        response.setConfidentAccuracy(ratio(confidentCorrect, confident));
+        response.setAveragePredictMicros(heldOut.isEmpty() ? 0 : nanos / 1000.0 / heldOut.size());
+        return response;
+    }
 
-    // Valid categories
-    private static final Set<String> VALID_CATEGORIES = Set.of(
-        "FOOD", "HEALTH", "SHOPPING", "TRAVEL", "ENTERTAINMENT", 
-        "BILLS", "SALARY", "TRANSFER", "FUEL", "GROCERIES", "OTHER"
-    );
+    /**
+     * Merchants held in the negative cache (expired entries included until the next purge)
+     */
+    public int getNegativeCacheSize() {
+        return negative.size();
+    }
 
+    /**
+     * Unknown merchants not queued because the classification queue was full
+     */
+    public long getUnclassifiedDropped() {
+        return llmDropped.sum();
+    }
 
     /**
      * Get category for a merchant name
-     * 1. First checks the database
-     * 2. If not found, calls Groq LLM API
-     * 3. Saves the result to database for future lookups
+     * 1. First checks the merchant index (exact, then partial match)
+     * 2. If not found, uses the local classifier when it is confident enough
+     * 3. Otherwise queues it for LLM classification and returns a provisional category
+     * 4. The background worker saves the LLM result to the database for future lookups
      */
     public String getCategoryForMerchant(String merchantName) {
+        return getCategoryForMerchant(merchantName, true);
+    }
+
+    /**
+     * Same lookup; with live false (warm-up replays) no category metrics are recorded and
+     * an unknown merchant is not queued for the LLM (returns null instead)
+     */
+    public String getCategoryForMerchant(String merchantName, boolean live) {
         if (merchantName == null || merchantName.trim().isEmpty()) {
             return null;
         }
 
-        String cleanedName = merchantName.trim().toUpperCase();
+        String canonicalKey = MerchantNames.canonicalKey(merchantName);
 
-        // Step 1: Check exact match in database
-        Optional<MerchantCategory> exactMatch = merchantCategoryRepository.findByMerchantNameIgnoreCase(cleanedName);
-        if (exactMatch.isPresent()) {
-            return exactMatch.get().getCategory();
+        // Step 1: Check exact match
+        MerchantIndex current = index;
+        String category = current.exact(canonicalKey);
+        if (category == null) {
+            category = added.exact(canonicalKey);
+        }
+        if (category != null) {
+            if (live) {
+                pipelineMetrics.recordCategoryExact();
+            }
+            return category;
         }
 
         // Step 2: Check partial match (for variations like "ZOMATO FOODS" matching "ZOMATO")
-        for (MerchantCategory mc : merchantCategoryRepository.findAll()) {
-            if (cleanedName.contains(mc.getMerchantName().toUpperCase()) || 
-                mc.getMerchantName().toUpperCase().contains(cleanedName)) {
-                return mc.getCategory();
+        category = current.partial(canonicalKey);
+        if (category == null) {
+            category = added.partial(canonicalKey);
+        }
+        if (category != null) {
+            if (live) {
+                pipelineMetrics.recordCategoryPartial();
             }
+            return category;
         }
 
-        // Step 3: Call LLM API to classify
-        String category = classifyMerchantWithLLM(merchantName);
-        
-        // Step 4: Save to database for future lookups
-        if (category != null && !category.equals("OTHER")) {
-            try {
-                MerchantCategory newEntry = new MerchantCategory(cleanedName, category);
-                merchantCategoryRepository.save(newEntry);
-            } catch (Exception e) {
-                // Ignore duplicate key errors
+        // Step 3: Ask the local model; trust it above the confidence threshold
+        MerchantNaiveBayes.Prediction guess = localClassifier.predict(canonicalKey);
+        if (guess != null && guess.getConfidence() >= classifierMinConfidence) {
+            if (live) {
+                pipelineMetrics.recordCategoryLocal();
             }
+            return guess.getCategory();
         }
+        if (!live) {
+            return null;
+        }
+        pipelineMetrics.recordCategoryMiss();
 
-        return category;
+        // Step 4: Queue for the LLM, unless it recently gave no usable answer for this merchant;
+        // without an API key there is nothing to wait for. While the Groq circuit is open the
+        // merchant still queues (bounded) and goes out once calls succeed again
+        if (isNegative(canonicalKey)) {
+            pipelineMetrics.recordLlmNegativeHit();
+            return PROVISIONAL_CATEGORY;
+        }
+        if (groqMerchantClassifier.isEnabled()) {
+            enqueue(canonicalKey);
+        } else {
+            pipelineMetrics.recordLlmSkipped();
+        }
+        // An unconfident guess is not trusted; OTHER until the LLM answers
+        return PROVISIONAL_CATEGORY;
     }
 
     /**
-     * Call Groq LLM API to classify the merchant
+     * Send everything queued and not yet in flight to the LLM, batch by batch; answers are
+     * backfilled as they arrive. Stops early while the circuit breaker refuses calls or no
+     * bulkhead slot frees up, leaving the rest queued for the next run.
+     * Runs on the classifier thread only.
      */
-    private String classifyMerchantWithLLM(String merchantName) {
-        // If no API key configured, return OTHER
-        if (groqApiKey == null || groqApiKey.isEmpty()) {
-            return "OTHER";
-        }
-
+    void classifyQueued() {
+        classifyRequested.set(false);
+        List<String> batch = new ArrayList<>(llmBatchSize);
         try {
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            headers.setBearerAuth(groqApiKey);
-
-            String prompt = String.format(
-                "Classify the merchant '%s' into exactly ONE of these categories: " +
-                "FOOD, HEALTH, SHOPPING, TRAVEL, ENTERTAINMENT, BILLS, SALARY, TRANSFER, FUEL, GROCERIES, OTHER. " +
-                "Respond with ONLY the category name, nothing else.",
-                merchantName
-            );
-
-            Map<String, Object> message = new HashMap<>();
-            message.put("role", "user");
-            message.put("content", prompt);
-
-            Map<String, Object> requestBody = new HashMap<>();
-            requestBody.put("model", "llama-3.3-70b-versatile");
-            requestBody.put("messages", List.of(message));
-            requestBody.put("max_tokens", 20);
-            requestBody.put("temperature", 0);
-
-            HttpEntity<Map<String, Object>> request = new HttpEntity<>(requestBody, headers);
-
-            ResponseEntity<Map> response = restTemplate.exchange(
-                GROQ_API_URL,
-                HttpMethod.POST,
-                request,
-                Map.class
-            );
-
-            if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-                List<Map<String, Object>> choices = (List<Map<String, Object>>) response.getBody().get("choices");
-                if (choices != null && !choices.isEmpty()) {
-                    Map<String, Object> firstChoice = choices.get(0);
-                    Map<String, String> messageResponse = (Map<String, String>) firstChoice.get("message");
-                    String category = messageResponse.get("content").trim().toUpperCase();
-                    
-                    // Validate the category
-                    if (VALID_CATEGORIES.contains(category)) {
-                        return category;
+            purgeNegative();
+            Iterator<String> names = unclassified.iterator();
+            while (names.hasNext() && groqMerchantClassifier.isAvailable()) {
+                String name = names.next();
+                if (inFlight.add(name)) {
+                    batch.add(name);
+                }
+                if (batch.size() == llmBatchSize || (!names.hasNext() && !batch.isEmpty())) {
+                    if (!dispatch(batch)) {
+                        return;
                     }
+                    batch = new ArrayList<>(llmBatchSize);
                 }
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         } catch (Exception e) {
-            // Log error but don't fail
-            System.err.println("Error calling Groq API: " + e.getMessage());
+            // Never let an error cancel the scheduled worker
+            System.err.println("Error classifying merchants: " + e.getMessage());
+        } finally {
+            // Collected but never sent
+            batch.forEach(inFlight::remove);
+        }
+    }
+
+    /**
+     * Send one batch; false (and the batch left queued) if no bulkhead slot freed up or the
+     * circuit breaker refused the call
+     */
+    private boolean dispatch(List<String> batch) throws InterruptedException {
+        List<String> sent = List.copyOf(batch);
+        CompletableFuture<Map<String, String>> call = groqMerchantClassifier.classifyAsync(sent);
+        if (call == null) {
+            return false;
+        }
+        batch.clear();
+        call.thenAccept(categories -> {
+            try {
+                backfill(sent, categories);
+            } catch (Exception e) {
+                System.err.println("Error saving merchant categories: " + e.getMessage());
+            } finally {
+                // Names are only dropped once answered (or given up on), so repeats seen meanwhile are not re-queued
+                sent.forEach(unclassified::remove);
+                sent.forEach(inFlight::remove);
+            }
+        });
+        return true;
+    }
+
+    private void enqueue(String canonicalKey) {
+        if (unclassified.contains(canonicalKey)) {
+            pipelineMetrics.recordLlmInFlight();
+            return;
         }
+        if (unclassified.size() >= llmQueueCapacity) {
+            llmDropped.increment();
+            return;
+        }
+        if (!unclassified.add(canonicalKey)) {
+            pipelineMetrics.recordLlmInFlight();
+            return;
+        }
+        // A full batch goes out now rather than at the next interval
+        if (unclassified.size() >= llmBatchSize && classifyRequested.compareAndSet(false, true)) {
+            try {
+                classifier.execute(this::classifyQueued);
+            } catch (RejectedExecutionException e) {
+                // Shutting down
+            }
+        }
+    }
 
-        return "OTHER";
+    /**
+     * Save LLM answers and make them visible to lookups. OTHER is not stored, as before;
+     * such merchants, and the whole batch if the call failed (null), go to the negative cache.
+     */
+    private void backfill(List<String> batch, Map<String, String> categories) {
+        long now = System.nanoTime();
+        List<Object[]> rows = new ArrayList<>();
+        for (String merchantName : batch) {
+            String category = categories != null ? categories.get(merchantName) : null;
+            if (category != null && !category.equals("OTHER")) {
+                rows.add(new Object[]{merchantName, merchantName, category});
+            } else {
+                long ttlMs = categories != null ? negativeTtlMs : errorTtlMs;
+                negative.put(merchantName, now + TimeUnit.MILLISECONDS.toNanos(ttlMs));
+            }
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+        try {
+            jdbcTemplate.batchUpdate(BACKFILL, rows);
+        } catch (Exception e) {
+            System.err.println("Error saving merchant categories: " + e.getMessage());
+            for (Object[] row : rows) {
+                negative.put((String) row[0], now + TimeUnit.MILLISECONDS.toNanos(errorTtlMs));
+            }
+            return;
+        }
+        for (Object[] row : rows) {
+            remember(new MerchantCategory(null, (String) row[0], (String) row[2], (String) row[1]));
+        }
     }
 
     /**
@@ -139,7 +471,11 @@ public class MerchantCategoryService {
      */
     public MerchantCategory addMerchantCategory(String merchantName, String category) {
         MerchantCategory mc = new MerchantCategory(merchantName.toUpperCase(), category.toUpperCase());
-        return merchantCategoryRepository.save(mc);
+        mc.setCanonicalKey(MerchantNames.canonicalKey(merchantName));
+        MerchantCategory saved = merchantCategoryRepository.save(mc);
+        remember(saved);
+        negative.remove(saved.getCanonicalKey());
+        return saved;
     }
 
     /**
@@ -148,4 +484,103 @@ public class MerchantCategoryService {
     public List<MerchantCategory> getAllMerchantCategories() {
         return merchantCategoryRepository.findAll();
     }
+
+    private static double ratio(int part, int whole) {
+        return whole == 0 ? 0 : (double) part / whole;
+    }
+
+    private boolean isNegative(String canonicalKey) {
+        return negative.contains(canonicalKey, System.nanoTime());
+    }
+
+    private void purgeNegative() {
+        negative.purge(System.nanoTime());
+    }
+
+    /**
+     * Canonical key of a loaded row: the stored one, or computed and queued in missing as an
+     * update (key, id) for rows saved before the column existed. With recompute, the key is
+     * always computed, and queued if it differs from the stored one.
+     */
+    private static String canonicalKey(ResultSet rs, List<Object[]> missing, boolean recompute) throws SQLException {
+        String stored = rs.getString("canonical_key");
+        if (stored != null && !recompute) {
+            return stored;
+        }
+        String computed = MerchantNames.canonicalKey(rs.getString("merchant_name"));
+        if (computed != null && !computed.equals(stored)) {
+            missing.add(new Object[]{computed, rs.getInt("id")});
+        }
+        return computed != null ? computed : stored;
+    }
+
+    /**
+     * Make a saved row visible to lookups until the next index rebuild; kept by canonical key
+     */
+    private void remember(MerchantCategory saved) {
+        added.add(saved.getCanonicalKey(), saved.getCategory());
+    }
+
+    /**
+     * Bounded map from merchant to the System.nanoTime() until which it is not sent to the LLM.
+     * Kept in insertion order: when full, an insert first drops expired entries at the old
+     * end, then the oldest entry, so the newest answers are always remembered.
+     */
+    private static final class NegativeCache {
+
+        private final int capacity;
+        private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>();
+
+        NegativeCache(int capacity) {
+            this.capacity = Math.max(1, capacity);
+        }
+
+        synchronized boolean contains(String key, long now) {
+            Long until = entries.get(key);
+            if (until == null) {
+                return false;
+            }
+            if (until - now > 0) {
+                return true;
+            }
+            entries.remove(key);
+            return false;
+        }
+
+        synchronized void put(String key, long until) {
+            // Re-inserted at the new end
+            entries.remove(key);
+            if (entries.size() >= capacity) {
+                long now = System.nanoTime();
+                Iterator<Long> oldest = entries.values().iterator();
+                // The oldest entry makes room; expired ones right behind it go too
+                oldest.next();
+                oldest.remove();
+                while (oldest.hasNext() && oldest.next() - now <= 0) {
+                    oldest.remove();
+                }
+            }
+            entries.put(key, until);
+        }
+
+        synchronized void remove(String key) {
+            entries.remove(key);
+        }
+
+        /**
+         * Drop expired entries from the old end, stopping at the first live one. Entries with
+         * the shorter error TTL can expire behind it; contains() treats them as gone, and they
+         * are dropped once they reach the old end or make room for an insert
+         */
+        synchronized void purge(long now) {
+            Iterator<Long> oldest = entries.values().iterator();
+            while (oldest.hasNext() && oldest.next() - now <= 0) {
+                oldest.remove();
+            }
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+    }
 }
@@ -0,0 +1,244 @@
+package com.bankingparser.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable in-memory index of the merchant_category table for category lookup.
+ *
+ * Rows are held in id order in flat arrays (no object per merchant):
+ * - exact lookup goes through an open-addressing table of 64-bit name hashes;
+ * - "the SMS merchant contains a known merchant" ("ZOMATO FOODS" finds ZOMATO) hashes
+ *   every run of whole words of the SMS merchant incrementally and probes the same table,
+ *   so it costs O(words^2) probes and no allocation. A trie or Aho-Corasick automaton
+ *   would scan in O(length) but costs several hundred bytes per merchant at millions of rows;
+ * - "a known merchant starts with the SMS merchant" (ZOMATO finds ZOMATO FOODS) is a
+ *   binary search over the names in sorted order, with a min-tree giving the earliest
+ *   row of that range.
+ * Partial matches are on whole words only, so AIRTEL or DAIRY DAY never find AIR. Names
+ * are canonical keys (single spaces between words). When several rows match partially,
+ * the one with the lowest id wins, like the table scan this replaces. Names are compared
+ * upper-cased.
+ */
+public final class MerchantIndex {
+
+    public static final MerchantIndex EMPTY = builder().build();
+
+    private static final int NOT_FOUND = -1;
+    private static final long EMPTY_SLOT = 0L;
+    private static final long MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    private final String[] names;          // upper-cased, by row (id order)
+    private final String[] categories;     // by row; equal categories share one String
+    private final long[] hashes;           // open addressing by name hash, EMPTY_SLOT if free
+    private final int[] rows;              // row of the name in the same slot
+    private final int maxNameLength;
+    private final String[] sortedNames;    // names in sorted order
+    private final int[] minRow;            // min-tree over the rows of sortedNames
+
+    private MerchantIndex(String[] names, String[] categories) {
+        this.names = names;
+        this.categories = categories;
+        int capacity = Integer.highestOneBit(Math.max(names.length * 2, 8) - 1) << 1;
+        this.hashes = new long[capacity];
+        this.rows = new int[capacity];
+        int longest = 0;
+        for (int row = 0; row < names.length; row++) {
+            insert(row);
+            longest = Math.max(longest, names[row].length());
+        }
+        this.maxNameLength = longest;
+
+        Integer[] order = new Integer[names.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> names[a].compareTo(names[b]));
+        this.sortedNames = new String[names.length];
+        this.minRow = new int[2 * names.length];
+        for (int i = 0; i < order.length; i++) {
+            sortedNames[i] = names[order[i]];
+            minRow[names.length + i] = order[i];
+        }
+        for (int i = names.length - 1; i > 0; i--) {
+            minRow[i] = Math.min(minRow[2 * i], minRow[2 * i + 1]);
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * Category of the merchant with exactly this (upper-cased) name, or null
+     */
+    public String exact(String name) {
+        int row = find(name, 0, name.length(), hash(name, 0, name.length()));
+        return row != NOT_FOUND ? categories[row] : null;
+    }
+
+    /**
+     * Category of the earliest merchant whose name occurs in this (upper-cased) name as
+     * whole words, or that starts with it followed by more words; null if there is none
+     */
+    public String partial(String name) {
+        int best = NOT_FOUND;
+        for (int start = 0; start < name.length(); start++) {
+            if (start > 0 && name.charAt(start - 1) != ' ') {
+                continue;
+            }
+            long hash = 0;
+            int limit = Math.min(name.length(), start + maxNameLength);
+            for (int end = start + 1; end <= limit; end++) {
+                hash = step(hash, name.charAt(end - 1));
+                if (end < name.length() && name.charAt(end) != ' ') {
+                    continue;
+                }
+                int row = find(name, start, end, hash);
+                if (row != NOT_FOUND && (best == NOT_FOUND || row < best)) {
+                    best = row;
+                }
+            }
+        }
+
+        String firstWords = name + ' ';
+        int from = lowerBound(firstWords);
+        int to = lowerBound(successor(firstWords));
+        if (from < to) {
+            int row = rangeMin(from, to);
+            if (best == NOT_FOUND || row < best) {
+                best = row;
+            }
+        }
+        return best != NOT_FOUND ? categories[best] : null;
+    }
+
+    /**
+     * Row whose name equals text[start, end), or NOT_FOUND
+     */
+    private int find(String text, int start, int end, long hash) {
+        int mask = hashes.length - 1;
+        int length = end - start;
+        for (int slot = slot(hash, mask); hashes[slot] != EMPTY_SLOT; slot = (slot + 1) & mask) {
+            if (hashes[slot] == hash) {
+                String candidate = names[rows[slot]];
+                if (candidate.length() == length && candidate.regionMatches(0, text, start, length)) {
+                    return rows[slot];
+                }
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    private void insert(int row) {
+        String name = names[row];
+        long hash = hash(name, 0, name.length());
+        if (find(name, 0, name.length(), hash) != NOT_FOUND) {
+            // The first (lowest id) row wins for a repeated name
+            return;
+        }
+        int mask = hashes.length - 1;
+        int slot = slot(hash, mask);
+        while (hashes[slot] != EMPTY_SLOT) {
+            slot = (slot + 1) & mask;
+        }
+        hashes[slot] = hash;
+        rows[slot] = row;
+    }
+
+    private static long hash(String text, int start, int end) {
+        long hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = step(hash, text.charAt(i));
+        }
+        return hash;
+    }
+
+    /**
+     * Extend a hash by one char; never yields EMPTY_SLOT for a non-empty string
+     */
+    private static long step(long hash, char c) {
+        long next = (hash + c + 1) * MULTIPLIER;
+        return next != EMPTY_SLOT ? next : 1L;
+    }
+
+    /**
+     * Home slot from all 64 bits of the hash, so tables past 2^24 slots use every slot
+     */
+    private static int slot(long hash, int mask) {
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = sortedNames.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedNames[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Smallest string greater than every string starting with prefix
+     */
+    private static String successor(String prefix) {
+        char last = prefix.charAt(prefix.length() - 1);
+        if (last == Character.MAX_VALUE) {
+            return prefix + Character.MAX_VALUE;
+        }
+        return prefix.substring(0, prefix.length() - 1) + (char) (last + 1);
+    }
+
+    /**
+     * Lowest row among sortedNames[from, to)
+     */
+    private int rangeMin(int from, int to) {
+        int min = Integer.MAX_VALUE;
+        for (int low = from + names.length, high = to + names.length; low < high; low >>= 1, high >>= 1) {
+            if ((low & 1) == 1) {
+                min = Math.min(min, minRow[low++]);
+            }
+            if ((high & 1) == 1) {
+                min = Math.min(min, minRow[--high]);
+            }
+        }
+        return min;
+    }
+
+    /**
+     * Collects rows in id order
+     */
+    public static final class Builder {
+
+        private final List<String> names = new ArrayList<>();
+        private final List<String> categories = new ArrayList<>();
+        private final Map<String, String> distinctCategories = new HashMap<>();
+
+        private Builder() {
+        }
+
+        public Builder add(String merchantName, String category) {
+            if (merchantName != null && !merchantName.isEmpty()) {
+                names.add(merchantName.toUpperCase());
+                categories.add(category != null ? distinctCategories.computeIfAbsent(category, c -> c) : null);
+            }
+            return this;
+        }
+
+        public MerchantIndex build() {
+            return new MerchantIndex(names.toArray(new String[0]), categories.toArray(new String[0]));
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.bankingparser.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Merchants saved since the {@link MerchantIndex} was built, with the same lookups.
+ *
+ * The immutable index is rebuilt periodically; rows added in between go here so they are
+ * found at once. Exact lookup is one hash probe, "contains a known merchant" probes each
+ * run of whole words, and "a known merchant starts with this name" is a range over the
+ * names in sorted order. Entries are numbered as added: the earliest one wins, like the
+ * lowest id in the index. A rebuild that has loaded the rows up to {@link #mark} drops
+ * them with {@link #removeUpTo}. Safe for concurrent lookups and additions.
+ */
+public final class MerchantIndexDelta {
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<String, Entry> byName = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<String, Entry> sortedNames = new ConcurrentSkipListMap<>();
+
+    /**
+     * Add an (upper-cased) merchant name; a name already held keeps its first category
+     */
+    public void add(String name, String category) {
+        if (name == null || name.isEmpty() || category == null) {
+            return;
+        }
+        Entry entry = new Entry(sequence.incrementAndGet(), category);
+        if (byName.putIfAbsent(name, entry) == null) {
+            sortedNames.put(name, entry);
+        }
+    }
+
+    /**
+     * Number of the latest addition; a rebuild started after it includes everything up to it
+     */
+    public long mark() {
+        return sequence.get();
+    }
+
+    /**
+     * Forget the additions up to mark, now that the index holds them
+     */
+    public void removeUpTo(long mark) {
+        byName.values().removeIf(entry -> entry.sequence <= mark);
+        sortedNames.values().removeIf(entry -> entry.sequence <= mark);
+    }
+
+    public int size() {
+        return byName.size();
+    }
+
+    /**
+     * Category of the merchant with exactly this name, or null
+     */
+    public String exact(String name) {
+        Entry entry = byName.get(name);
+        return entry != null ? entry.category : null;
+    }
+
+    /**
+     * Category of the earliest merchant whose name occurs in this name as whole words, or
+     * that starts with it followed by more words; null if there is none
+     */
+    public String partial(String name) {
+        if (byName.isEmpty()) {
+            return null;
+        }
+        Entry best = null;
+        for (int start = 0; start < name.length(); start++) {
+            if (start > 0 && name.charAt(start - 1) != ' ') {
+                continue;
+            }
+            for (int end = name.indexOf(' ', start + 1); ; end = name.indexOf(' ', end + 1)) {
+                Entry entry = byName.get(name.substring(start, end < 0 ? name.length() : end));
+                best = earliest(best, entry);
+                if (end < 0) {
+                    break;
+                }
+            }
+        }
+
+        String firstWords = name + ' ';
+        for (Entry entry : sortedNames.subMap(firstWords, true, name + (char) (' ' + 1), false).values()) {
+            best = earliest(best, entry);
+        }
+        return best != null ? best.category : null;
+    }
+
+    private static Entry earliest(Entry best, Entry entry) {
+        return entry != null && (best == null || entry.sequence < best.sequence) ? entry : best;
+    }
+
+    private static final class Entry {
+        private final long sequence;
+        private final String category;
+
+        private Entry(long sequence, String category) {
+            this.sequence = sequence;
+            this.category = category;
+        }
+    }
+}
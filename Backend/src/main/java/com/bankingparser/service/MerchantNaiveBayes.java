@@ -0,0 +1,171 @@
+package com.bankingparser.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable multinomial naive Bayes model guessing a merchant's category from the
+ * character 2- to 4-grams of its name, trained from merchant_category rows.
+ *
+ * N-grams are hashed into a fixed number of buckets, so the model size does not grow
+ * with the table, and a prediction is a few hundred array reads. It allocates little: a
+ * copy of the priors to score into, the name wrapped in boundary marks, and the result.
+ * The confidence is the posterior probability of the best category;
+ * naive Bayes tends to overstate it, so the threshold to trust it should be chosen with
+ * {@link MerchantCategoryService#evaluateClassifier}.
+ */
+public final class MerchantNaiveBayes {
+
+    public static final MerchantNaiveBayes EMPTY = trainer().build();
+
+    private static final int BUCKET_BITS = 18;
+    private static final int BUCKETS = 1 << BUCKET_BITS;
+    private static final int MIN_GRAM = 2;
+    private static final int MAX_GRAM = 4;
+
+    // Marks the start and end of the name, so "^ZO" and "TO$" are features of their own
+    private static final char BOUNDARY = '\u0001';
+
+    private final String[] categories;
+    private final double[] logPriors;       // by category
+    private final float[] logLikelihoods;   // bucket * categories.length + category
+    private final int trainingRows;
+
+    private MerchantNaiveBayes(String[] categories, double[] logPriors, float[] logLikelihoods, int trainingRows) {
+        this.categories = categories;
+        this.logPriors = logPriors;
+        this.logLikelihoods = logLikelihoods;
+        this.trainingRows = trainingRows;
+    }
+
+    public static Trainer trainer() {
+        return new Trainer();
+    }
+
+    public int getTrainingRows() {
+        return trainingRows;
+    }
+
+    /**
+     * Best category for an (upper-cased) merchant name, or null if the model was trained
+     * on fewer than two categories
+     */
+    public Prediction predict(String merchantName) {
+        int categoryCount = categories.length;
+        if (categoryCount < 2 || merchantName.isEmpty()) {
+            return null;
+        }
+        double[] scores = logPriors.clone();
+        String text = BOUNDARY + merchantName + BOUNDARY;
+        for (int n = MIN_GRAM; n <= MAX_GRAM; n++) {
+            for (int start = 0; start + n <= text.length(); start++) {
+                int offset = bucket(text, start, n) * categoryCount;
+                for (int c = 0; c < categoryCount; c++) {
+                    scores[c] += logLikelihoods[offset + c];
+                }
+            }
+        }
+
+        int best = 0;
+        for (int c = 1; c < categoryCount; c++) {
+            if (scores[c] > scores[best]) {
+                best = c;
+            }
+        }
+        // Posterior of the best category, computed relative to it to avoid underflow
+        double total = 0;
+        for (int c = 0; c < categoryCount; c++) {
+            total += Math.exp(scores[c] - scores[best]);
+        }
+        return new Prediction(categories[best], 1.0 / total);
+    }
+
+    private static int bucket(String text, int start, int n) {
+        int hash = n;
+        for (int i = start; i < start + n; i++) {
+            hash = hash * 31 + text.charAt(i);
+        }
+        return (hash * 0x9E3779B9) >>> (32 - BUCKET_BITS);
+    }
+
+    /**
+     * A guessed category and the model's probability that it is right
+     */
+    public static final class Prediction {
+        private final String category;
+        private final double confidence;
+
+        private Prediction(String category, double confidence) {
+            this.category = category;
+            this.confidence = confidence;
+        }
+
+        public String getCategory() {
+            return category;
+        }
+
+        public double getConfidence() {
+            return confidence;
+        }
+    }
+
+    /**
+     * Accumulates n-gram counts per category, one row at a time
+     */
+    public static final class Trainer {
+
+        // Laplace smoothing
+        private static final double ALPHA = 1.0;
+
+        private final Map<String, Integer> categoryIndex = new HashMap<>();
+        private final List<String> categories = new ArrayList<>();
+        private final List<int[]> counts = new ArrayList<>();     // by category: count per bucket
+        private final List<long[]> totals = new ArrayList<>();    // by category: {rows, n-grams}
+        private int rows;
+
+        private Trainer() {
+        }
+
+        public Trainer add(String merchantName, String category) {
+            if (merchantName == null || merchantName.isEmpty() || category == null) {
+                return this;
+            }
+            int c = categoryIndex.computeIfAbsent(category, name -> {
+                categories.add(name);
+                counts.add(new int[BUCKETS]);
+                totals.add(new long[2]);
+                return categories.size() - 1;
+            });
+            int[] bucketCounts = counts.get(c);
+            long[] total = totals.get(c);
+            String text = BOUNDARY + merchantName.toUpperCase() + BOUNDARY;
+            for (int n = MIN_GRAM; n <= MAX_GRAM; n++) {
+                for (int start = 0; start + n <= text.length(); start++) {
+                    bucketCounts[bucket(text, start, n)]++;
+                    total[1]++;
+                }
+            }
+            total[0]++;
+            rows++;
+            return this;
+        }
+
+        public MerchantNaiveBayes build() {
+            int categoryCount = categories.size();
+            double[] logPriors = new double[categoryCount];
+            float[] logLikelihoods = new float[BUCKETS * categoryCount];
+            for (int c = 0; c < categoryCount; c++) {
+                long[] total = totals.get(c);
+                logPriors[c] = Math.log((double) total[0] / rows);
+                int[] bucketCounts = counts.get(c);
+                double denominator = Math.log(total[1] + ALPHA * BUCKETS);
+                for (int b = 0; b < BUCKETS; b++) {
+                    logLikelihoods[b * categoryCount + c] = (float) (Math.log(bucketCounts[b] + ALPHA) - denominator);
+                }
+            }
+            return new MerchantNaiveBayes(categories.toArray(new String[0]), logPriors, logLikelihoods, rows);
+        }
+    }
+}
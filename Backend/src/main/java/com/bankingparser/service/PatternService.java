@@ -1,15 +1,26 @@
 package com.bankingparser.service;
 
+import com.bankingparser.dto.FailedClusterResponse;
+import com.bankingparser.dto.PatternOrderingResponse;
 import com.bankingparser.dto.SavePatternRequest;
 import com.bankingparser.dto.UpdatePatternRequest;
 import com.bankingparser.model.Bank;
 import com.bankingparser.model.Pattern;
+import com.bankingparser.parser.BankPatterns;
+import com.bankingparser.parser.BankResolver;
+import com.bankingparser.parser.CompiledPattern;
+import com.bankingparser.parser.PatternRegistry;
 import com.bankingparser.repository.BankRepository;
 import com.bankingparser.repository.PatternRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class PatternService {
@@ -20,6 +31,18 @@ public class PatternService {
     @Autowired
     private BankRepository bankRepository;
 
+    @Autowired
+    private PatternRegistry patternRegistry;
+
+    @Autowired
+    private BankResolver bankResolver;
+
+    @Autowired
+    private FailedClusterService failedClusterService;
+
+    @Value("${failed.list.max-size:500}")
+    private int failedListMaxSize;
+
     public List<Pattern> getDrafts() {
         return patternRepository.findByStatus("DRAFT");
     }
@@ -32,53 +55,68 @@ public class PatternService {
         return patternRepository.findByStatus("FAILED");
     }
 
+    /**
+     * One page of FAILED patterns, most frequent (then most recent) first
+     * The page size is capped at failed.list.max-size
+     */
+    public List<Pattern> getFailed(int page, int size) {
+        int pageSize = Math.max(1, Math.min(size, failedListMaxSize));
+        Sort order = Sort.by(Sort.Order.desc("occurrenceCount"), Sort.Order.desc("lastSeen"), Sort.Order.asc("patternId"));
+        return patternRepository.findByStatus("FAILED", PageRequest.of(Math.max(0, page), pageSize, order));
+    }
+
+    /**
+     * Unmatched SMS grouped by bank and template, most frequent first
+     */
+    public List<FailedClusterResponse> getFailedClusters() {
+        return failedClusterService.getClusters();
+    }
+
     public List<Pattern> getPendings() {
         return patternRepository.findByStatus("PENDING");
     }
 
     /**
-     * Save pattern with given status (DRAFT or PENDING)
-     * First finds bank from smsTitle, if not found creates new bank using bankName from request
+     * Approved patterns pulled from the live set for repeatedly exceeding the match budget
      */
-    public Pattern savePattern(SavePatternRequest request, String status) {
-        Bank matchedBank = null;
+    public List<Pattern> getQuarantined() {
+        return patternRepository.findByStatus("QUARANTINED");
+    }
 
-        // Step 1: Try to find bank from smsTitle (if provided)
-        if (request.getSmsTitle() != null && !request.getSmsTitle().trim().isEmpty()) {
-            List<Bank> allBanks = bankRepository.findAll();
-            String upperTitle = request.getSmsTitle().toUpperCase();
-            
-            for (Bank bank : allBanks) {
-                if (upperTitle.contains(bank.getBankname().toUpperCase())) {
-                    matchedBank = bank;
-                    break;
-                }
+    /**
+     * Approved patterns of every bank in the order they are tried, with hit statistics
+     */
+    public List<PatternOrderingResponse> getPatternOrdering() {
+        List<PatternOrderingResponse> banks = new ArrayList<>();
+        for (Map.Entry<Integer, BankPatterns> entry : patternRegistry.current().getPatternsByBank().entrySet()) {
+            BankPatterns bankPatterns = entry.getValue();
+            List<PatternOrderingResponse.PatternEntry> entries = new ArrayList<>();
+            int position = 0;
+            for (CompiledPattern compiled : bankPatterns.getPatterns()) {
+                entries.add(new PatternOrderingResponse.PatternEntry(
+                        position++,
+                        compiled.getPatternId(),
+                        compiled.getStats().getAttempts(),
+                        compiled.getStats().getHits(),
+                        compiled.getStats().getHitRate(),
+                        compiled.getStats().getBudgetTrips()
+                ));
             }
+            banks.add(new PatternOrderingResponse(entry.getKey(), entries));
         }
+        banks.sort((a, b) -> Integer.compare(a.getBankId(), b.getBankId()));
+        return banks;
+    }
 
-        // Step 2: If no bank found from title, try to find or create using bankName
+    /**
+     * Save pattern with given status (DRAFT or PENDING)
+     * First finds bank from smsTitle, if not found creates new bank using bankName from request
+     */
+    public Pattern savePattern(SavePatternRequest request, String status) {
+        // Step 1 & 2: Find bank from smsTitle, else find or create it from bankName
+        Bank matchedBank = findOrCreateBank(request.getSmsTitle(), request.getBankName());
         if (matchedBank == null) {
-            if (request.getBankName() == null || request.getBankName().trim().isEmpty()) {
-                throw new RuntimeException("Bank not found in SMS title and bankName not provided in request");
-            }
-            
-            // Try to find existing bank by name first
-            String bankNameUpper = request.getBankName().toUpperCase();
-            List<Bank> allBanks = bankRepository.findAll();
-            for (Bank bank : allBanks) {
-                if (bank.getBankname().toUpperCase().contains(bankNameUpper) || 
-                    bankNameUpper.contains(bank.getBankname().toUpperCase())) {
-                    matchedBank = bank;
-                    break;
-                }
-            }
-            
-            // If still not found, create new bank
-            if (matchedBank == null) {
-                Bank newBank = new Bank();
-                newBank.setBankname(request.getBankName().toUpperCase());
-                matchedBank = bankRepository.save(newBank);
-            }
+            throw new RuntimeException("Bank not found in SMS title and bankName not provided in request");
         }
 
         // Step 3: Create and save pattern
@@ -101,38 +139,19 @@ public class PatternService {
      * Helper method to find or create bank from smsTitle or bankName
      */
     private Bank findOrCreateBank(String smsTitle, String bankName) {
-        Bank matchedBank = null;
-        
         // Step 1: Try to find bank from smsTitle
-        if (smsTitle != null && !smsTitle.trim().isEmpty()) {
-            List<Bank> allBanks = bankRepository.findAll();
-            String upperTitle = smsTitle.toUpperCase();
-            
-            for (Bank bank : allBanks) {
-                if (upperTitle.contains(bank.getBankname().toUpperCase())) {
-                    matchedBank = bank;
-                    break;
-                }
-            }
-        }
+        Bank matchedBank = bankResolver.resolve(smsTitle);
         
         // Step 2: If not found, try to find from bankName
         if (matchedBank == null && bankName != null && !bankName.trim().isEmpty()) {
-            String bankNameUpper = bankName.toUpperCase();
-            List<Bank> allBanks = bankRepository.findAll();
-            for (Bank bank : allBanks) {
-                if (bank.getBankname().toUpperCase().contains(bankNameUpper) || 
-                    bankNameUpper.contains(bank.getBankname().toUpperCase())) {
-                    matchedBank = bank;
-                    break;
-                }
-            }
+            matchedBank = bankResolver.findByName(bankName);
             
             // If still not found, create new bank
             if (matchedBank == null) {
                 Bank newBank = new Bank();
-                newBank.setBankname(bankNameUpper);
+                newBank.setBankname(bankName.toUpperCase());
                 matchedBank = bankRepository.save(newBank);
+                bankResolver.reload();
             }
         }
         
@@ -145,6 +164,8 @@ public class PatternService {
     public Pattern updatePatternToPending(Integer patternId, SavePatternRequest request) {
         Pattern pattern = patternRepository.findById(patternId)
                 .orElseThrow(() -> new RuntimeException("Pattern not found with id: " + patternId));
+        boolean wasApproved = "APPROVED".equals(pattern.getStatus());
+        boolean wasFailed = "FAILED".equals(pattern.getStatus());
         
         // Find or create bank and update bankId
         Bank bank = findOrCreateBank(request.getSmsTitle(), request.getBankName());
@@ -163,7 +184,15 @@ public class PatternService {
         pattern.setSmsTitle(request.getSmsTitle());
         pattern.setStatus("PENDING");
         
-        return patternRepository.save(pattern);
+        Pattern saved = patternRepository.save(pattern);
+        if (wasApproved) {
+            // Pattern left the approved set - stop matching with it
+            patternRegistry.reload();
+        }
+        if (wasFailed) {
+            failedClusterService.resolve(saved);
+        }
+        return saved;
     }
 
     /**
@@ -173,6 +202,8 @@ public class PatternService {
     public Pattern updateDraft(Integer patternId, SavePatternRequest request) {
         Pattern pattern = patternRepository.findById(patternId)
                 .orElseThrow(() -> new RuntimeException("Pattern not found with id: " + patternId));
+        boolean wasApproved = "APPROVED".equals(pattern.getStatus());
+        boolean wasFailed = "FAILED".equals(pattern.getStatus());
         
         // Find or create bank and update bankId
         Bank bank = findOrCreateBank(request.getSmsTitle(), request.getBankName());
@@ -191,7 +222,15 @@ public class PatternService {
         pattern.setSmsTitle(request.getSmsTitle());
         pattern.setStatus("DRAFT"); // Set status to DRAFT
         
-        return patternRepository.save(pattern);
+        Pattern saved = patternRepository.save(pattern);
+        if (wasApproved) {
+            // Pattern left the approved set - stop matching with it
+            patternRegistry.reload();
+        }
+        if (wasFailed) {
+            failedClusterService.resolve(saved);
+        }
+        return saved;
     }
 
     /**
@@ -236,6 +275,9 @@ public class PatternService {
         // Update status
         pattern.setStatus(status);
         
-        return patternRepository.save(pattern);
+        Pattern saved = patternRepository.save(pattern);
+        // Approve/reject changes the live pattern set - publish a fresh snapshot
+        patternRegistry.reload();
+        return saved;
     }
 }
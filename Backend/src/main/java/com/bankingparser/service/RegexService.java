@@ -1,32 +1,81 @@
 package com.bankingparser.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.bankingparser.dto.BulkSmsRequest;
 import com.bankingparser.dto.BulkSmsResponse;
 import com.bankingparser.dto.ExtractedFieldsResponse;
+import com.bankingparser.metrics.PipelineMetrics;
 import com.bankingparser.model.Bank;
 import com.bankingparser.model.Pattern;
-import com.bankingparser.repository.BankRepository;
-import com.bankingparser.repository.PatternRepository;
+import com.bankingparser.parser.BankPatterns;
+import com.bankingparser.parser.BankResolver;
+import com.bankingparser.parser.CompiledPattern;
+import com.bankingparser.parser.ExtractionPlan;
+import com.bankingparser.parser.MatchBudgetExceededException;
+import com.bankingparser.parser.PatternMatch;
+import com.bankingparser.parser.PatternMatcher;
+import com.bankingparser.parser.PatternRegistry;
+import com.bankingparser.parser.PatternSnapshot;
+import com.bankingparser.util.BoundedLineReader;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
-import java.util.ArrayList;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
 import java.util.regex.Matcher;
+import java.util.stream.IntStream;
 
 @Service
 public class RegexService {
 
+    private static final int STREAM_FLUSH_INTERVAL = 100;
+
     @Autowired
-    private PatternRepository patternRepository;
+    private FailedPatternWriter failedPatternWriter;
 
     @Autowired
-    private BankRepository bankRepository;
+    private BankResolver bankResolver;
 
     @Autowired
     private MerchantCategoryService merchantCategoryService;
 
+    @Autowired
+    private PatternRegistry patternRegistry;
+
+    @Autowired
+    private PatternMatcher patternMatcher;
+
+    @Autowired
+    private ForkJoinPool bulkParsePool;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PipelineMetrics pipelineMetrics;
+
+    @Value("${bulk.parse.parallel.enabled:true}")
+    private boolean bulkParallelEnabled;
+
+    // Batches smaller than this are parsed on the request thread
+    @Value("${bulk.parse.parallel.threshold:256}")
+    private int bulkParallelThreshold;
+
+    // Longest record line /user/bulkParseStream buffers; longer ones are skipped and reported failed
+    @Value("${bulk.parse.stream.max-record-chars:65536}")
+    private int streamMaxRecordChars;
+
     /**
      * Extract fields from SMS using provided regex pattern
      * Used by Maker and Checker to test patterns
@@ -37,13 +86,15 @@ public class RegexService {
                     regexPattern,
                     java.util.regex.Pattern.CASE_INSENSITIVE
             );
-            Matcher matcher = regex.matcher(sms);
+            Matcher matcher = regex.matcher(patternMatcher.getBudget().guard(sms));
 
             if (matcher.find()) {
-                return buildResponse(matcher, null);
+                return buildResponse(matcher, sms, ExtractionPlan.forPattern(regex));
             } else {
                 return ExtractedFieldsResponse.notMatched("Pattern did not match the SMS");
             }
+        } catch (MatchBudgetExceededException | StackOverflowError e) {
+            return ExtractedFieldsResponse.notMatched("Pattern took too long to match (catastrophic backtracking?): " + e.getMessage());
         } catch (Exception e) {
             return ExtractedFieldsResponse.notMatched("Invalid regex pattern: " + e.getMessage());
         }
@@ -55,188 +106,153 @@ public class RegexService {
      * If no pattern matches, saves the SMS as a FAILED pattern for review
      */
     public ExtractedFieldsResponse findPattern(String sms, String smsTitle) {
+        return findPattern(sms, smsTitle, false);
+    }
+
+    /**
+     * findPattern with an option to replay an SMS without side effects
+     * A warm-up replay runs the same path but never saves FAILED patterns or calls the LLM,
+     * records no parser metrics, and its match-budget trips never quarantine a pattern
+     */
+    ExtractedFieldsResponse findPattern(String sms, String smsTitle, boolean warmUp) {
         // Step 1: Find bank from smsTitle
-        List<Bank> allBanks = bankRepository.findAll();
-        Bank matchedBank = null;
-
-        String upperTitle = smsTitle != null ? smsTitle.toUpperCase() : "";
-        for (Bank bank : allBanks) {
-            if (upperTitle.contains(bank.getBankname().toUpperCase())) {
-                matchedBank = bank;
-                break;
-            }
-        }
+        Bank matchedBank = resolveBank(smsTitle, !warmUp);
 
         if (matchedBank == null) {
             // Save as FAILED pattern with no bank
-            saveFailedPattern(sms, smsTitle, null);
-            return ExtractedFieldsResponse.notMatched("No bank found in SMS title: " + smsTitle + ". SMS saved as FAILED pattern.");
+            boolean queued = false;
+            if (!warmUp) {
+                pipelineMetrics.recordUnmatched(null);
+                queued = saveFailedPattern(sms, smsTitle, null);
+            }
+            return ExtractedFieldsResponse.notMatched("No bank found in SMS title: " + smsTitle + ". " + failedNote(queued, warmUp));
         }
 
-        // Step 2: Get approved patterns for this bank only
-        List<Pattern> bankPatterns = patternRepository.findByBankIdAndStatus(matchedBank.getBankId(), "APPROVED");
+        // Step 2: Get approved patterns for this bank only (precompiled, from the registry)
+        PatternSnapshot snapshot = patternRegistry.current();
+        BankPatterns bankPatterns = snapshot.forBank(matchedBank.getBankId());
 
         if (bankPatterns.isEmpty()) {
             // Save as FAILED pattern
-            saveFailedPattern(sms, smsTitle, matchedBank);
-            return ExtractedFieldsResponse.notMatched("No approved patterns found for bank: " + matchedBank.getBankname() + ". SMS saved as FAILED pattern.");
+            boolean queued = false;
+            if (!warmUp) {
+                pipelineMetrics.recordNoPatterns(matchedBank);
+                queued = saveFailedPattern(sms, smsTitle, matchedBank);
+            }
+            return ExtractedFieldsResponse.notMatched("No approved patterns found for bank: " + matchedBank.getBankname() + ". " + failedNote(queued, warmUp));
         }
 
-        // Step 3: Try to match patterns
-        for (Pattern pattern : bankPatterns) {
-            try {
-                java.util.regex.Pattern regex = java.util.regex.Pattern.compile(
-                        pattern.getPattern(),
-                        java.util.regex.Pattern.CASE_INSENSITIVE
-                );
-                Matcher matcher = regex.matcher(sms);
-
-                if (matcher.find()) {
-                    ExtractedFieldsResponse response = buildResponse(matcher, pattern);
-                    // Set pattern info
-                    response.setPatternId(pattern.getPatternId());
-                    response.setPattern(pattern.getPattern());
-                    
-                    // Track which fields were parsed vs filled from pattern defaults
-                    // Initially mark all as parsed (true) based on what buildResponse extracted
-                    response.setParsedBankName(response.getBankName() != null);
-                    response.setParsedMerchantName(response.getMerchantName() != null);
-                    response.setParsedTxType(response.getTxType() != null);
-                    response.setParsedMsgType(response.getMsgType() != null);
-                    response.setParsedMsgSubtype(response.getMsgSubtype() != null);
-                    
-                    // Set default values from pattern if not extracted (and mark as not parsed)
-                    if (response.getBankName() == null) {
-                        response.setBankName(pattern.getBankName() != null ? pattern.getBankName() : matchedBank.getBankname());
-                        response.setParsedBankName(false);
-                    }
-                    if (response.getMerchantName() == null && pattern.getMerchantName() != null) {
-                        response.setMerchantName(pattern.getMerchantName());
-                        response.setParsedMerchantName(false);
-                    }
-                    if (response.getTxType() == null && pattern.getTxType() != null) {
-                        response.setTxType(pattern.getTxType());
-                        response.setParsedTxType(false);
-                    }
-                    if (response.getMsgType() == null && pattern.getMsgType() != null) {
-                        response.setMsgType(pattern.getMsgType());
-                        response.setParsedMsgType(false);
-                    }
-                    
-                    // Auto-detect msgSubtype (category) from merchant name
-                    // Always lookup from merchantCategory table (and API if not found)
-                    if (response.getMerchantName() != null) {
-                        String autoCategory = merchantCategoryService.getCategoryForMerchant(response.getMerchantName());
-                        if (autoCategory != null) {
-                            response.setMsgSubtype(autoCategory);
-                            response.setParsedMsgSubtype(true); // Auto-detected from merchant
-                        }
-                    }
-                    // If still null (no merchant name extracted), leave it null
-                    if (response.getMsgSubtype() == null) {
-                        response.setParsedMsgSubtype(false);
-                    }
-                    return response;
+        // Step 3: Route repeat templates to their last pattern, else try patterns whose literals all occur in the SMS
+        PatternMatch match = patternMatcher.match(snapshot, matchedBank.getBankId(), sms, warmUp);
+        if (match != null) {
+            CompiledPattern compiled = match.getPattern();
+            Pattern pattern = compiled.getSource();
+            Matcher matcher = match.getMatcher();
+            ExtractedFieldsResponse response = buildResponse(matcher, match.getInput(), compiled.getExtractionPlan(), !warmUp);
+            // Set pattern info
+            response.setPatternId(pattern.getPatternId());
+            response.setPattern(pattern.getPattern());
+            
+            // Track which fields were parsed vs filled from pattern defaults
+            // Initially mark all as parsed (true) based on what buildResponse extracted
+            response.setParsedBankName(response.getBankName() != null);
+            response.setParsedMerchantName(response.getMerchantName() != null);
+            response.setParsedTxType(response.getTxType() != null);
+            response.setParsedMsgType(response.getMsgType() != null);
+            response.setParsedMsgSubtype(response.getMsgSubtype() != null);
+            
+            // Set default values from pattern if not extracted (and mark as not parsed)
+            if (response.getBankName() == null) {
+                response.setBankName(pattern.getBankName() != null ? pattern.getBankName() : matchedBank.getBankname());
+                response.setParsedBankName(false);
+            }
+            if (response.getMerchantName() == null && pattern.getMerchantName() != null) {
+                response.setMerchantName(pattern.getMerchantName());
+                response.setParsedMerchantName(false);
+            }
+            if (response.getTxType() == null && pattern.getTxType() != null) {
+                response.setTxType(pattern.getTxType());
+                response.setParsedTxType(false);
+            }
+            if (response.getMsgType() == null && pattern.getMsgType() != null) {
+                response.setMsgType(pattern.getMsgType());
+                response.setParsedMsgType(false);
+            }
+            
+            // Auto-detect msgSubtype (category) from merchant name
+            // Always lookup from merchantCategory table (and API if not found)
+            if (response.getMerchantName() != null) {
+                String autoCategory = merchantCategoryService.getCategoryForMerchant(response.getMerchantName(), !warmUp);
+                if (autoCategory != null) {
+                    response.setMsgSubtype(autoCategory);
+                    response.setParsedMsgSubtype(true); // Auto-detected from merchant
                 }
-            } catch (Exception e) {
-                // Skip invalid patterns
-                continue;
             }
+            // If still null (no merchant name extracted), leave it null
+            if (response.getMsgSubtype() == null) {
+                response.setParsedMsgSubtype(false);
+            }
+            if (!warmUp) {
+                pipelineMetrics.recordMatched(matchedBank);
+            }
+            return response;
         }
 
         // No pattern matched - save as FAILED
-        saveFailedPattern(sms, smsTitle, matchedBank);
-        return ExtractedFieldsResponse.notMatched("No matching pattern found for SMS from bank: " + matchedBank.getBankname() + ". SMS saved as FAILED pattern.");
+        boolean queued = false;
+        if (!warmUp) {
+            pipelineMetrics.recordUnmatched(matchedBank);
+            queued = saveFailedPattern(sms, smsTitle, matchedBank);
+        }
+        return ExtractedFieldsResponse.notMatched("No matching pattern found for SMS from bank: " + matchedBank.getBankname() + ". " + failedNote(queued, warmUp));
     }
 
     /**
      * Save a failed SMS as a pattern with status FAILED for the Maker to review
+     * Queued write-behind: repeats of the same template are folded into one row with a count
+     * Returns false if the SMS was dropped because the FAILED queue is full
      */
-    private void saveFailedPattern(String sms, String smsTitle, Bank bank) {
-        Pattern failedPattern = new Pattern();
-        failedPattern.setSample(sms);
-        failedPattern.setPattern(""); // No pattern yet - Maker needs to create one
-        failedPattern.setStatus("FAILED");
-        failedPattern.setSmsTitle(smsTitle); // Save smsTitle
-        
-        if (bank != null) {
-            failedPattern.setBankId(bank.getBankId());
-            failedPattern.setBankName(bank.getBankname());
-        } else if (smsTitle != null && !smsTitle.isEmpty()) {
-            // Store smsTitle as bankName for reference
-            failedPattern.setBankName(smsTitle);
-        }
-        
-        patternRepository.save(failedPattern);
+    private boolean saveFailedPattern(String sms, String smsTitle, Bank bank) {
+        return failedPatternWriter.enqueue(sms, smsTitle, bank);
     }
 
-    private ExtractedFieldsResponse buildResponse(Matcher matcher, Pattern pattern) {
-        ExtractedFieldsResponse response = ExtractedFieldsResponse.matched();
-
-        // Extract amount
-        try {
-            String amountStr = matcher.group("amount").replace(",", "");
-            response.setAmount(new BigDecimal(amountStr));
-        } catch (Exception e) { /* skip */ }
-
-        // Extract account number
-        try {
-            response.setAccountNumber(matcher.group("accountNumber"));
-        } catch (Exception e) { /* skip */ }
-
-        // Extract bank name
-        try {
-            response.setBankName(matcher.group("bankName"));
-        } catch (Exception e) { /* skip */ }
-
-        // Extract merchant name
-        try {
-            response.setMerchantName(matcher.group("merchantName"));
-        } catch (Exception e) {
-            try {
-                response.setMerchantName(matcher.group("merchant"));
-            } catch (Exception ex) { /* skip */ }
+    /**
+     * What happened to an unmatched SMS, for the response message
+     */
+    private static String failedNote(boolean queued, boolean warmUp) {
+        if (warmUp) {
+            return "Not recorded: warm-up replay.";
         }
+        return queued ? "SMS queued for review as FAILED pattern." : "SMS not recorded: FAILED queue full.";
+    }
 
-        // Extract transaction type
-        try {
-            response.setTxType(matcher.group("txType"));
-        } catch (Exception e) {
-            try {
-                response.setTxType(matcher.group("type"));
-            } catch (Exception ex) { /* skip */ }
+    /**
+     * Resolve the bank from the SMS title, timing the lookup when record is set
+     */
+    private Bank resolveBank(String smsTitle, boolean record) {
+        long start = System.nanoTime();
+        Bank bank = bankResolver.resolve(smsTitle);
+        if (record) {
+            pipelineMetrics.recordBankResolution(System.nanoTime() - start, bank != null);
         }
+        return bank;
+    }
 
-        // Extract message type
-        try {
-            response.setMsgType(matcher.group("msgType"));
-        } catch (Exception e) { /* skip */ }
-
-        // Extract message subtype
-        try {
-            response.setMsgSubtype(matcher.group("msgSubtype"));
-        } catch (Exception e) { /* skip */ }
-
-        // Extract date
-        try {
-            response.setDate(matcher.group("date"));
-        } catch (Exception e) { /* skip */ }
-
-        // Extract available balance
-        try {
-            String balStr = matcher.group("availableBalance").replace(",", "");
-            response.setAvailableBalance(new BigDecimal(balStr));
-        } catch (Exception e) { /* skip */ }
+    /**
+     * Build the response for a successful match using the pattern's precomputed extraction plan
+     * Package-private so the benchmark module can measure it directly
+     */
+    ExtractedFieldsResponse buildResponse(Matcher matcher, String sms, ExtractionPlan plan) {
+        return buildResponse(matcher, sms, plan, true);
+    }
 
-        // Extract reference number
-        try {
-            response.setReferenceNo(matcher.group("referenceNumber"));
-        } catch (Exception e) {
-            try {
-                response.setReferenceNo(matcher.group("refNo"));
-            } catch (Exception ex) { /* skip */ }
+    private ExtractedFieldsResponse buildResponse(Matcher matcher, String sms, ExtractionPlan plan, boolean record) {
+        long start = System.nanoTime();
+        ExtractedFieldsResponse response = ExtractedFieldsResponse.matched();
+        plan.apply(matcher, sms, response);
+        if (record) {
+            pipelineMetrics.recordExtraction(System.nanoTime() - start);
         }
-
         return response;
     }
 
@@ -244,124 +260,194 @@ public class RegexService {
      * Process multiple SMS messages in bulk
      * Returns results for all SMS - both matched and failed
      * Does NOT save failed patterns to DB (unlike findPattern)
+     * Large batches are fanned out over the bulk parse pool; results keep the request order
      */
     public BulkSmsResponse processBulkSms(BulkSmsRequest request) {
-        List<BulkSmsResponse.SmsResult> results = new ArrayList<>();
-        int successCount = 0;
-        int failedCount = 0;
-
-        for (int i = 0; i < request.getSmsList().size(); i++) {
-            BulkSmsRequest.SmsItem item = request.getSmsList().get(i);
-            String smsTitle = item.getSmsTitle();
-            String sms = item.getSms();
+        List<BulkSmsRequest.SmsItem> smsList = request.getSmsList();
+        pipelineMetrics.recordBulkBatch(smsList.size());
+        BulkSmsResponse.SmsResult[] results = new BulkSmsResponse.SmsResult[smsList.size()];
 
+        if (bulkParallelEnabled && smsList.size() >= bulkParallelThreshold) {
             try {
-                // Try to find matching pattern (without saving failed ones)
-                ExtractedFieldsResponse extracted = findPatternForBulk(sms, smsTitle);
-                
-                if (extracted.isMatched()) {
-                    results.add(BulkSmsResponse.SmsResult.success(i, smsTitle, sms, extracted));
-                    successCount++;
-                } else {
-                    results.add(BulkSmsResponse.SmsResult.failed(i, smsTitle, sms, extracted.getMessage()));
-                    failedCount++;
-                }
-            } catch (Exception e) {
-                results.add(BulkSmsResponse.SmsResult.failed(i, smsTitle, sms, "Error processing SMS: " + e.getMessage()));
-                failedCount++;
+                bulkParsePool.submit(() -> IntStream.range(0, smsList.size())
+                        .parallel()
+                        .forEach(i -> results[i] = parseBulkItem(i, smsList.get(i))))
+                        .get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Bulk parse interrupted", e);
+            } catch (ExecutionException e) {
+                throw new RuntimeException("Bulk parse failed: " + e.getCause().getMessage(), e.getCause());
+            }
+        } else {
+            for (int i = 0; i < smsList.size(); i++) {
+                results[i] = parseBulkItem(i, smsList.get(i));
+            }
+        }
+
+        int successCount = 0;
+        for (BulkSmsResponse.SmsResult result : results) {
+            if (result.isMatched()) {
+                successCount++;
             }
         }
 
         BulkSmsResponse response = new BulkSmsResponse();
-        response.setTotalCount(request.getSmsList().size());
+        response.setTotalCount(smsList.size());
         response.setSuccessCount(successCount);
-        response.setFailedCount(failedCount);
-        response.setResults(results);
+        response.setFailedCount(smsList.size() - successCount);
+        response.setResults(Arrays.asList(results));
 
         return response;
     }
 
+    /**
+     * Streaming variant of processBulkSms
+     * Reads newline-delimited { "smsTitle": "...", "sms": "..." } records and writes one
+     * SmsResult per line as soon as it is parsed, so memory stays flat for any input size
+     * A line that is not a JSON object, or longer than max-record-chars, becomes a failed result
+     * Returns the number of records processed
+     */
+    public int processBulkSmsStream(InputStream input, OutputStream output) throws IOException {
+        BoundedLineReader reader = new BoundedLineReader(new InputStreamReader(input, StandardCharsets.UTF_8), streamMaxRecordChars);
+        ObjectReader itemReader = objectMapper.readerFor(BulkSmsRequest.SmsItem.class);
+        ObjectWriter resultWriter = objectMapper.writerFor(BulkSmsResponse.SmsResult.class);
+
+        int index = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            BulkSmsResponse.SmsResult result;
+            if (reader.isTooLong()) {
+                result = BulkSmsResponse.SmsResult.failed(index, null, null,
+                        "Record longer than " + streamMaxRecordChars + " characters");
+            } else if (line.isBlank()) {
+                continue;
+            } else {
+                try {
+                    BulkSmsRequest.SmsItem item = itemReader.readValue(line);
+                    result = item != null
+                            ? parseBulkItem(index, item)
+                            : BulkSmsResponse.SmsResult.failed(index, null, null, "Invalid JSON record: null");
+                } catch (JsonProcessingException e) {
+                    result = BulkSmsResponse.SmsResult.failed(index, null, null, "Invalid JSON record: " + e.getOriginalMessage());
+                }
+            }
+
+            output.write(resultWriter.writeValueAsBytes(result));
+            output.write('\n');
+            index++;
+
+            // Push results out while the client is still uploading, without a flush per line
+            if (index % STREAM_FLUSH_INTERVAL == 0 || !reader.ready()) {
+                output.flush();
+            }
+        }
+        output.flush();
+        pipelineMetrics.recordBulkStream(index);
+        return index;
+    }
+
+    /**
+     * Parse one item of a bulk request into its result row
+     */
+    private BulkSmsResponse.SmsResult parseBulkItem(int index, BulkSmsRequest.SmsItem item) {
+        String smsTitle = null;
+        String sms = null;
+
+        try {
+            smsTitle = item.getSmsTitle();
+            sms = item.getSms();
+
+            // Try to find matching pattern (without saving failed ones)
+            ExtractedFieldsResponse extracted = findPatternForBulk(sms, smsTitle, true);
+
+            if (extracted.isMatched()) {
+                return BulkSmsResponse.SmsResult.success(index, smsTitle, sms, extracted);
+            }
+            return BulkSmsResponse.SmsResult.failed(index, smsTitle, sms, extracted.getMessage());
+        } catch (Exception e) {
+            return BulkSmsResponse.SmsResult.failed(index, smsTitle, sms, "Error processing SMS: " + e.getMessage());
+        }
+    }
+
     /**
      * Find pattern for bulk processing - does NOT save failed patterns
      * Similar to findPattern but without side effects
+     * With record false (the maker check) it records no parser or category metrics,
+     * and leaves the category unset for a merchant that is not known yet
      */
-    private ExtractedFieldsResponse findPatternForBulk(String sms, String smsTitle) {
+    private ExtractedFieldsResponse findPatternForBulk(String sms, String smsTitle, boolean record) {
         // Step 1: Find bank from smsTitle
-        List<Bank> allBanks = bankRepository.findAll();
-        Bank matchedBank = null;
-
-        String upperTitle = smsTitle.toUpperCase();
-        for (Bank bank : allBanks) {
-            if (upperTitle.contains(bank.getBankname().toUpperCase())) {
-                matchedBank = bank;
-                break;
-            }
-        }
+        Bank matchedBank = resolveBank(smsTitle, record);
 
         if (matchedBank == null) {
+            if (record) {
+                pipelineMetrics.recordUnmatched(null);
+            }
             return ExtractedFieldsResponse.notMatched("No bank found in SMS title: " + smsTitle);
         }
 
-        // Step 2: Get approved patterns for this bank only
-        List<Pattern> bankPatterns = patternRepository.findByBankIdAndStatus(matchedBank.getBankId(), "APPROVED");
+        // Step 2: Get approved patterns for this bank only (precompiled, from the registry)
+        PatternSnapshot snapshot = patternRegistry.current();
+        BankPatterns bankPatterns = snapshot.forBank(matchedBank.getBankId());
 
         if (bankPatterns.isEmpty()) {
+            if (record) {
+                pipelineMetrics.recordNoPatterns(matchedBank);
+            }
             return ExtractedFieldsResponse.notMatched("No approved patterns found for bank: " + matchedBank.getBankname());
         }
 
-        // Step 3: Try to match patterns
-        for (Pattern pattern : bankPatterns) {
-            try {
-                java.util.regex.Pattern regex = java.util.regex.Pattern.compile(
-                        pattern.getPattern(),
-                        java.util.regex.Pattern.CASE_INSENSITIVE
-                );
-                Matcher matcher = regex.matcher(sms);
-
-                if (matcher.find()) {
-                    ExtractedFieldsResponse response = buildResponse(matcher, pattern);
-                    response.setPatternId(pattern.getPatternId());
-                    response.setPattern(pattern.getPattern());
-                    
-                    // Set default values from pattern if not extracted
-                    if (response.getBankName() == null) {
-                        response.setBankName(pattern.getBankName() != null ? pattern.getBankName() : matchedBank.getBankname());
-                    }
-                    if (response.getMerchantName() == null && pattern.getMerchantName() != null) {
-                        response.setMerchantName(pattern.getMerchantName());
-                    }
-                    if (response.getTxType() == null && pattern.getTxType() != null) {
-                        response.setTxType(pattern.getTxType());
-                    }
-                    if (response.getMsgType() == null && pattern.getMsgType() != null) {
-                        response.setMsgType(pattern.getMsgType());
-                    }
-                    
-                    // Auto-detect category from merchant name
-                    if (response.getMerchantName() != null) {
-                        String autoCategory = merchantCategoryService.getCategoryForMerchant(response.getMerchantName());
-                        if (autoCategory != null) {
-                            response.setMsgSubtype(autoCategory);
-                        }
-                    }
-                    
-                    return response;
+        // Step 3: Route repeat templates to their last pattern, else try patterns whose literals all occur in the SMS
+        PatternMatch match = patternMatcher.match(snapshot, matchedBank.getBankId(), sms, !record);
+        if (match != null) {
+            CompiledPattern compiled = match.getPattern();
+            Pattern pattern = compiled.getSource();
+            Matcher matcher = match.getMatcher();
+            ExtractedFieldsResponse response = buildResponse(matcher, match.getInput(), compiled.getExtractionPlan(), record);
+            response.setPatternId(pattern.getPatternId());
+            response.setPattern(pattern.getPattern());
+            
+            // Set default values from pattern if not extracted
+            if (response.getBankName() == null) {
+                response.setBankName(pattern.getBankName() != null ? pattern.getBankName() : matchedBank.getBankname());
+            }
+            if (response.getMerchantName() == null && pattern.getMerchantName() != null) {
+                response.setMerchantName(pattern.getMerchantName());
+            }
+            if (response.getTxType() == null && pattern.getTxType() != null) {
+                response.setTxType(pattern.getTxType());
+            }
+            if (response.getMsgType() == null && pattern.getMsgType() != null) {
+                response.setMsgType(pattern.getMsgType());
+            }
+            
+            // Auto-detect category from merchant name
+            if (response.getMerchantName() != null) {
+                String autoCategory = merchantCategoryService.getCategoryForMerchant(response.getMerchantName(), record);
+                if (autoCategory != null) {
+                    response.setMsgSubtype(autoCategory);
                 }
-            } catch (Exception e) {
-                // Skip invalid patterns
-                continue;
             }
+            
+            if (record) {
+                pipelineMetrics.recordMatched(matchedBank);
+            }
+            return response;
         }
 
+        if (record) {
+            pipelineMetrics.recordUnmatched(matchedBank);
+        }
         return ExtractedFieldsResponse.notMatched("No matching pattern found for SMS from bank: " + matchedBank.getBankname());
     }
 
     /**
      * Check if an approved pattern already exists for the given SMS
      * Used by Maker to verify before creating new patterns
-     * Does NOT save failed patterns to DB
+     * Does NOT save failed patterns to DB, and is not counted as parsed traffic
      */
     public ExtractedFieldsResponse checkPatternExists(String sms, String smsTitle) {
-        return findPatternForBulk(sms, smsTitle);
+        return findPatternForBulk(sms, smsTitle, false);
     }
 }
@@ -1,83 +1,355 @@
 package com.bankingparser.service;
 
+import com.bankingparser.dto.BulkSaveTransactionResponse;
 import com.bankingparser.dto.SaveTransactionRequest;
+import com.bankingparser.dto.TransactionPageRequest;
+import com.bankingparser.dto.TransactionPageResponse;
+import com.bankingparser.dto.TransactionSummary;
 import com.bankingparser.model.Transaction;
 import com.bankingparser.repository.TransactionRepository;
+import com.bankingparser.util.DateShape;
+import com.bankingparser.util.MinorUnits;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.List;
-import java.util.Locale;
 
 @Service
 public class TransactionService {
 
+    // Transaction uses IDENTITY ids, which rules out Hibernate insert batching; bulk saves use this instead
+    private static final String INSERT =
+            "INSERT INTO transaction_table (user_id, msg, bank_name, merchant_name, amount, account_number, " +
+            "tx_type, msg_type, msg_subtype, date, reference_no, available_balance) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // History columns without msg (TEXT), which can be most of a row
+    private static final String SUMMARY_COLUMNS =
+            "tx_id, bank_name, merchant_name, amount, account_number, tx_type, msg_type, msg_subtype, " +
+            "date, reference_no, available_balance";
+
     @Autowired
     private TransactionRepository transactionRepository;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${transaction.bulk.batch-size:500}")
+    private int bulkBatchSize;
+
+    @Value("${transaction.page.default-size:50}")
+    private int pageDefaultSize;
+
+    @Value("${transaction.page.max-size:200}")
+    private int pageMaxSize;
+
     public List<Transaction> getTransactionsByUserId(Integer userId) {
         return transactionRepository.findByUserId(userId);
     }
 
+    /**
+     * One page of a user's history, newest first (date descending, then tx_id descending;
+     * undated transactions come last, newest tx_id first), with the optional filters applied.
+     *
+     * Keyset pagination: the cursor holds the (date, tx_id) of the last row returned and
+     * the next page starts strictly after it, so every page is an index range read of
+     * limit + 1 rows however deep the user has paged, and rows saved meanwhile do not shift
+     * the pages. Dated rows are read with a row-value comparison on (date, tx_id); undated
+     * rows are paged separately by tx_id once the dated ones run out. Amounts are filtered
+     * in rupees against the decimal column.
+     */
+    public TransactionPageResponse getTransactionPage(Integer userId, TransactionPageRequest request) {
+        int limit = request.getLimit() != null ? request.getLimit() : pageDefaultSize;
+        if (limit < 1 || limit > pageMaxSize) {
+            throw new IllegalArgumentException("limit must be between 1 and " + pageMaxSize);
+        }
+        boolean includeMsg = request.isIncludeMsg();
+
+        StringBuilder filters = new StringBuilder(" FROM transaction_table WHERE user_id = ?");
+        List<Object> args = new ArrayList<>();
+        args.add(userId);
+
+        boolean dateFiltered = false;
+        if (request.getFromDate() != null && !request.getFromDate().isEmpty()) {
+            filters.append(" AND date >= ?");
+            args.add(LocalDate.parse(request.getFromDate()));
+            dateFiltered = true;
+        }
+        if (request.getToDate() != null && !request.getToDate().isEmpty()) {
+            filters.append(" AND date <= ?");
+            args.add(LocalDate.parse(request.getToDate()));
+            dateFiltered = true;
+        }
+        if (request.getBank() != null && !request.getBank().isEmpty()) {
+            filters.append(" AND bank_name = ?");
+            args.add(request.getBank());
+        }
+        if (request.getMsgSubtype() != null && !request.getMsgSubtype().isEmpty()) {
+            filters.append(" AND msg_subtype = ?");
+            args.add(request.getMsgSubtype());
+        }
+        if (request.getTxType() != null && !request.getTxType().isEmpty()) {
+            filters.append(" AND tx_type = ?");
+            args.add(request.getTxType());
+        }
+        if (request.getMinAmount() != null) {
+            filters.append(" AND amount >= ?");
+            args.add(request.getMinAmount());
+        }
+        if (request.getMaxAmount() != null) {
+            filters.append(" AND amount <= ?");
+            args.add(request.getMaxAmount());
+        }
+
+        Object[] position = request.getCursor() != null && !request.getCursor().isEmpty()
+                ? decodeCursor(request.getCursor()) : null;
+        // A cursor on an undated row means every dated row has been returned already
+        boolean pastDated = position != null && position[0] == null;
+
+        List<TransactionSummary> rows = new ArrayList<>();
+        if (!pastDated) {
+            StringBuilder sql = new StringBuilder(select(includeMsg)).append(filters).append(" AND date IS NOT NULL");
+            List<Object> datedArgs = new ArrayList<>(args);
+            if (position != null) {
+                sql.append(" AND (date, tx_id) < (?, ?)");
+                datedArgs.add(position[0]);
+                datedArgs.add(position[1]);
+            }
+            sql.append(" ORDER BY date DESC, tx_id DESC LIMIT ?");
+            datedArgs.add(limit + 1);
+            rows.addAll(jdbcTemplate.query(sql.toString(),
+                    (rs, rowNum) -> toSummary(rs, includeMsg), datedArgs.toArray()));
+        }
+        // A date range never matches an undated row
+        if (rows.size() <= limit && !dateFiltered) {
+            StringBuilder sql = new StringBuilder(select(includeMsg)).append(filters).append(" AND date IS NULL");
+            List<Object> undatedArgs = new ArrayList<>(args);
+            if (pastDated) {
+                sql.append(" AND tx_id < ?");
+                undatedArgs.add(position[1]);
+            }
+            sql.append(" ORDER BY tx_id DESC LIMIT ?");
+            undatedArgs.add(limit + 1 - rows.size());
+            rows.addAll(jdbcTemplate.query(sql.toString(),
+                    (rs, rowNum) -> toSummary(rs, includeMsg), undatedArgs.toArray()));
+        }
+
+        boolean hasMore = rows.size() > limit;
+        List<TransactionSummary> page = hasMore ? rows.subList(0, limit) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            TransactionSummary last = page.get(page.size() - 1);
+            nextCursor = encodeCursor(last.getDate(), last.getTxId());
+        }
+        return new TransactionPageResponse(new ArrayList<>(page), hasMore, nextCursor);
+    }
+
+    private static String select(boolean includeMsg) {
+        return "SELECT " + SUMMARY_COLUMNS + (includeMsg ? ", msg" : "");
+    }
+
+    private static TransactionSummary toSummary(ResultSet rs, boolean includeMsg) throws SQLException {
+        TransactionSummary summary = new TransactionSummary();
+        summary.setTxId(rs.getInt("tx_id"));
+        summary.setBankName(rs.getString("bank_name"));
+        summary.setMerchantName(rs.getString("merchant_name"));
+        summary.setAmountPaise(MinorUnits.fromDecimal(rs.getBigDecimal("amount")));
+        summary.setAccountNumber(rs.getString("account_number"));
+        summary.setTxType(rs.getString("tx_type"));
+        summary.setMsgType(rs.getString("msg_type"));
+        summary.setMsgSubtype(rs.getString("msg_subtype"));
+        summary.setDate(rs.getObject("date", LocalDate.class));
+        summary.setReferenceNo(rs.getString("reference_no"));
+        summary.setAvailableBalancePaise(MinorUnits.fromDecimal(rs.getBigDecimal("available_balance")));
+        if (includeMsg) {
+            summary.setMsg(rs.getString("msg"));
+        }
+        return summary;
+    }
+
+    /**
+     * Opaque page cursor: "date:txId" (empty date for an undated row), base64url-encoded
+     */
+    private static String encodeCursor(LocalDate date, Integer txId) {
+        String position = (date != null ? date.toString() : "") + ":" + txId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * {date or null, txId} of a cursor from encodeCursor
+     */
+    private static Object[] decodeCursor(String cursor) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int colon = position.indexOf(':');
+            LocalDate date = colon > 0 ? LocalDate.parse(position.substring(0, colon)) : null;
+            return new Object[] { date, Integer.parseInt(position.substring(colon + 1)) };
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
     /**
      * Save a new transaction for a user
      */
     public Transaction saveTransaction(Integer userId, SaveTransactionRequest request) {
+        return transactionRepository.save(toTransaction(userId, request));
+    }
+
+    /**
+     * Save many transactions for a user with JDBC batch inserts, bulk-batch-size rows per
+     * statement batch (multi-row INSERTs with rewriteBatchedStatements)
+     * Each item succeeds or fails on its own: a batch that fails is rolled back and its
+     * rows retried one by one, so only the offending rows are reported as failed
+     */
+    public BulkSaveTransactionResponse saveTransactions(Integer userId, List<SaveTransactionRequest> requests) {
+        BulkSaveTransactionResponse.ItemResult[] results = new BulkSaveTransactionResponse.ItemResult[requests.size()];
+        List<Integer> indexes = new ArrayList<>();
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            SaveTransactionRequest request = requests.get(i);
+            if (request == null || request.getMsg() == null || request.getMsg().isEmpty()) {
+                results[i] = BulkSaveTransactionResponse.ItemResult.failed(i, "Error saving transaction: msg is required");
+                continue;
+            }
+            try {
+                transactions.add(toTransaction(userId, request));
+                indexes.add(i);
+            } catch (Exception e) {
+                results[i] = BulkSaveTransactionResponse.ItemResult.failed(i, "Error saving transaction: " + e.getMessage());
+            }
+        }
+
+        int batchSize = Math.max(1, bulkBatchSize);
+        for (int from = 0; from < transactions.size(); from += batchSize) {
+            int to = Math.min(from + batchSize, transactions.size());
+            insertBatch(transactions.subList(from, to), indexes.subList(from, to), results);
+        }
+
+        int successCount = 0;
+        for (BulkSaveTransactionResponse.ItemResult result : results) {
+            if (result.isSaved()) {
+                successCount++;
+            }
+        }
+        BulkSaveTransactionResponse response = new BulkSaveTransactionResponse();
+        response.setTotalCount(requests.size());
+        response.setSuccessCount(successCount);
+        response.setFailedCount(requests.size() - successCount);
+        response.setResults(Arrays.asList(results));
+        return response;
+    }
+
+    private void insertBatch(List<Transaction> batch, List<Integer> indexes,
+                             BulkSaveTransactionResponse.ItemResult[] results) {
+        try {
+            Integer[] ids = jdbcTemplate.execute((ConnectionCallback<Integer[]>) connection -> insertAtomically(connection, batch));
+            for (int k = 0; k < batch.size(); k++) {
+                results[indexes.get(k)] = BulkSaveTransactionResponse.ItemResult.success(indexes.get(k), ids[k]);
+            }
+        } catch (Exception batchError) {
+            // Nothing of the batch was kept; find the bad rows by inserting one at a time
+            for (int k = 0; k < batch.size(); k++) {
+                int index = indexes.get(k);
+                List<Transaction> single = List.of(batch.get(k));
+                try {
+                    Integer[] ids = jdbcTemplate.execute((ConnectionCallback<Integer[]>) connection -> insertAtomically(connection, single));
+                    results[index] = BulkSaveTransactionResponse.ItemResult.success(index, ids[0]);
+                } catch (Exception e) {
+                    results[index] = BulkSaveTransactionResponse.ItemResult.failed(index,
+                            "Error saving transaction: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Insert all rows in one local transaction and return their generated ids, in order
+     */
+    private static Integer[] insertAtomically(Connection connection, List<Transaction> batch) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (PreparedStatement statement = connection.prepareStatement(INSERT, Statement.RETURN_GENERATED_KEYS)) {
+            for (Transaction transaction : batch) {
+                bind(statement, transaction);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+            Integer[] ids = new Integer[batch.size()];
+            try (ResultSet keys = statement.getGeneratedKeys()) {
+                for (int k = 0; k < ids.length && keys.next(); k++) {
+                    ids[k] = keys.getInt(1);
+                }
+            }
+            connection.commit();
+            return ids;
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private static void bind(PreparedStatement statement, Transaction transaction) throws SQLException {
+        statement.setInt(1, transaction.getUserId());
+        statement.setString(2, transaction.getMsg());
+        statement.setString(3, transaction.getBankName());
+        statement.setString(4, transaction.getMerchantName());
+        statement.setBigDecimal(5, MinorUnits.toDecimal(transaction.getAmountPaise()));
+        statement.setString(6, transaction.getAccountNumber());
+        statement.setString(7, transaction.getTxType());
+        statement.setString(8, transaction.getMsgType());
+        statement.setString(9, transaction.getMsgSubtype());
+        if (transaction.getDate() != null) {
+            statement.setObject(10, transaction.getDate(), Types.DATE);
+        } else {
+            statement.setNull(10, Types.DATE);
+        }
+        statement.setString(11, transaction.getReferenceNo());
+        statement.setBigDecimal(12, MinorUnits.toDecimal(transaction.getAvailableBalancePaise()));
+    }
+
+    private Transaction toTransaction(Integer userId, SaveTransactionRequest request) {
         Transaction transaction = new Transaction();
         transaction.setUserId(userId);
         transaction.setMsg(request.getMsg());
         transaction.setBankName(request.getBankName());
         transaction.setMerchantName(request.getMerchantName());
-        transaction.setAmount(request.getAmount());
+        transaction.setAmountPaise(MinorUnits.fromDecimal(request.getAmount()));
         transaction.setAccountNumber(request.getAccountNumber());
         transaction.setTxType(request.getTxType());
         transaction.setMsgType(request.getMsgType());
         transaction.setMsgSubtype(request.getMsgSubtype());
         transaction.setReferenceNo(request.getReferenceNo());
-        transaction.setAvailableBalance(request.getAvailableBalance());
+        transaction.setAvailableBalancePaise(MinorUnits.fromDecimal(request.getAvailableBalance()));
         
         // Parse date string to LocalDate
         if (request.getDate() != null && !request.getDate().isEmpty()) {
             transaction.setDate(parseDate(request.getDate()));
         }
-        
-        return transactionRepository.save(transaction);
+        return transaction;
     }
 
     /**
-     * Parse various date formats from SMS
+     * Parse a date in any layout banks send (see DateShape), or null
+     * Package-private so the benchmark module can measure it directly
      */
-    private LocalDate parseDate(String dateStr) {
-        // Try different date formats
-        String[] patterns = {
-            "d-MMM-yy",      // 10-Jan-26
-            "d-MMM-yyyy",    // 10-Jan-2026
-            "dd-MMM-yy",     // 10-Jan-26
-            "dd-MMM-yyyy",   // 10-Jan-2026
-            "dMMMyy",        // 14Jan26
-            "ddMMMyy",       // 14Jan26
-            "dMMMyyyy",      // 14Jan2026
-            "ddMMMyyyy",     // 14Jan2026
-            "yyyy-MM-dd",    // 2026-01-10
-            "dd/MM/yyyy",    // 10/01/2026
-            "dd/MM/yy",      // 10/01/26
-            "d/M/yyyy",      // 1/1/2026
-            "d/M/yy"         // 1/1/26
-        };
-        
-        for (String pattern : patterns) {
-            try {
-                DateTimeFormatter formatter = DateTimeFormatter.ofPattern(pattern, Locale.ENGLISH);
-                return LocalDate.parse(dateStr, formatter);
-            } catch (DateTimeParseException e) {
-                // Try next pattern
-            }
-        }
-        
-        // If no pattern matches, return null
-        return null;
+    LocalDate parseDate(String dateStr) {
+        return DateShape.parseAny(dateStr);
     }
 }
@@ -0,0 +1,156 @@
+package com.bankingparser.service;
+
+import com.bankingparser.metrics.PipelineMetrics;
+import com.bankingparser.model.Bank;
+import com.bankingparser.model.Pattern;
+import com.bankingparser.parser.BankPatterns;
+import com.bankingparser.parser.BankResolver;
+import com.bankingparser.parser.CompiledPattern;
+import com.bankingparser.parser.PatternRegistry;
+import com.bankingparser.security.JwtUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Startup warm-up, run before the instance reports ready.
+ *
+ * Banks, approved patterns and the merchant index are already loaded by their owners;
+ * this exercises the JWT signer and replays every approved pattern's stored
+ * sample (sample_ex) through findPattern in rounds until the JIT settles: a round in
+ * which JIT compilation took only a small share of the round's time, or the time or
+ * round limit is hit. Replays never save FAILED patterns or call the LLM, and record no
+ * parser or merchant-category metrics; a replay that exceeds the match budget (likely while the JIT is cold) is
+ * only counted under parser.match.budget.trips{source=replay}, never toward quarantine. Pattern hit counters are reset afterwards
+ * so warm-up traffic does not skew the hit statistics.
+ *
+ * Spring Boot only moves the readiness state to ACCEPTING_TRAFFIC after all
+ * ApplicationRunners return, so /actuator/health/readiness (on the management port) stays OUT_OF_SERVICE
+ * (and the load balancer keeps traffic away) until warm-up completes.
+ */
+@Service
+public class WarmupService implements ApplicationRunner {
+
+    // Enough calls per round for a round to be measurable even with few patterns
+    private static final int MIN_CALLS_PER_ROUND = 2_000;
+    private static final int MIN_ROUNDS = 3;
+    private static final int TOKEN_CALLS_PER_ROUND = 200;
+
+    // A round counts as settled when JIT compilation took at most this share of it
+    private static final double JIT_SETTLED_RATIO = 0.05;
+
+    @Autowired
+    private RegexService regexService;
+
+    @Autowired
+    private PatternRegistry patternRegistry;
+
+    @Autowired
+    private BankResolver bankResolver;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private PipelineMetrics pipelineMetrics;
+
+    @Value("${warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${warmup.max-duration-ms:30000}")
+    private long maxDurationMillis;
+
+    @Value("${warmup.max-rounds:20}")
+    private int maxRounds;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            warmUp();
+        } catch (Exception e) {
+            // A failed warm-up only costs latency; never keep the instance from starting
+            System.err.println("Warm-up failed: " + e.getMessage());
+        }
+    }
+
+    private void warmUp() {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(maxDurationMillis);
+
+        List<String[]> samples = samples();
+
+        CompilationMXBean jit = ManagementFactory.getCompilationMXBean();
+        boolean jitTimed = jit != null && jit.isCompilationTimeMonitoringSupported();
+
+        int rounds = 0;
+        boolean settled = false;
+        while (rounds < maxRounds && System.nanoTime() < deadline) {
+            long jitBefore = jitTimed ? jit.getTotalCompilationTime() : 0;
+            long roundStart = System.nanoTime();
+
+            replay(samples, deadline);
+            rounds++;
+
+            long roundMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - roundStart);
+            if (rounds >= MIN_ROUNDS) {
+                long jitMillis = jitTimed ? jit.getTotalCompilationTime() - jitBefore : 0;
+                if (jitMillis <= roundMillis * JIT_SETTLED_RATIO) {
+                    settled = true;
+                    break;
+                }
+            }
+        }
+
+        patternRegistry.resetStats();
+        pipelineMetrics.recordWarmup(System.nanoTime() - start, rounds, settled);
+    }
+
+    private void replay(List<String[]> samples, long deadline) {
+        if (!samples.isEmpty()) {
+            int calls = Math.max(samples.size(), MIN_CALLS_PER_ROUND);
+            for (int i = 0; i < calls && System.nanoTime() < deadline; i++) {
+                String[] sample = samples.get(i % samples.size());
+                regexService.findPattern(sample[1], sample[0], true);
+            }
+        }
+        for (int i = 0; i < TOKEN_CALLS_PER_ROUND; i++) {
+            jwtUtil.extractUsername(jwtUtil.generateToken(0, "warmup", "USER"));
+        }
+    }
+
+    /**
+     * (smsTitle, sms) for every approved pattern with a stored sample.
+     * The stored title is used if it resolves to the pattern's bank, else the bank name.
+     */
+    private List<String[]> samples() {
+        List<String[]> samples = new ArrayList<>();
+        for (BankPatterns bankPatterns : patternRegistry.current().getPatternsByBank().values()) {
+            for (CompiledPattern compiled : bankPatterns.getPatterns()) {
+                Pattern pattern = compiled.getSource();
+                if (pattern.getSample() == null || pattern.getSample().isBlank()) {
+                    continue;
+                }
+                String title = pattern.getSmsTitle();
+                Bank bank = bankResolver.resolve(title);
+                if (bank == null || !compiled.getBankId().equals(bank.getBankId())) {
+                    title = pattern.getBankName();
+                }
+                if (title != null) {
+                    samples.add(new String[]{title, pattern.getSample()});
+                }
+            }
+        }
+        return samples;
+    }
+}
@@ -0,0 +1,322 @@
+package com.bankingparser.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Case-insensitive Aho-Corasick automaton over a fixed dictionary.
+ *
+ * Finds every dictionary key occurring in a text in a single left-to-right pass.
+ * The automaton is immutable once built and safe to share between threads;
+ * to change the dictionary, build a new one and swap it in.
+ *
+ * Transitions are kept in one open-addressing table keyed by (node, char)
+ * so that large dictionaries do not pay for a map object per node.
+ */
+public final class AhoCorasick<T> {
+
+    /**
+     * Callback for each match; return false to stop the search early
+     */
+    @FunctionalInterface
+    public interface MatchHandler<T> {
+        boolean onMatch(int start, int end, T value);
+    }
+
+    private final EdgeTable edges;
+    private final int[] fail;
+    private final int[] output;      // node that ends a key reachable via fail links, or -1
+    private final int[] valueIndex;  // index into values if a key ends at this node, else -1
+    private final int[] depth;
+    private final List<T> values;
+
+    private AhoCorasick(EdgeTable edges, int[] fail, int[] output, int[] valueIndex, int[] depth, List<T> values) {
+        this.edges = edges;
+        this.fail = fail;
+        this.output = output;
+        this.valueIndex = valueIndex;
+        this.depth = depth;
+        this.values = values;
+    }
+
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * Number of distinct keys in the dictionary
+     */
+    public int size() {
+        return values.size();
+    }
+
+    /**
+     * Report every key occurrence in the text, in order of end position
+     */
+    public void search(CharSequence text, MatchHandler<T> handler) {
+        if (text == null || values.isEmpty()) {
+            return;
+        }
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            state = step(state, fold(text.charAt(i)));
+            int node = valueIndex[state] >= 0 ? state : output[state];
+            while (node >= 0) {
+                if (!handler.onMatch(i + 1 - depth[node], i + 1, values.get(valueIndex[node]))) {
+                    return;
+                }
+                node = output[node];
+            }
+        }
+    }
+
+    /**
+     * Value of the longest key occurring in the text.
+     * Ties between equally long keys go to the one that starts first.
+     */
+    public T longestMatch(CharSequence text) {
+        Object[] best = new Object[1];
+        int[] bestPos = {-1, 0}; // start, length
+        search(text, (start, end, value) -> {
+            int length = end - start;
+            if (length > bestPos[1] || (length == bestPos[1] && start < bestPos[0])) {
+                bestPos[0] = start;
+                bestPos[1] = length;
+                best[0] = value;
+            }
+            return true;
+        });
+        @SuppressWarnings("unchecked")
+        T result = (T) best[0];
+        return result;
+    }
+
+    /**
+     * True if any key occurs in the text
+     */
+    public boolean containsAny(CharSequence text) {
+        boolean[] found = {false};
+        search(text, (start, end, value) -> {
+            found[0] = true;
+            return false;
+        });
+        return found[0];
+    }
+
+    private int step(int state, char c) {
+        while (true) {
+            int next = edges.get(state, c);
+            if (next >= 0) {
+                return next;
+            }
+            if (state == 0) {
+                return 0;
+            }
+            state = fail[state];
+        }
+    }
+
+    /**
+     * Key as the automaton sees it; keys that fold to the same string are one key
+     */
+    public static String fold(CharSequence key) {
+        StringBuilder folded = new StringBuilder(key.length());
+        for (int i = 0; i < key.length(); i++) {
+            folded.append(fold(key.charAt(i)));
+        }
+        return folded.toString();
+    }
+
+    static char fold(char c) {
+        if (c < 128) {
+            return (c >= 'a' && c <= 'z') ? (char) (c - 32) : c;
+        }
+        return Character.toUpperCase(c);
+    }
+
+    public static final class Builder<T> {
+
+        private final EdgeTable edges = new EdgeTable(64);
+        private int[] valueIndex = new int[16];
+        private int[] depth = new int[16];
+        // first-child / next-sibling lists, only needed to walk the trie breadth-first
+        private int[] firstChild = new int[16];
+        private int[] nextSibling = new int[16];
+        private char[] label = new char[16];
+        private int nodeCount = 1;
+        private final List<T> values = new ArrayList<>();
+
+        private Builder() {
+            valueIndex[0] = -1;
+            firstChild[0] = -1;
+            nextSibling[0] = -1;
+        }
+
+        /**
+         * Add a key; empty keys are ignored and the first value added for a key wins
+         */
+        public Builder<T> add(CharSequence key, T value) {
+            if (key == null || key.length() == 0) {
+                return this;
+            }
+            int node = 0;
+            for (int i = 0; i < key.length(); i++) {
+                char c = fold(key.charAt(i));
+                int next = edges.get(node, c);
+                if (next < 0) {
+                    next = newNode(node, c);
+                }
+                node = next;
+            }
+            if (valueIndex[node] < 0) {
+                valueIndex[node] = values.size();
+                values.add(value);
+            }
+            return this;
+        }
+
+        private int newNode(int parent, char c) {
+            if (nodeCount == valueIndex.length) {
+                int capacity = nodeCount * 2;
+                valueIndex = Arrays.copyOf(valueIndex, capacity);
+                depth = Arrays.copyOf(depth, capacity);
+                firstChild = Arrays.copyOf(firstChild, capacity);
+                nextSibling = Arrays.copyOf(nextSibling, capacity);
+                label = Arrays.copyOf(label, capacity);
+            }
+            int node = nodeCount++;
+            valueIndex[node] = -1;
+            depth[node] = depth[parent] + 1;
+            firstChild[node] = -1;
+            nextSibling[node] = firstChild[parent];
+            firstChild[parent] = node;
+            label[node] = c;
+            edges.put(parent, c, node);
+            return node;
+        }
+
+        public AhoCorasick<T> build() {
+            int[] fail = new int[nodeCount];
+            int[] output = new int[nodeCount];
+            output[0] = -1;
+
+            int[] queue = new int[nodeCount];
+            int head = 0;
+            int tail = 0;
+            for (int child = firstChild[0]; child >= 0; child = nextSibling[child]) {
+                fail[child] = 0;
+                output[child] = -1;
+                queue[tail++] = child;
+            }
+            while (head < tail) {
+                int node = queue[head++];
+                for (int child = firstChild[node]; child >= 0; child = nextSibling[child]) {
+                    char c = label[child];
+                    int f = fail[node];
+                    int target;
+                    while ((target = edges.get(f, c)) < 0 && f != 0) {
+                        f = fail[f];
+                    }
+                    fail[child] = target >= 0 ? target : 0;
+                    int suffix = fail[child];
+                    output[child] = valueIndex[suffix] >= 0 ? suffix : output[suffix];
+                    queue[tail++] = child;
+                }
+            }
+
+            edges.trim();
+            return new AhoCorasick<>(edges, fail, output,
+                    Arrays.copyOf(valueIndex, nodeCount), Arrays.copyOf(depth, nodeCount),
+                    List.copyOf(values));
+        }
+    }
+
+    /**
+     * Open-addressing map from (node, char) to child node
+     */
+    private static final class EdgeTable {
+
+        private long[] keys;
+        private int[] targets;
+        private int size;
+
+        EdgeTable(int capacity) {
+            allocate(capacity);
+        }
+
+        private void allocate(int capacity) {
+            keys = new long[capacity];
+            targets = new int[capacity];
+            Arrays.fill(keys, -1L);
+        }
+
+        private static long key(int node, char c) {
+            return ((long) node << 16) | c;
+        }
+
+        private static int slot(long key, int mask) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            // Fold the well-mixed high half into the low bits, so every table size gets a full-width slot
+            return (int) (h ^ (h >>> 32)) & mask;
+        }
+
+        int get(int node, char c) {
+            long key = key(node, c);
+            int mask = keys.length - 1;
+            int i = slot(key, mask);
+            while (true) {
+                long k = keys[i];
+                if (k == key) {
+                    return targets[i];
+                }
+                if (k == -1L) {
+                    return -1;
+                }
+                i = (i + 1) & mask;
+            }
+        }
+
+        void put(int node, char c, int target) {
+            if ((size + 1) * 4 > keys.length * 3) {
+                rehash(keys.length * 2);
+            }
+            insert(key(node, c), target);
+            size++;
+        }
+
+        private void insert(long key, int target) {
+            int mask = keys.length - 1;
+            int i = slot(key, mask);
+            while (keys[i] != -1L) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            targets[i] = target;
+        }
+
+        private void rehash(int capacity) {
+            long[] oldKeys = keys;
+            int[] oldTargets = targets;
+            allocate(capacity);
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != -1L) {
+                    insert(oldKeys[i], oldTargets[i]);
+                }
+            }
+        }
+
+        /**
+         * Shrink to the smallest power of two that keeps the load factor under 3/4
+         */
+        void trim() {
+            int capacity = 16;
+            while (size * 4 > capacity * 3) {
+                capacity *= 2;
+            }
+            if (capacity < keys.length) {
+                rehash(capacity);
+            }
+        }
+    }
+}
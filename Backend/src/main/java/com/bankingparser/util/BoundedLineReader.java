@@ -0,0 +1,96 @@
+package com.bankingparser.util;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reads text line by line without ever buffering more than maxChars of one line.
+ *
+ * Unlike BufferedReader.readLine, a line of any length costs bounded memory: past
+ * maxChars the rest of the line is read and thrown away, and {@link #isTooLong} reports
+ * it. Lines end at '\n' or "\r\n"; the terminator is not returned.
+ */
+public final class BoundedLineReader {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Reader in;
+    private final int maxChars;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private final StringBuilder line = new StringBuilder();
+    private int position;
+    private int limit;
+    private boolean tooLong;
+
+    public BoundedLineReader(Reader in, int maxChars) {
+        this.in = in;
+        this.maxChars = Math.max(1, maxChars);
+    }
+
+    /**
+     * The next line, or null at the end of input. If the line was longer than maxChars,
+     * only its first maxChars characters are returned and {@link #isTooLong} is true.
+     */
+    public String readLine() throws IOException {
+        line.setLength(0);
+        tooLong = false;
+        boolean any = false;
+        while (true) {
+            if (position == limit) {
+                limit = in.read(buffer, 0, BUFFER_SIZE);
+                position = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    return any ? finish() : null;
+                }
+            }
+            any = true;
+            int start = position;
+            while (position < limit && buffer[position] != '\n') {
+                position++;
+            }
+            append(start, position);
+            if (position < limit) {
+                // Skip the '\n'
+                position++;
+                return finish();
+            }
+        }
+    }
+
+    /**
+     * Whether the last line returned was cut at maxChars
+     */
+    public boolean isTooLong() {
+        return tooLong;
+    }
+
+    /**
+     * Whether a line can be read without blocking (some input is already buffered)
+     */
+    public boolean ready() throws IOException {
+        return position < limit || in.ready();
+    }
+
+    private void append(int start, int end) {
+        // One char of slack for a '\r' that belongs to the terminator
+        int room = maxChars + 1 - line.length();
+        if (end - start > room) {
+            tooLong = true;
+            end = start + room;
+        }
+        line.append(buffer, start, end - start);
+    }
+
+    private String finish() {
+        int length = line.length();
+        if (!tooLong && length > 0 && line.charAt(length - 1) == '\r') {
+            length--;
+        }
+        if (length > maxChars) {
+            tooLong = true;
+            length = maxChars;
+        }
+        return line.substring(0, length);
+    }
+}
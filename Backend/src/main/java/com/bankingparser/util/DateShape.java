@@ -0,0 +1,212 @@
+package com.bankingparser.util;
+
+import java.time.LocalDate;
+
+/**
+ * The date layouts banks use in SMS, decoded without DateTimeFormatter or exceptions.
+ *
+ * {@link #classify} looks at the first separator to pick the one layout a date can have,
+ * and {@link #parse} decodes it in a single pass. Resolution follows what the previous
+ * DateTimeFormatter list accepted: two-digit years are 20yy, and a day past the end of
+ * the month (31-Feb) is moved to the month's last day. Month names are matched
+ * case-insensitively, so "10-JAN-26" is accepted as well.
+ */
+public enum DateShape {
+
+    /**
+     * 10-Jan-26, 10-Jan-2026
+     */
+    DAY_MONTH_NAME_DASHED,
+
+    /**
+     * 14Jan26, 14Jan2026
+     */
+    DAY_MONTH_NAME,
+
+    /**
+     * 2026-01-10
+     */
+    ISO,
+
+    /**
+     * 10/01/2026, 10/01/26, 1/1/26 (day first)
+     */
+    DAY_MONTH_SLASHED;
+
+    private static final String MONTHS = "JANFEBMARAPRMAYJUNJULAUGSEPOCTNOVDEC";
+
+    // Day and month fields (d, M) take any width, as DateTimeFormatter did: "010-Jan-26" is the 10th
+    private static final int MAX_FIELD_DIGITS = 9;
+
+    /**
+     * Parse a whole string in whatever layout it has, or null
+     */
+    public static LocalDate parseAny(CharSequence text) {
+        if (text == null) {
+            return null;
+        }
+        DateShape shape = classify(text, 0, text.length());
+        return shape != null ? shape.parse(text, 0, text.length()) : null;
+    }
+
+    /**
+     * The only layout text[start, end) can be in, judged by its leading digits and the
+     * character after them, or null if it fits none
+     */
+    public static DateShape classify(CharSequence text, int start, int end) {
+        int digits = digitsAt(text, start, end);
+        if (start + digits >= end) {
+            return null;
+        }
+        int separator = start + digits;
+        char next = text.charAt(separator);
+        if (digits == 0) {
+            return null;
+        }
+        if (next == '-') {
+            boolean digitFollows = separator + 1 < end && isDigit(text.charAt(separator + 1));
+            return digits == 4 && digitFollows ? ISO : DAY_MONTH_NAME_DASHED;
+        }
+        if (next == '/') {
+            return DAY_MONTH_SLASHED;
+        }
+        return isLetter(next) ? DAY_MONTH_NAME : null;
+    }
+
+    /**
+     * Decode text[start, end) in this layout, or null if it is not in this layout or not a valid date
+     */
+    public LocalDate parse(CharSequence text, int start, int end) {
+        Fields fields = new Fields(text, start, end);
+        int year;
+        int month;
+        int day;
+        switch (this) {
+            case DAY_MONTH_NAME_DASHED:
+                day = fields.number(1, MAX_FIELD_DIGITS);
+                fields.expect('-');
+                month = fields.monthName();
+                fields.expect('-');
+                year = fields.year();
+                break;
+            case DAY_MONTH_NAME:
+                day = fields.number(1, MAX_FIELD_DIGITS);
+                month = fields.monthName();
+                year = fields.year();
+                break;
+            case ISO:
+                year = fields.number(4, 4);
+                fields.expect('-');
+                month = fields.number(2, 2);
+                fields.expect('-');
+                day = fields.number(2, 2);
+                break;
+            default:
+                day = fields.number(1, MAX_FIELD_DIGITS);
+                fields.expect('/');
+                month = fields.number(1, MAX_FIELD_DIGITS);
+                fields.expect('/');
+                year = fields.year();
+                break;
+        }
+        if (!fields.complete() || year < 1 || month < 1 || month > 12 || day < 1 || day > 31) {
+            return null;
+        }
+        LocalDate first = LocalDate.of(year, month, 1);
+        return first.withDayOfMonth(Math.min(day, first.lengthOfMonth()));
+    }
+
+    private static int digitsAt(CharSequence text, int from, int end) {
+        int i = from;
+        while (i < end && isDigit(text.charAt(i))) {
+            i++;
+        }
+        return i - from;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    /**
+     * Cursor over the date text; any mismatch marks it failed and later reads return -1
+     */
+    private static final class Fields {
+        private final CharSequence text;
+        private final int end;
+        private int position;
+        private boolean failed;
+
+        private Fields(CharSequence text, int start, int end) {
+            this.text = text;
+            this.end = end;
+            this.position = start;
+        }
+
+        private int number(int minDigits, int maxDigits) {
+            int digits = failed ? 0 : digitsAt(text, position, end);
+            if (digits < minDigits || digits > maxDigits) {
+                failed = true;
+                return -1;
+            }
+            int value = 0;
+            for (int i = 0; i < digits; i++) {
+                value = value * 10 + (text.charAt(position++) - '0');
+            }
+            return value;
+        }
+
+        /**
+         * yy (20yy) or yyyy
+         */
+        private int year() {
+            int digits = failed ? 0 : digitsAt(text, position, end);
+            if (digits == 2) {
+                return 2000 + number(2, 2);
+            }
+            return number(4, 4);
+        }
+
+        /**
+         * Jan..Dec in any case, as 1..12
+         */
+        private int monthName() {
+            if (failed || position + 3 > end) {
+                failed = true;
+                return -1;
+            }
+            for (int month = 0; month < 12; month++) {
+                boolean same = true;
+                for (int i = 0; i < 3 && same; i++) {
+                    char c = text.charAt(position + i);
+                    if (c >= 'a' && c <= 'z') {
+                        c -= 'a' - 'A';
+                    }
+                    same = c == MONTHS.charAt(month * 3 + i);
+                }
+                if (same) {
+                    position += 3;
+                    return month + 1;
+                }
+            }
+            failed = true;
+            return -1;
+        }
+
+        private void expect(char separator) {
+            if (failed || position >= end || text.charAt(position) != separator) {
+                failed = true;
+                return;
+            }
+            position++;
+        }
+
+        private boolean complete() {
+            return !failed && position == end;
+        }
+    }
+}
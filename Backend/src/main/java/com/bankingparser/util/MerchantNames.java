@@ -0,0 +1,105 @@
+package com.bankingparser.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Canonical keys for merchant names as they appear in SMS.
+ *
+ * Banks write the same merchant many ways: "ZOMATO", "Zomato Ltd", "zomato.payu@hdfcbank",
+ * "UPI/ZOMATO PVT/123456". {@link #canonicalKey} reduces all of them to "ZOMATO" so they
+ * share one merchant_category row and one cache entry:
+ * - a UPI VPA is replaced by the words of its handle, minus payment gateway tags;
+ * - payment channel words (UPI, IMPS, POS...) and reference numbers (tokens with four
+ *   or more digits) are dropped;
+ * - punctuation becomes a word break, apostrophes are removed ("DOMINO'S" is DOMINOS);
+ * - corporate words (PVT, LIMITED...) after the first word and repeated words are dropped;
+ * - trailing suffixes (INDIA, CO...) are dropped only while two words remain, so
+ *   "AIR INDIA" stays AIR INDIA rather than becoming the unrelated AIR.
+ * A name left with a suffix ("ZOMATO INDIA") still finds its merchant through word-based
+ * partial matching.
+ */
+public final class MerchantNames {
+
+    // No '-' in the handle or domain: UPI narrations use it between fields (UPI-ZOMATO-zomato@hdfcbank-1234)
+    private static final Pattern VPA = Pattern.compile("([A-Z0-9][A-Z0-9._]*)@[A-Z][A-Z0-9.]*");
+    private static final Pattern HANDLE_SEPARATOR = Pattern.compile("[._]+");
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^A-Z0-9]+");
+    private static final Pattern REFERENCE = Pattern.compile("(?:[A-Z]*[0-9]){4,}[A-Z0-9]*");
+
+    private static final Set<String> CHANNEL_WORDS = Set.of(
+        "UPI", "IMPS", "NEFT", "RTGS", "POS", "ECOM", "ACH", "NACH", "VPS", "MPS", "BIL", "ONL", "INB"
+    );
+
+    // Gateway and app tags found in merchant VPA handles (zomato.payu@..., swiggy.rzp@...)
+    private static final Set<String> HANDLE_TAGS = Set.of(
+        "PAYU", "RAZORPAY", "RZP", "PAYTM", "PTM", "CCAVENUE", "BILLDESK", "CASHFREE", "PHONEPE",
+        "GPAY", "YBL", "IBL", "AXL", "PG", "QR", "MERCHANT", "UPI", "PAY"
+    );
+
+    // Dropped wherever they appear after the first word
+    private static final Set<String> CORPORATE_WORDS = Set.of(
+        "LTD", "LIMITED", "PVT", "PRIVATE", "LLP", "INC", "CORP", "CORPORATION", "COMPANY"
+    );
+
+    // Dropped only at the end, where they are suffixes rather than part of the name,
+    // and never down to a single word: in "AIR INDIA" or "TATA CO" they are the name
+    private static final Set<String> TRAILING_SUFFIXES = Set.of(
+        "P", "CO", "INDIA", "IND", "IN", "COM"
+    );
+
+    private MerchantNames() {
+    }
+
+    /**
+     * Canonical key of a merchant name, or null for a null or blank name. Never empty:
+     * if every word is stripped, the upper-cased name with punctuation collapsed is used.
+     */
+    public static String canonicalKey(String merchantName) {
+        if (merchantName == null || merchantName.isBlank()) {
+            return null;
+        }
+        String upper = merchantName.trim().toUpperCase(Locale.ROOT).replace("'", "");
+
+        Matcher vpa = VPA.matcher(upper);
+        StringBuilder text = new StringBuilder(upper.length());
+        while (vpa.find()) {
+            vpa.appendReplacement(text, Matcher.quoteReplacement(handleWords(vpa.group(1))));
+        }
+        vpa.appendTail(text);
+
+        List<String> words = new ArrayList<>();
+        for (String token : NON_ALPHANUMERIC.split(text)) {
+            if (token.isEmpty() || CHANNEL_WORDS.contains(token) || REFERENCE.matcher(token).matches()
+                    || words.contains(token) || (!words.isEmpty() && CORPORATE_WORDS.contains(token))) {
+                continue;
+            }
+            words.add(token);
+        }
+        while (words.size() > 2 && TRAILING_SUFFIXES.contains(words.get(words.size() - 1))) {
+            words.remove(words.size() - 1);
+        }
+        if (words.isEmpty()) {
+            String collapsed = NON_ALPHANUMERIC.matcher(upper).replaceAll(" ").trim();
+            return collapsed.isEmpty() ? upper : collapsed;
+        }
+        return String.join(" ", words);
+    }
+
+    /**
+     * Words of a VPA handle ("zomato.payu" is ZOMATO), without gateway tags or numbers
+     */
+    private static String handleWords(String handle) {
+        StringBuilder words = new StringBuilder();
+        for (String part : HANDLE_SEPARATOR.split(handle)) {
+            if (!part.isEmpty() && !HANDLE_TAGS.contains(part) && !REFERENCE.matcher(part).matches()) {
+                words.append(' ').append(part);
+            }
+        }
+        return words.append(' ').toString();
+    }
+}
@@ -0,0 +1,146 @@
+package com.bankingparser.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Money amounts as a long count of minor units (paise).
+ *
+ * Amounts captured from an SMS are decoded straight from the matched characters, with
+ * no intermediate strings, whatever the digit grouping ("1,00,000.50", "100,000.50",
+ * "100000.5"). Conversion to BigDecimal only happens where a decimal is really needed:
+ * JSON (see {@link Json}) and the database column (see {@link MinorUnitsConverter}).
+ */
+public final class MinorUnits {
+
+    /**
+     * Returned by {@link #parse} when the text is not a plain decimal amount
+     */
+    public static final long NONE = Long.MIN_VALUE;
+
+    private static final int SCALE = 2;
+
+    // Largest value that can take one more digit without overflowing
+    private static final long LIMIT = (Long.MAX_VALUE - 9) / 10;
+
+    private MinorUnits() {
+    }
+
+    /**
+     * Decode text[start, end) into paise: an optional leading sign, digits, optional grouping
+     * commas and at most one decimal point. Fractions beyond paise are rounded half up (away
+     * from zero). Returns {@link #NONE} if the text has no digit, any other character (such as
+     * a currency prefix), or does not fit a long.
+     */
+    public static long parse(CharSequence text, int start, int end) {
+        long units = 0;
+        int fractionDigits = -1;        // -1 until the decimal point
+        boolean seenDigit = false;
+        boolean roundUp = false;
+        boolean negative = false;
+        if (start < end && (text.charAt(start) == '-' || text.charAt(start) == '+')) {
+            negative = text.charAt(start) == '-';
+            start++;
+        }
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                seenDigit = true;
+                if (fractionDigits == SCALE) {
+                    // Only the first dropped digit decides the rounding
+                    roundUp = c >= '5';
+                    fractionDigits++;
+                    continue;
+                }
+                if (fractionDigits > SCALE) {
+                    continue;
+                }
+                if (units > LIMIT) {
+                    return NONE;
+                }
+                units = units * 10 + (c - '0');
+                if (fractionDigits >= 0) {
+                    fractionDigits++;
+                }
+            } else if (c == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+            } else if (c != ',') {
+                return NONE;
+            }
+        }
+        if (!seenDigit) {
+            return NONE;
+        }
+        for (int scaled = Math.max(fractionDigits, 0); scaled < SCALE; scaled++) {
+            if (units > LIMIT) {
+                return NONE;
+            }
+            units *= 10;
+        }
+        if (roundUp) {
+            units++;
+        }
+        return negative ? -units : units;
+    }
+
+    /**
+     * Decode a whole string, or null if it is null or not a plain decimal amount
+     */
+    public static Long parse(CharSequence text) {
+        if (text == null) {
+            return null;
+        }
+        long units = parse(text, 0, text.length());
+        return units != NONE ? units : null;
+    }
+
+    public static BigDecimal toDecimal(Long units) {
+        return units != null ? BigDecimal.valueOf(units, SCALE) : null;
+    }
+
+    /**
+     * Paise for a decimal amount, rounded half up to the paisa
+     */
+    public static Long fromDecimal(BigDecimal amount) {
+        return amount != null ? amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact() : null;
+    }
+
+    /**
+     * Jackson (de)serializers that keep paise fields looking like decimal amounts in JSON
+     */
+    public static final class Json {
+
+        private Json() {
+        }
+
+        public static final class Serializer extends StdSerializer<Long> {
+            public Serializer() {
+                super(Long.class);
+            }
+
+            @Override
+            public void serialize(Long units, JsonGenerator generator, SerializerProvider provider) throws IOException {
+                generator.writeNumber(toDecimal(units));
+            }
+        }
+
+        public static final class Deserializer extends StdDeserializer<Long> {
+            public Deserializer() {
+                super(Long.class);
+            }
+
+            @Override
+            public Long deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+                return fromDecimal(context.readValue(parser, BigDecimal.class));
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.bankingparser.parser;
+
+import com.bankingparser.model.Pattern;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The literal prefilter may only drop patterns that cannot match
+ */
+class BankPatternsTest {
+
+    private static final List<String> PATTERNS = List.of(
+            "Rs\\.?\\s?(?<amount>[\\d,]+) debited from A/c XX(?<account>\\d{4})",
+            "debited for (?<amount>\\d+) via UPI",
+            "(?<amount>[\\d,]+) credited to (?<merchant>\\w+)",
+            // No literal: always a candidate
+            "(?<amount>\\d+)\\s*(?:INR|Rs)",
+            "Avl Bal:? (?:INR|Rs)\\.? ?(?<balance>[\\d,]+)"
+    );
+
+    private static final List<String> SMS = List.of(
+            "Rs.500 debited from A/c XX1234",
+            "rs 99 DEBITED FROM a/c xx9876 Avl Bal Rs 1,000",
+            "A/c debited for 500 via UPI",
+            "a/c DEBITED FOR 42 VIA upi 7 INR",
+            "700 credited to ZOMATO",
+            "Refund 250 INR",
+            "Avl Bal: INR 12,000",
+            "no amount here",
+            ""
+    );
+
+    @Test
+    void patternsWithoutLiteralsAreAlwaysCandidates() {
+        BankPatterns bankPatterns = new BankPatterns(compiled(PATTERNS));
+        CompiledPattern noLiterals = bankPatterns.getPatterns().get(3);
+        assertTrue(noLiterals.getRequiredLiterals().isEmpty());
+        for (String sms : SMS) {
+            assertTrue(bankPatterns.candidates(sms).contains(noLiterals), sms);
+        }
+    }
+
+    @Test
+    void prefilterKeepsTheFirstMatch() {
+        BankPatterns bankPatterns = new BankPatterns(compiled(PATTERNS));
+        for (String sms : SMS) {
+            List<CompiledPattern> candidates = bankPatterns.candidates(sms);
+            assertEquals(matching(bankPatterns.getPatterns(), sms), matching(candidates, sms), sms);
+            // Candidates keep the try order
+            assertEquals(inOrder(bankPatterns.getPatterns(), candidates), candidates, sms);
+        }
+    }
+
+    @Test
+    void literalsFoldTheSameWayInAnyLocale() {
+        Locale previous = Locale.getDefault();
+        Locale.setDefault(Locale.forLanguageTag("tr"));
+        try {
+            // Two spellings of one literal share one key; "i" must not become a dotted capital I
+            BankPatterns bankPatterns = new BankPatterns(compiled(List.of(
+                    "debited for (?<amount>\\d+) via UPI",
+                    "credited (?<amount>\\d+) VIA upi")));
+            assertEquals(1, bankPatterns.candidates("A/c debited for 500 via UPI").size());
+            assertEquals(1, bankPatterns.candidates("credited 500 via upi").size());
+        } finally {
+            Locale.setDefault(previous);
+        }
+    }
+
+    private static List<CompiledPattern> matching(List<CompiledPattern> patterns, String sms) {
+        List<CompiledPattern> found = new ArrayList<>();
+        for (CompiledPattern pattern : patterns) {
+            if (pattern.getRegex().matcher(sms).find()) {
+                found.add(pattern);
+            }
+        }
+        return found;
+    }
+
+    private static List<CompiledPattern> inOrder(List<CompiledPattern> order, List<CompiledPattern> subset) {
+        List<CompiledPattern> sorted = new ArrayList<>(order);
+        sorted.retainAll(subset);
+        return sorted;
+    }
+
+    private static List<CompiledPattern> compiled(List<String> regexes) {
+        List<CompiledPattern> patterns = new ArrayList<>();
+        for (String regex : regexes) {
+            Pattern source = new Pattern();
+            source.setPatternId(patterns.size() + 1);
+            source.setPattern(regex);
+            patterns.add(CompiledPattern.compile(source, new PatternStats()));
+        }
+        return patterns;
+    }
+}
@@ -0,0 +1,83 @@
+package com.bankingparser.parser;
+
+import com.bankingparser.model.Bank;
+import com.bankingparser.repository.BankRepository;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+/**
+ * A title resolves to the longest bank name in it, then the one that starts first
+ */
+class BankResolverTest {
+
+    private static final Bank SBI = new Bank(1, "SBI");
+    private static final Bank SBI_CARD = new Bank(2, "SBI Card");
+    private static final Bank HDFC = new Bank(3, "HDFC");
+    private static final Bank HDFC_LIFE = new Bank(4, "HDFC LIFE");
+    private static final Bank HDFC_BANK = new Bank(5, " HDFC BANK ");
+    private static final Bank AXIS = new Bank(6, "AXIS");
+
+    @Test
+    void longerNameWinsOverItsPrefix() {
+        BankResolver resolver = resolver(SBI, SBI_CARD, HDFC, HDFC_LIFE, HDFC_BANK, AXIS);
+        assertEquals(SBI, resolver.resolve("AD-SBIINB"));
+        assertEquals(SBI_CARD, resolver.resolve("VM-SBI CARD"));
+        assertEquals(SBI_CARD, resolver.resolve("SBI alert from SBI CARD"));
+        assertEquals(HDFC, resolver.resolve("AD-HDFCBK"));
+        assertEquals(HDFC_BANK, resolver.resolve("HDFC BANK Alerts"));
+    }
+
+    @Test
+    void equallyLongNamesGoToTheEarliest() {
+        BankResolver resolver = resolver(SBI, SBI_CARD, HDFC, HDFC_LIFE, HDFC_BANK, AXIS);
+        assertEquals(HDFC_LIFE, resolver.resolve("HDFC LIFE via HDFC BANK"));
+        assertEquals(HDFC_BANK, resolver.resolve("HDFC BANK via HDFC LIFE"));
+        assertEquals(AXIS, resolver.resolve("AXIS-HDFC"));
+        assertEquals(HDFC, resolver.resolve("HDFC-AXIS"));
+    }
+
+    @Test
+    void foldsCase() {
+        BankResolver resolver = resolver(SBI, SBI_CARD, HDFC);
+        assertEquals(SBI_CARD, resolver.resolve("vm-sbi card"));
+        assertEquals(HDFC, resolver.resolve("ad-HdFcBk"));
+    }
+
+    @Test
+    void unknownOrEmptyTitleResolvesToNull() {
+        BankResolver resolver = resolver(SBI, HDFC, new Bank(7, null));
+        assertNull(resolver.resolve("AD-ICICIB"));
+        assertNull(resolver.resolve(""));
+        assertNull(resolver.resolve(null));
+    }
+
+    @Test
+    void findByNameFallsBackToBanksContainingTheName() {
+        BankResolver resolver = resolver(SBI, SBI_CARD, HDFC_BANK);
+        assertEquals(SBI_CARD, resolver.findByName("state SBI card"));
+        assertEquals(SBI_CARD, resolver.findByName("card"));
+        assertEquals(HDFC_BANK, resolver.findByName("hdfc"));
+        assertNull(resolver.findByName("ICICI"));
+        assertNull(resolver.findByName("  "));
+    }
+
+    private static BankResolver resolver(Bank... banks) {
+        BankRepository repository = (BankRepository) Proxy.newProxyInstance(BankRepository.class.getClassLoader(),
+                new Class<?>[]{BankRepository.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("findAll") && (args == null || args.length == 0)) {
+                        return List.of(banks);
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        BankResolver resolver = new BankResolver();
+        setField(resolver, "bankRepository", repository);
+        resolver.reload();
+        return resolver;
+    }
+}
@@ -0,0 +1,223 @@
+package com.bankingparser.parser;
+
+import com.bankingparser.model.Pattern;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Differential test of the combined automaton against java.util.regex: for every SMS, the
+ * patterns it reports must be exactly those whose regex find()s a match
+ */
+class CombinedAutomatonTest {
+
+    private static final List<String> PATTERNS = List.of(
+            // Counted repeats, optional parts, non-capturing groups
+            "Rs\\.?\\s?([\\d,]+\\.\\d{2}) debited from A/c (?:no\\.? )?XX(\\d{4})",
+            // Anchored at both ends: $ also matches before a final \n or \r\n
+            "^Dear Customer, your OTP is (\\d{4,8})$",
+            "(?<amount>\\d+(?:\\.\\d{1,2})?) INR$",
+            // Alternation
+            "(credited|debited|spent) (?:INR|Rs) ?(\\d+)",
+            // Classes: ranges, negation, shorthand; CASE_INSENSITIVE applies to ranges too
+            "[A-Z]{2}-[^\\s]{3,6}",
+            "[^a-c]x{2,3}y",
+            // Lazy quantifiers accept the same strings as greedy ones
+            "UPI/(\\d{6,12})/([\\w .]+?) on",
+            // '.' stops at line terminators
+            "Avl Bal.*INR",
+            // Non-ASCII letters are not case-folded without UNICODE_CASE
+            "café (\\w+)",
+            "ÉCOLE \\d",
+            "\\Q(a+b)\\E z",
+            "a{2,3}b{0,1}c"
+    );
+
+    private static final List<String> SMS = List.of(
+            "Rs.1,250.00 debited from A/c no. XX1234 on 01-02",
+            "rs 99.50 DEBITED FROM a/c XX9876",
+            "Rs.1,250.0 debited from A/c XX1234",
+            "Dear Customer, your OTP is 123456",
+            "Dear Customer, your OTP is 123456\n",
+            "Dear Customer, your OTP is 123456\r\n",
+            "Dear Customer, your OTP is 123456\r",
+            "Dear Customer, your OTP is 123456\u2028",
+            "Dear Customer, your OTP is 123456\n\n",
+            "Dear Customer, your OTP is 123456\r\n\r\n",
+            "Dear Customer, your OTP is 123456 ",
+            "dear customer, your otp is 1234567890",
+            "Refund of 250.5 INR",
+            "Refund of 250.5 INR\r\n",
+            "Refund of 250.555 INR",
+            "credited Rs500 to your account",
+            "SPENT INR 42 at store",
+            "debitedRs 5",
+            "AX-HDFCBK: txn", "ax-hdfc", "AX- HDFC",
+            "Dxxy", "bxxy", "Bxxy", "axxxy", "-xxxxy",
+            "UPI/123456789/ZOMATO LTD on 12-03",
+            "UPI/12345/ZOMATO on",
+            "Avl Bal: 1,000 INR",
+            "Avl Bal:\n1,000 INR",
+            "Avl Bal:\r1,000 INR",
+            "Avl Bal:\u00851,000 INR",
+            "café latte", "CAFÉ LATTE", "Café Latte", "CAFé x",
+            "ÉCOLE 1", "école 2", "École 3",
+            "(a+b) z", "(A+B) Z", "aab z",
+            "aac", "aaabc", "abc", "AAbC", "aaaac",
+            ""
+    );
+
+    @Test
+    void reportsExactlyThePatternsRegexFinds() {
+        List<CompiledPattern> patterns = compiled(PATTERNS);
+        CombinedAutomaton automaton = CombinedAutomaton.build(patterns);
+        assertNotNull(automaton);
+        assertEquals(PATTERNS.size(), automaton.coveredCount());
+
+        for (String sms : SMS) {
+            assertSameMatches(patterns, automaton, sms);
+        }
+    }
+
+    @Test
+    void agreesWithRegexOnRandomText() {
+        List<CompiledPattern> patterns = compiled(PATTERNS);
+        CombinedAutomaton automaton = CombinedAutomaton.build(patterns);
+        // Pieces of the patterns above, so random SMS come close to matching
+        String[] pieces = {"a", "A", "b", "c", "x", "y", "z", "1", "25", ".", ",", " ", "-", "/", "\n", "\r", "\r\n",
+                "é", "É", "Rs", "INR", "XX", "UPI/", "Avl Bal", "café ", "ÉCOLE ", "(a+b)", " on", "credited ",
+                "Dear Customer, your OTP is ", "debited from A/c "};
+        Random random = new Random(42);
+        for (int n = 0; n < 20_000; n++) {
+            StringBuilder sms = new StringBuilder();
+            int length = random.nextInt(12);
+            for (int i = 0; i < length; i++) {
+                sms.append(pieces[random.nextInt(pieces.length)]);
+            }
+            assertSameMatches(patterns, automaton, sms.toString());
+        }
+    }
+
+    @Test
+    void leavesUnsupportedSyntaxToTheRegexEngine() {
+        List<String> unsupported = List.of(
+                "\\bRef\\b", "(\\d)\\1", "Rs(?= )", "a++b", "(?i)abc", "a$b", "[a-z&&[^e]]", "x{1001}");
+        List<String> all = new ArrayList<>(unsupported);
+        all.add("supported (\\d+)");
+        CombinedAutomaton automaton = CombinedAutomaton.build(compiled(all));
+
+        assertEquals(1, automaton.coveredCount());
+        for (int i = 0; i < unsupported.size(); i++) {
+            assertFalse(automaton.covers(i), unsupported.get(i));
+        }
+        assertNull(CombinedAutomaton.build(compiled(unsupported)));
+    }
+
+    @Test
+    void bankPatternsPickTheSameMatchesWithEitherEngine() {
+        List<CompiledPattern> patterns = compiled(PATTERNS);
+        BankPatterns regex = new BankPatterns(patterns, PatternEngine.REGEX);
+        BankPatterns automaton = new BankPatterns(patterns, PatternEngine.AUTOMATON);
+
+        for (String sms : SMS) {
+            assertEquals(matching(regex.candidates(sms), sms), matching(automaton.candidates(sms), sms), sms);
+            // Covered patterns are only offered when they match
+            assertEquals(matching(automaton.candidates(sms), sms), automaton.candidates(sms), sms);
+        }
+    }
+
+    @Test
+    void staysExactThroughCacheResetsThenFallsBackToRegex() {
+        // a[ab]{14} needs one DFA state per set of positions within 15 chars: far more than the cache holds
+        List<CompiledPattern> patterns = compiled(List.of("a[ab]{14}c", "ba{3}c"));
+        CombinedAutomaton automaton = CombinedAutomaton.build(patterns);
+        BankPatterns bankPatterns = new BankPatterns(patterns, PatternEngine.AUTOMATON);
+        Random random = new Random(7);
+
+        int decided = 0;
+        boolean disabled = false;
+        for (int n = 0; n < 20_000 && !disabled; n++) {
+            String sms = randomText(random);
+            BitSet matched = automaton.matches(sms);
+            if (matched == null) {
+                disabled = true;
+            } else {
+                assertEquals(regexMatches(patterns, automaton, sms), matched, sms);
+                decided++;
+            }
+        }
+
+        assertTrue(decided > 1000, "decided " + decided);
+        assertTrue(disabled);
+        assertNull(automaton.matches("aaaac"));
+
+        // A bank whose automaton overflows and gives up still gets every pattern that matches
+        for (int n = 0; n < 3_000; n++) {
+            String sms = randomText(random);
+            assertEquals(new HashSet<>(matching(patterns, sms)), new HashSet<>(matching(bankPatterns.candidates(sms), sms)), sms);
+        }
+    }
+
+    /**
+     * 200 chars of a and b with the odd c: every few chars reach a new DFA state
+     */
+    private static String randomText(Random random) {
+        StringBuilder sms = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            sms.append(random.nextInt(16) == 0 ? 'c' : random.nextBoolean() ? 'a' : 'b');
+        }
+        return sms.toString();
+    }
+
+    private static void assertSameMatches(List<CompiledPattern> patterns, CombinedAutomaton automaton, String sms) {
+        assertEquals(regexMatches(patterns, automaton, sms), automaton.matches(sms), () -> "SMS: " + escape(sms));
+    }
+
+    /**
+     * Covered patterns whose regex finds a match in the SMS
+     */
+    private static BitSet regexMatches(List<CompiledPattern> patterns, CombinedAutomaton automaton, String sms) {
+        BitSet expected = new BitSet();
+        for (int i = 0; i < patterns.size(); i++) {
+            if (automaton.covers(i) && patterns.get(i).getRegex().matcher(sms).find()) {
+                expected.set(i);
+            }
+        }
+        return expected;
+    }
+
+    private static List<CompiledPattern> matching(List<CompiledPattern> candidates, String sms) {
+        List<CompiledPattern> found = new ArrayList<>();
+        for (CompiledPattern candidate : candidates) {
+            if (candidate.getRegex().matcher(sms).find()) {
+                found.add(candidate);
+            }
+        }
+        return found;
+    }
+
+    private static List<CompiledPattern> compiled(List<String> regexes) {
+        List<CompiledPattern> patterns = new ArrayList<>();
+        for (String regex : regexes) {
+            Pattern source = new Pattern();
+            source.setPatternId(patterns.size() + 1);
+            source.setPattern(regex);
+            patterns.add(CompiledPattern.compile(source, new PatternStats()));
+        }
+        return patterns;
+    }
+
+    private static String escape(String sms) {
+        return sms.replace("\r", "\\r").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,67 @@
+package com.bankingparser.parser;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Every literal reported must occur in every SMS the regex matches
+ */
+class LiteralExtractorTest {
+
+    @Test
+    void findsTopLevelRunsLongestFirst() {
+        assertEquals(List.of(" debited from A/c XX", " on "),
+                LiteralExtractor.requiredLiterals("Rs\\.?\\s?([\\d,]+) debited from A/c XX(\\d{4}) on (\\S+)"));
+        assertEquals(List.of("A/c.XX"), LiteralExtractor.requiredLiterals("A\\/c\\.XX\\d+"));
+    }
+
+    @Test
+    void dropsAnOptionalCharFromTheRun() {
+        assertEquals(List.of("r debited", "Colo"), LiteralExtractor.requiredLiterals("Colou?r debited"));
+        // '.' is a wildcard, not part of a run
+        assertEquals(List.of("abc"), LiteralExtractor.requiredLiterals("Rs.+abcd*"));
+        assertEquals(List.of("Avl", "Bal"), LiteralExtractor.requiredLiterals("Avl{1,2}Bal"));
+        assertEquals(List.of("Bal"), LiteralExtractor.requiredLiterals("Avl{0,2}Bal"));
+    }
+
+    @Test
+    void keepsAtMostTheLongestFewLiterals() {
+        List<String> literals = LiteralExtractor.requiredLiterals("aaaa\\d bbbbb\\d cc\\d dddddd\\d eee\\d ffffffff\\d");
+        assertEquals(List.of(" ffffffff", " dddddd", " bbbbb", "aaaa"), literals);
+    }
+
+    @Test
+    void givesUpWhereALiteralIsNotRequired() {
+        // Top-level alternation, comment mode, Unicode case folding, quoting
+        assertTrue(LiteralExtractor.requiredLiterals("debited (\\d+)|credited (\\d+)").isEmpty());
+        assertTrue(LiteralExtractor.requiredLiterals("(?x) debited \\s (\\d+)").isEmpty());
+        assertTrue(LiteralExtractor.requiredLiterals("(?iu)débité (\\d+)").isEmpty());
+        assertTrue(LiteralExtractor.requiredLiterals("\\Q(a+b)\\E total").isEmpty());
+        // Nothing long enough outside groups and classes
+        assertTrue(LiteralExtractor.requiredLiterals("(debited|credited) [A-Z]+ (\\d+)").isEmpty());
+        assertTrue(LiteralExtractor.requiredLiterals("").isEmpty());
+        assertTrue(LiteralExtractor.requiredLiterals(null).isEmpty());
+    }
+
+    @Test
+    void everyLiteralOccursInTheSample() {
+        String sms = "Rs.1,250.00 debited from A/c XX1234 on 01-Feb-26 to VPA zomato@upi Ref 4567";
+        List<String> regexes = List.of(
+                "Rs\\.?\\s?(?<amount>[\\d,]+\\.\\d{2}) debited from A/c XX(?<account>\\d{4})",
+                "on (?<date>\\d{2}-\\w{3}-\\d{2}) to VPA (?<merchant>[\\w.]+)@upi",
+                "debited from A/c (?:no\\.? )?XX\\d{4}.*Ref (\\d+)",
+                "(?i)DEBITED FROM a/c");
+        for (String regex : regexes) {
+            assertTrue(java.util.regex.Pattern.compile(regex, java.util.regex.Pattern.CASE_INSENSITIVE).matcher(sms).find(), regex);
+            List<String> literals = LiteralExtractor.requiredLiterals(regex);
+            assertTrue(!literals.isEmpty(), regex);
+            for (String literal : literals) {
+                assertTrue(sms.toUpperCase().contains(literal.toUpperCase()), regex + ": " + literal);
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.bankingparser.parser;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.regex.Matcher;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runaway backtracking is cut off from inside java.util.regex
+ */
+class MatchBudgetTest {
+
+    // A counted group of .* (not memoized by java.util.regex): billions of steps on an SMS
+    // with many digits but no reference number
+    private static final java.util.regex.Pattern CATASTROPHIC =
+            java.util.regex.Pattern.compile("(?:.*\\d){15}(?:Ref|UTR) (\\d+)", java.util.regex.Pattern.CASE_INSENSITIVE);
+    private static final String RUNAWAY = "Rs 1 2 3 4 5 6 7 8 9 10 11 12 13 14 15 16 17 18 19 20";
+
+    @Test
+    void catastrophicBacktrackingAbortsOnTheStepBudget() {
+        MatchBudget budget = new MatchBudget(100_000, 60_000);
+        long start = System.nanoTime();
+        MatchBudgetExceededException e = assertThrows(MatchBudgetExceededException.class,
+                () -> CATASTROPHIC.matcher(budget.guard(RUNAWAY)).find());
+        assertTrue(e.getMessage().contains("100000 steps"), e.getMessage());
+        assertTrue(System.nanoTime() - start < 5_000_000_000L);
+    }
+
+    @Test
+    void catastrophicBacktrackingAbortsOnTheTimeBudget() {
+        MatchBudget budget = new MatchBudget(Long.MAX_VALUE, 20);
+        MatchBudgetExceededException e = assertThrows(MatchBudgetExceededException.class,
+                () -> CATASTROPHIC.matcher(budget.guard(RUNAWAY)).find());
+        assertTrue(e.getMessage().contains("time budget"), e.getMessage());
+    }
+
+    @Test
+    void ordinaryMatchesRunWithinBudget() {
+        java.util.regex.Pattern debited = java.util.regex.Pattern.compile(
+                "Rs\\.?(?<amount>[\\d,]+) debited from A/c XX(?<account>\\d{4})");
+        String sms = "Rs.1,250 debited from A/c XX1234 on 01-02-26";
+        // A few hundred chars read in all: each guard starts a fresh budget of 1000
+        MatchBudget budget = new MatchBudget(1_000, 1_000);
+        for (int i = 0; i < 100; i++) {
+            Matcher matcher = debited.matcher(budget.guard(sms));
+            assertTrue(matcher.find());
+            assertEquals("1,250", matcher.group("amount"));
+            assertEquals("1234", matcher.group("account"));
+        }
+    }
+}
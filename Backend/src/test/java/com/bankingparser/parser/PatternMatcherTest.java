@@ -0,0 +1,72 @@
+package com.bankingparser.parser;
+
+import com.bankingparser.metrics.PipelineMetrics;
+import com.bankingparser.model.Pattern;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+/**
+ * The pattern that wins an SMS is the highest-priority one that matches
+ */
+class PatternMatcherTest {
+
+    private static final Integer BANK = 7;
+
+    // Neither matches the other's sample, yet both match an SMS that carries both phrases
+    private static final String DEBITED = "debited by Rs\\.?(?<amount>[\\d,]+)";
+    private static final String DEBITED_SAMPLE = "A/c XX12 debited by Rs.500 on 10-Jan-26";
+    private static final String CREDITED = "Rs\\.?(?<amount>[\\d,]+) credited to (?<merchant>\\w+)";
+    private static final String CREDITED_SAMPLE = "Rs.700 credited to ZOMATO";
+    private static final String BOTH = "A/c XX12 debited by Rs.500 credited to ZOMATO";
+
+    @Test
+    void higherPriorityPatternWinsAnSmsBothMatch() {
+        CompiledPattern debited = compiled(1, DEBITED, DEBITED_SAMPLE);
+        CompiledPattern credited = compiled(2, CREDITED, CREDITED_SAMPLE);
+        // Hit counts do not change the order
+        for (int i = 0; i < 1000; i++) {
+            credited.getStats().recordHit();
+        }
+        BankPatterns bankPatterns = new BankPatterns(List.of(debited, credited));
+        assertEquals(List.of(debited, credited), bankPatterns.candidates(BOTH));
+
+        PatternMatcher matcher = matcher();
+        PatternMatch match = matcher.match(snapshot(1, bankPatterns), BANK, BOTH);
+        assertEquals(1, match.getPattern().getPatternId());
+        assertEquals("500", match.getMatcher().group("amount"));
+        assertEquals(1, debited.getStats().getAttempts());
+        assertEquals(0, credited.getStats().getAttempts());
+
+        assertEquals(2, matcher.match(snapshot(1, bankPatterns), BANK, CREDITED_SAMPLE).getPattern().getPatternId());
+    }
+
+    private PatternMatcher matcher() {
+        PatternMatcher matcher = new PatternMatcher();
+        setField(matcher, "pipelineMetrics", new PipelineMetrics(new SimpleMeterRegistry()));
+        setField(matcher, "maxSteps", 1_000_000L);
+        setField(matcher, "timeoutMillis", 50L);
+        setField(matcher, "quarantineAfter", 3);
+        setField(matcher, "quarantineWindowMs", 600_000L);
+        matcher.init();
+        return matcher;
+    }
+
+    private static PatternSnapshot snapshot(long version, BankPatterns bankPatterns) {
+        return new PatternSnapshot(version, Map.of(BANK, bankPatterns));
+    }
+
+    private static CompiledPattern compiled(int patternId, String regex, String sample) {
+        Pattern source = new Pattern();
+        source.setPatternId(patternId);
+        source.setBankId(BANK);
+        source.setPattern(regex);
+        source.setSample(sample);
+        return CompiledPattern.compile(source, new PatternStats());
+    }
+}
@@ -0,0 +1,146 @@
+package com.bankingparser.parser;
+
+import com.bankingparser.metrics.PipelineMetrics;
+import com.bankingparser.model.Pattern;
+import com.bankingparser.repository.PatternRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+/**
+ * Patterns that keep exceeding the match budget leave the live set, and come back clean
+ */
+class PatternRegistryTest {
+
+    private static final Integer BANK = 3;
+    private static final Integer RUNAWAY_ID = 1;
+    private static final String RUNAWAY_SMS = "Rs 1 2 3 4 5 6 7 8 9 10 11 12 13 14 15 16 17 18 19 20";
+
+    private final Map<Integer, Pattern> rows = new ConcurrentHashMap<>();
+    private PatternRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        rows.put(RUNAWAY_ID, pattern(RUNAWAY_ID, "(?:.*\\d){15}(?:Ref|UTR) (?<ref>\\d+)"));
+        rows.put(2, pattern(2, "debited by Rs\\.?(?<amount>[\\d,]+)"));
+        registry = new PatternRegistry();
+        setField(registry, "patternRepository", repository());
+        setField(registry, "engineName", "regex");
+        registry.init();
+    }
+
+    @Test
+    void repeatOffenderIsQuarantinedAndReapprovedWithFreshStats() {
+        PatternMatcher matcher = matcher(600_000L);
+        for (int i = 0; i < 3; i++) {
+            assertNull(matcher.match(registry.current(), BANK, RUNAWAY_SMS));
+        }
+        PatternStats tripped = runaway().getStats();
+        assertEquals(3, tripped.getBudgetTrips());
+        assertTrue(tripped.isQuarantined());
+
+        // Skipped from now on, even before the registry has applied the quarantine
+        assertNull(matcher.match(registry.current(), BANK, RUNAWAY_SMS));
+        assertEquals(3, tripped.getAttempts());
+
+        registry.applyQuarantines();
+        assertEquals("QUARANTINED", rows.get(RUNAWAY_ID).getStatus());
+        assertNull(runaway());
+        assertEquals(1, registry.current().size());
+
+        // A checker approves the fixed pattern again
+        rows.get(RUNAWAY_ID).setStatus("APPROVED");
+        registry.reload();
+        PatternStats fresh = runaway().getStats();
+        assertNotSame(tripped, fresh);
+        assertEquals(0, fresh.getBudgetTrips());
+        assertEquals(0, fresh.getAttempts());
+        assertFalse(fresh.isQuarantined());
+
+        // One more trip does not finish what the old trips started
+        assertNull(matcher.match(registry.current(), BANK, RUNAWAY_SMS));
+        assertFalse(fresh.isQuarantined());
+    }
+
+    @Test
+    void tripsSpreadOverTimeNeverQuarantine() {
+        // Every earlier trip is already outside a zero-length window
+        PatternMatcher matcher = matcher(0L);
+        for (int i = 0; i < 10; i++) {
+            assertNull(matcher.match(registry.current(), BANK, RUNAWAY_SMS));
+        }
+        assertEquals(10, runaway().getStats().getBudgetTrips());
+        assertFalse(runaway().getStats().isQuarantined());
+
+        registry.applyQuarantines();
+        assertEquals("APPROVED", rows.get(RUNAWAY_ID).getStatus());
+        assertEquals(2, registry.current().size());
+    }
+
+    private CompiledPattern runaway() {
+        return registry.current().forBank(BANK).byId(RUNAWAY_ID);
+    }
+
+    private PatternMatcher matcher(long quarantineWindowMs) {
+        PatternMatcher matcher = new PatternMatcher();
+        setField(matcher, "patternRegistry", registry);
+        setField(matcher, "pipelineMetrics", new PipelineMetrics(new SimpleMeterRegistry()));
+        setField(matcher, "maxSteps", 100_000L);
+        setField(matcher, "timeoutMillis", 1_000L);
+        setField(matcher, "quarantineAfter", 3);
+        setField(matcher, "quarantineWindowMs", quarantineWindowMs);
+        matcher.init();
+        return matcher;
+    }
+
+    private static Pattern pattern(Integer patternId, String regex) {
+        Pattern pattern = new Pattern();
+        pattern.setPatternId(patternId);
+        pattern.setBankId(BANK);
+        pattern.setPattern(regex);
+        pattern.setStatus("APPROVED");
+        return pattern;
+    }
+
+    /**
+     * pattern_table backed by the rows map; only the calls the registry makes are implemented
+     */
+    private PatternRepository repository() {
+        return (PatternRepository) Proxy.newProxyInstance(PatternRepository.class.getClassLoader(),
+                new Class<?>[]{PatternRepository.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "findByStatusOrderByPatternIdAsc": {
+                            List<Pattern> result = new ArrayList<>();
+                            for (Pattern pattern : rows.values()) {
+                                if (args[0].equals(pattern.getStatus())) {
+                                    result.add(pattern);
+                                }
+                            }
+                            result.sort(Comparator.comparing(Pattern::getPatternId));
+                            return result;
+                        }
+                        case "findById":
+                            return Optional.ofNullable(rows.get((Integer) args[0]));
+                        case "save":
+                            return args[0];
+                        default:
+                            throw new UnsupportedOperationException("PatternRepository." + method.getName());
+                    }
+                });
+    }
+}
@@ -0,0 +1,56 @@
+package com.bankingparser.parser;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Budget trips only add up toward quarantine within the window
+ */
+class PatternStatsTest {
+
+    private static final long WINDOW = 100;
+
+    @Test
+    void tripsOutsideTheWindowDoNotCount() {
+        PatternStats stats = new PatternStats();
+        assertEquals(1, stats.recordBudgetTrip(0, WINDOW, 3));
+        assertEquals(2, stats.recordBudgetTrip(50, WINDOW, 3));
+        // Both earlier trips are older than the window
+        assertEquals(1, stats.recordBudgetTrip(200, WINDOW, 3));
+        assertEquals(2, stats.recordBudgetTrip(250, WINDOW, 3));
+        assertEquals(3, stats.recordBudgetTrip(300, WINDOW, 3));
+        // A trip exactly one window old still counts
+        assertEquals(3, stats.recordBudgetTrip(350, WINDOW, 3));
+        assertEquals(6, stats.getBudgetTrips());
+    }
+
+    @Test
+    void remembersAtMostMaxTrackedTrips() {
+        PatternStats stats = new PatternStats();
+        for (int i = 0; i < 10; i++) {
+            assertEquals(Math.min(i + 1, 3), stats.recordBudgetTrip(i, WINDOW, 3));
+        }
+        assertEquals(10, stats.getBudgetTrips());
+    }
+
+    @Test
+    void resetStartsAfresh() {
+        PatternStats stats = new PatternStats();
+        stats.recordAttempt();
+        stats.recordHit();
+        stats.recordBudgetTrip(0, WINDOW, 3);
+        stats.recordBudgetTrip(1, WINDOW, 3);
+        assertTrue(stats.markQuarantined());
+        assertFalse(stats.markQuarantined());
+
+        stats.reset();
+        assertEquals(0, stats.getAttempts());
+        assertEquals(0, stats.getHits());
+        assertEquals(0, stats.getBudgetTrips());
+        assertFalse(stats.isQuarantined());
+        assertEquals(1, stats.recordBudgetTrip(2, WINDOW, 3));
+    }
+}
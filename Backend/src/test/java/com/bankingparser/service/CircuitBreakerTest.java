@@ -0,0 +1,65 @@
+package com.bankingparser.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * Circuit breaker state changes, and late outcomes of calls from an earlier state
+ */
+class CircuitBreakerTest {
+
+    @Test
+    void opensAfterThresholdAndClosesOnTrialSuccess() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker(2, 50);
+        breaker.onFailure(breaker.tryAcquire());
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        breaker.onFailure(breaker.tryAcquire());
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(CircuitBreaker.REFUSED, breaker.tryAcquire());
+
+        Thread.sleep(80);
+        long trial = breaker.tryAcquire();
+        assertNotEquals(CircuitBreaker.REFUSED, trial);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertEquals(CircuitBreaker.REFUSED, breaker.tryAcquire());
+
+        breaker.onSuccess(trial);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(1, breaker.getTimesOpened());
+    }
+
+    @Test
+    void lateSuccessFromBeforeOpeningDoesNotCloseHalfOpenCircuit() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker(1, 50);
+        long slow = breaker.tryAcquire();
+        breaker.onFailure(breaker.tryAcquire());
+        Thread.sleep(80);
+        long trial = breaker.tryAcquire();
+
+        breaker.onSuccess(slow);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        // The trial is still the only call allowed
+        assertEquals(CircuitBreaker.REFUSED, breaker.tryAcquire());
+
+        breaker.onFailure(trial);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(2, breaker.getTimesOpened());
+    }
+
+    @Test
+    void lateFailuresFromAnEarlierClosedSpellAreNotCounted() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker(2, 50);
+        long slow = breaker.tryAcquire();
+        breaker.onFailure(breaker.tryAcquire());
+        breaker.onFailure(breaker.tryAcquire());
+        Thread.sleep(80);
+        breaker.onSuccess(breaker.tryAcquire());
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        breaker.onFailure(slow);
+        breaker.onFailure(breaker.tryAcquire());
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+}
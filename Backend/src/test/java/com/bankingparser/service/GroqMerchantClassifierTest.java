@@ -0,0 +1,122 @@
+package com.bankingparser.service;
+
+import com.bankingparser.metrics.PipelineMetrics;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+/**
+ * Bulkhead, circuit breaker and timeouts of the Groq client, against a local stub
+ */
+class GroqMerchantClassifierTest {
+
+    private GroqStubServer groq;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        groq = new GroqStubServer().answering(merchant -> "FOOD");
+    }
+
+    @AfterEach
+    void tearDown() {
+        groq.close();
+    }
+
+    @Test
+    void neverExceedsConcurrentCallLimit() throws Exception {
+        GroqMerchantClassifier classifier = classifier(2, 5, 5000);
+        groq.delay(200);
+        ExecutorService callers = Executors.newFixedThreadPool(6);
+        try {
+            List<Future<Map<String, String>>> results = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                String merchant = "SHOP" + (char) ('A' + i);
+                results.add(callers.submit(() -> classifier.classifyAsync(List.of(merchant)).get(10, TimeUnit.SECONDS)));
+            }
+            for (Future<Map<String, String>> result : results) {
+                // Callers past the limit wait for a slot instead of failing
+                assertEquals(1, result.get(10, TimeUnit.SECONDS).size());
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+        assertEquals(6, groq.calls().size());
+        assertEquals(2, groq.maxConcurrent());
+    }
+
+    @Test
+    void openCircuitShortCircuitsUntilTrialSucceeds() throws Exception {
+        GroqMerchantClassifier classifier = classifier(4, 2, 5000);
+        setField(classifier, "circuitOpenMs", 300L);
+        classifier.init();
+
+        groq.status(500);
+        assertNull(classifier.classifyAsync(List.of("SHOPA")).get());
+        assertEquals(CircuitBreaker.State.CLOSED, classifier.getCircuitState());
+        assertNull(classifier.classifyAsync(List.of("SHOPB")).get());
+        assertEquals(CircuitBreaker.State.OPEN, classifier.getCircuitState());
+
+        // Refused without a request; null tells the caller to keep the batch
+        assertFalse(classifier.isAvailable());
+        assertNull(classifier.classifyAsync(List.of("SHOPC")));
+        assertEquals(2, groq.calls().size());
+        assertEquals(1, classifier.getShortCircuited());
+
+        Thread.sleep(400);
+        groq.status(200).delay(200);
+        CompletableFuture<Map<String, String>> trial = classifier.classifyAsync(List.of("SHOPD"));
+        assertNotNull(trial);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, classifier.getCircuitState());
+        // Only the trial goes out while half open
+        assertNull(classifier.classifyAsync(List.of("SHOPE")));
+
+        assertEquals(Map.of("SHOPD", "FOOD"), trial.get(5, TimeUnit.SECONDS));
+        assertEquals(CircuitBreaker.State.CLOSED, classifier.getCircuitState());
+        assertEquals(Map.of("SHOPF", "FOOD"), classifier.classifyAsync(List.of("SHOPF")).get(5, TimeUnit.SECONDS));
+        assertEquals(1, classifier.getCircuitOpenings());
+    }
+
+    @Test
+    void slowCallTimesOutAndCountsAsFailure() throws Exception {
+        GroqMerchantClassifier classifier = classifier(4, 1, 200);
+        groq.delay(2000);
+
+        long start = System.nanoTime();
+        assertNull(classifier.classifyAsync(List.of("SHOPA")).get(5, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - start < 1_500_000_000L);
+        assertEquals(CircuitBreaker.State.OPEN, classifier.getCircuitState());
+    }
+
+    private GroqMerchantClassifier classifier(int maxConcurrentCalls, int failureThreshold, long timeoutMs) {
+        GroqMerchantClassifier classifier = new GroqMerchantClassifier();
+        setField(classifier, "pipelineMetrics", new PipelineMetrics(new SimpleMeterRegistry()));
+        setField(classifier, "objectMapper", new ObjectMapper());
+        setField(classifier, "groqApiKey", "test-key");
+        setField(classifier, "groqApiUrl", groq.url());
+        setField(classifier, "connectTimeoutMs", 2000L);
+        setField(classifier, "timeoutMs", timeoutMs);
+        setField(classifier, "maxConcurrentCalls", maxConcurrentCalls);
+        setField(classifier, "circuitFailureThreshold", failureThreshold);
+        setField(classifier, "circuitOpenMs", 30_000L);
+        classifier.init();
+        return classifier;
+    }
+}
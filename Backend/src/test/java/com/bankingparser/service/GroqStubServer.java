@@ -0,0 +1,149 @@
+package com.bankingparser.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Local stand-in for the Groq chat completions endpoint, on a JDK HttpServer.
+ *
+ * Records the merchant list of every prompt it receives and answers with a chat completion
+ * whose content is whatever the configured function returns for that list. Status code and
+ * a delay before answering can be set to simulate errors and slow calls.
+ */
+class GroqStubServer implements AutoCloseable {
+
+    private static final String MERCHANTS_MARKER = "Merchants:\n";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final List<List<String>> calls = new CopyOnWriteArrayList<>();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger maxActive = new AtomicInteger();
+
+    private volatile Function<List<String>, String> content = merchants -> "{}";
+    private volatile int status = 200;
+    private volatile long delayMs;
+
+    GroqStubServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/chat/completions";
+    }
+
+    /**
+     * Answer every merchant of a prompt with the category the function gives it
+     */
+    GroqStubServer answering(Function<String, String> category) {
+        this.content = merchants -> {
+            Map<String, String> answer = new LinkedHashMap<>();
+            for (String merchant : merchants) {
+                String value = category.apply(merchant);
+                if (value != null) {
+                    answer.put(merchant, value);
+                }
+            }
+            return write(answer);
+        };
+        return this;
+    }
+
+    /**
+     * Answer with this message content, whatever was asked
+     */
+    GroqStubServer answeringRaw(String content) {
+        this.content = merchants -> content;
+        return this;
+    }
+
+    GroqStubServer status(int status) {
+        this.status = status;
+        return this;
+    }
+
+    GroqStubServer delay(long delayMs) {
+        this.delayMs = delayMs;
+        return this;
+    }
+
+    /**
+     * Merchant lists of the prompts received so far, in arrival order
+     */
+    List<List<String>> calls() {
+        return calls;
+    }
+
+    /**
+     * Most requests ever being handled at the same time
+     */
+    int maxConcurrent() {
+        return maxActive.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        int now = active.incrementAndGet();
+        maxActive.accumulateAndGet(now, Math::max);
+        try {
+            List<String> merchants = merchants(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            calls.add(merchants);
+            if (delayMs > 0) {
+                Thread.sleep(delayMs);
+            }
+            byte[] body = status == 200
+                    ? write(Map.of("choices", List.of(Map.of("message", Map.of("content", content.apply(merchants))))))
+                            .getBytes(StandardCharsets.UTF_8)
+                    : "{\"error\":\"stub\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            active.decrementAndGet();
+            exchange.close();
+        }
+    }
+
+    private List<String> merchants(String requestBody) throws IOException {
+        Map<String, Object> request = objectMapper.readValue(requestBody, Map.class);
+        List<Map<String, Object>> messages = (List<Map<String, Object>>) request.get("messages");
+        String prompt = (String) messages.get(0).get("content");
+        String list = prompt.substring(prompt.indexOf(MERCHANTS_MARKER) + MERCHANTS_MARKER.length());
+        return objectMapper.readValue(list, List.class);
+    }
+
+    private String write(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package com.bankingparser.service;
+
+import com.bankingparser.metrics.PipelineMetrics;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+/**
+ * Batched LLM classification of unknown merchants, against a local Groq stub
+ */
+class MerchantCategoryServiceTest {
+
+    private static final int BATCH_SIZE = 10;
+    private static final int NEGATIVE_CAPACITY = 5;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private GroqStubServer groq;
+    private GroqMerchantClassifier classifier;
+    private MerchantCategoryService service;
+    private final List<Object[]> backfilled = new CopyOnWriteArrayList<>();
+    private volatile boolean backfillFails;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        groq = new GroqStubServer();
+        PipelineMetrics pipelineMetrics = new PipelineMetrics(registry);
+
+        classifier = new GroqMerchantClassifier();
+        setField(classifier, "pipelineMetrics", pipelineMetrics);
+        setField(classifier, "objectMapper", new ObjectMapper());
+        setField(classifier, "groqApiKey", "test-key");
+        setField(classifier, "groqApiUrl", groq.url());
+        setField(classifier, "connectTimeoutMs", 2000L);
+        setField(classifier, "timeoutMs", 5000L);
+        setField(classifier, "maxConcurrentCalls", 4);
+        setField(classifier, "circuitFailureThreshold", 5);
+        setField(classifier, "circuitOpenMs", 30_000L);
+        classifier.init();
+
+        service = new MerchantCategoryService();
+        setField(service, "jdbcTemplate", new JdbcTemplate() {
+            @Override
+            public void query(String sql, RowCallbackHandler rch) {
+                // Empty merchant_category
+            }
+
+            @Override
+            public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+                if (backfillFails) {
+                    throw new DataAccessResourceFailureException("database down");
+                }
+                backfilled.addAll(batchArgs);
+                return new int[batchArgs.size()];
+            }
+        });
+        setField(service, "pipelineMetrics", pipelineMetrics);
+        setField(service, "groqMerchantClassifier", classifier);
+        setField(service, "llmBatchSize", BATCH_SIZE);
+        setField(service, "llmQueueCapacity", 1000);
+        setField(service, "llmFlushIntervalMs", 60_000L);
+        setField(service, "negativeTtlMs", 60_000L);
+        setField(service, "errorTtlMs", 60_000L);
+        setField(service, "negativeCacheCapacity", NEGATIVE_CAPACITY);
+        setField(service, "classifierMinConfidence", 0.9);
+        service.init();
+        // No background worker: the test decides when queued merchants are sent
+        service.shutdown();
+    }
+
+    @AfterEach
+    void tearDown() {
+        groq.close();
+    }
+
+    @Test
+    void sendsQueuedMerchantsInBatches() throws Exception {
+        groq.answering(merchant -> "SHOPPING");
+        List<String> merchants = merchants(25);
+        for (String merchant : merchants) {
+            assertEquals("OTHER", service.getCategoryForMerchant(merchant));
+        }
+
+        classifyAll();
+
+        assertEquals(3, groq.calls().size());
+        List<String> sent = new ArrayList<>();
+        for (List<String> call : groq.calls()) {
+            assertTrue(call.size() <= BATCH_SIZE);
+            sent.addAll(call);
+        }
+        assertEquals(new HashSet<>(merchants), new HashSet<>(sent));
+        assertEquals(25, backfilled.size());
+        for (String merchant : merchants) {
+            assertEquals("SHOPPING", service.getCategoryForMerchant(merchant));
+        }
+    }
+
+    @Test
+    void sendsEachMerchantOnceHoweverOftenSeen() throws Exception {
+        groq.answering(merchant -> "FOOD");
+        for (int i = 0; i < 5; i++) {
+            service.getCategoryForMerchant("ZOMATO");
+            service.getCategoryForMerchant("Zomato Ltd");
+            service.getCategoryForMerchant("zomato.payu@hdfcbank");
+            service.getCategoryForMerchant("SWIGGY");
+        }
+        assertEquals(2, service.getUnclassifiedCount());
+
+        classifyAll();
+
+        assertEquals(1, groq.calls().size());
+        assertEquals(List.of("SWIGGY", "ZOMATO"), groq.calls().get(0).stream().sorted().toList());
+        assertEquals("FOOD", service.getCategoryForMerchant("Zomato Ltd"));
+    }
+
+    @Test
+    void invalidAnswersStayProvisional() throws Exception {
+        groq.answering(merchant -> switch (merchant) {
+            case "SHOPAA" -> "GROCERIES";
+            case "SHOPAB" -> "NOT A CATEGORY";
+            case "SHOPAC" -> "OTHER";
+            default -> null;   // left out of the answer
+        });
+        List<String> merchants = List.of("SHOPAA", "SHOPAB", "SHOPAC", "SHOPAD");
+        merchants.forEach(service::getCategoryForMerchant);
+
+        classifyAll();
+
+        assertEquals(1, backfilled.size());
+        assertEquals("SHOPAA", backfilled.get(0)[0]);
+        assertEquals("GROCERIES", service.getCategoryForMerchant("SHOPAA"));
+        for (String merchant : List.of("SHOPAB", "SHOPAC", "SHOPAD")) {
+            assertEquals("OTHER", service.getCategoryForMerchant(merchant));
+        }
+        // Not queued again while in the negative cache
+        assertEquals(0, service.getUnclassifiedCount());
+        assertEquals(3, service.getNegativeCacheSize());
+    }
+
+    @Test
+    void warmUpLookupsRecordNothing() {
+        setField(service, "index", MerchantIndex.builder().add("ZOMATO", "FOOD").build());
+
+        assertEquals("FOOD", service.getCategoryForMerchant("ZOMATO", false));
+        assertEquals("FOOD", service.getCategoryForMerchant("ZOMATO FOODS", false));
+        assertNull(service.getCategoryForMerchant("SHOPAA", false));
+
+        assertEquals(0, service.getUnclassifiedCount());
+        assertEquals(0.0, registry.find("merchant.category.lookup").counters().stream()
+                .mapToDouble(Counter::count).sum());
+    }
+
+    @Test
+    void unconfidentLocalGuessIsNotReturned() {
+        MerchantNaiveBayes.Trainer trainer = MerchantNaiveBayes.trainer();
+        trainer.add("SHOPPERS STOP", "SHOPPING");
+        trainer.add("ZOMATO", "FOOD");
+        setField(service, "localClassifier", trainer.build());
+        // No guess is ever confident enough
+        setField(service, "classifierMinConfidence", 1.01);
+
+        assertEquals("OTHER", service.getCategoryForMerchant("SHOPAA"));
+        assertEquals(1, service.getUnclassifiedCount());
+    }
+
+    @Test
+    void unreadableAnswerLeavesWholeBatchProvisional() throws Exception {
+        groq.answeringRaw("FOOD, probably");
+        List<String> merchants = merchants(4);
+        merchants.forEach(service::getCategoryForMerchant);
+
+        classifyAll();
+
+        assertEquals(1, groq.calls().size());
+        assertTrue(backfilled.isEmpty());
+        for (String merchant : merchants) {
+            assertEquals("OTHER", service.getCategoryForMerchant(merchant));
+        }
+    }
+
+    @Test
+    void negativeCacheStaysBoundedOnEveryPath() throws Exception {
+        // Failed call: the whole batch is remembered, as far as capacity allows
+        groq.status(500);
+        List<String> failed = merchants(8);
+        failed.forEach(service::getCategoryForMerchant);
+        classifyAll();
+        assertEquals(NEGATIVE_CAPACITY, service.getNegativeCacheSize());
+        // The ones that gave way are queued again when seen
+        failed.forEach(service::getCategoryForMerchant);
+        assertEquals(8 - NEGATIVE_CAPACITY, service.getUnclassifiedCount());
+        classifyAll();
+        assertEquals(NEGATIVE_CAPACITY, service.getNegativeCacheSize());
+
+        // Answered, but the backfill cannot be saved
+        groq.status(200).answering(merchant -> "SHOPPING");
+        backfillFails = true;
+        List<String> unsaved = List.of("SAVEAA", "SAVEAB", "SAVEAC");
+        unsaved.forEach(service::getCategoryForMerchant);
+        classifyAll();
+        assertTrue(backfilled.isEmpty());
+        assertEquals(NEGATIVE_CAPACITY, service.getNegativeCacheSize());
+        for (String merchant : unsaved) {
+            assertEquals("OTHER", service.getCategoryForMerchant(merchant));
+        }
+        assertEquals(0, service.getUnclassifiedCount());
+    }
+
+    @Test
+    void batchRefusedByOpenCircuitStaysQueued() throws Exception {
+        setField(service, "llmBatchSize", 4);
+        setField(classifier, "maxConcurrentCalls", 1);
+        setField(classifier, "circuitFailureThreshold", 1);
+        classifier.init();
+        groq.status(500).delay(200);
+        List<String> merchants = merchants(8);
+        merchants.forEach(service::getCategoryForMerchant);
+
+        // The second batch waits for the only slot, which frees up once the first call has opened the circuit
+        service.classifyQueued();
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (service.getUnclassifiedCount() > 4 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(1, groq.calls().size());
+        assertEquals(1, classifier.getShortCircuited());
+        assertEquals(4, service.getNegativeCacheSize());
+        assertEquals(4, service.getUnclassifiedCount());
+        for (String merchant : merchants) {
+            if (!groq.calls().get(0).contains(merchant)) {
+                // Still queued for when the circuit closes, not given up on
+                service.getCategoryForMerchant(merchant);
+            }
+        }
+        assertEquals(4, service.getUnclassifiedCount());
+        assertEquals(4, service.getNegativeCacheSize());
+    }
+
+    /**
+     * Run the classifier and wait until every queued merchant has been answered
+     */
+    private void classifyAll() throws InterruptedException {
+        service.classifyQueued();
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (service.getUnclassifiedCount() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, service.getUnclassifiedCount());
+    }
+
+    /**
+     * Distinct single-word merchant names no canonical-key rule rewrites (SHOPAA, SHOPAB...)
+     */
+    private static List<String> merchants(int count) {
+        List<String> names = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            names.add("SHOP" + (char) ('A' + i / 26) + (char) ('A' + i % 26));
+        }
+        return names;
+    }
+}
@@ -0,0 +1,68 @@
+package com.bankingparser.service;
+
+import com.bankingparser.util.MerchantNames;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Merchant lookup by canonical key, exact and partial
+ */
+class MerchantIndexTest {
+
+    private final MerchantIndex index = MerchantIndex.builder()
+            .add(MerchantNames.canonicalKey("Air India"), "TRAVEL")
+            .add(MerchantNames.canonicalKey("Zomato Ltd"), "FOOD")
+            .add(MerchantNames.canonicalKey("Amazon Pay India"), "SHOPPING")
+            .add(MerchantNames.canonicalKey("Big Bazaar Express"), "GROCERIES")
+            .build();
+
+    @Test
+    void suffixIsNotStrippedDownToOneWord() {
+        assertEquals("AIR INDIA", MerchantNames.canonicalKey("AIR INDIA"));
+        assertEquals("ZOMATO INDIA", MerchantNames.canonicalKey("zomato india"));
+        assertEquals("AMAZON PAY", MerchantNames.canonicalKey("AMAZON PAY INDIA"));
+        assertEquals("ZOMATO", MerchantNames.canonicalKey("Zomato Pvt Ltd"));
+    }
+
+    @Test
+    void partialMatchesWholeWordsOnly() {
+        assertNull(index.partial("AIRTEL"));
+        assertNull(index.partial("DAIRY DAY"));
+        assertNull(index.partial("FAIRPRICE"));
+        assertNull(index.partial("ZOMATOES"));
+        assertNull(index.partial("BIG BAZ"));
+    }
+
+    @Test
+    void partialFindsContainedAndExtendedNames() {
+        assertEquals("TRAVEL", index.exact(MerchantNames.canonicalKey("Air India Ltd")));
+        assertEquals("FOOD", index.partial(MerchantNames.canonicalKey("Zomato India")));
+        assertEquals("FOOD", index.partial("UPI ZOMATO FOODS"));
+        assertEquals("GROCERIES", index.partial("BIG BAZAAR"));
+        assertEquals("SHOPPING", index.partial("AMAZON"));
+    }
+
+    @Test
+    void deltaLooksUpLikeTheIndex() {
+        MerchantIndexDelta delta = new MerchantIndexDelta();
+        delta.add("AIR INDIA", "TRAVEL");
+        delta.add("ZOMATO", "FOOD");
+        delta.add("ZOMATO", "SHOPPING");
+        long mark = delta.mark();
+        delta.add("BIG BAZAAR EXPRESS", "GROCERIES");
+
+        assertEquals("FOOD", delta.exact("ZOMATO"));
+        assertEquals("FOOD", delta.partial("UPI ZOMATO FOODS"));
+        assertEquals("GROCERIES", delta.partial("BIG BAZAAR"));
+        assertNull(delta.partial("AIRTEL"));
+        assertNull(delta.partial("ZOMATOES"));
+        assertNull(delta.partial("BIG BAZ"));
+
+        delta.removeUpTo(mark);
+        assertNull(delta.exact("ZOMATO"));
+        assertEquals(1, delta.size());
+        assertEquals("GROCERIES", delta.exact("BIG BAZAAR EXPRESS"));
+    }
+}
@@ -0,0 +1,238 @@
+package com.bankingparser.service;
+
+import com.bankingparser.dto.BulkSaveTransactionResponse;
+import com.bankingparser.dto.SaveTransactionRequest;
+import com.bankingparser.dto.TransactionPageRequest;
+import com.bankingparser.dto.TransactionPageResponse;
+import com.bankingparser.dto.TransactionSummary;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+/**
+ * Bulk insert fallback and keyset paging, against an in-memory H2 database in MySQL mode
+ */
+class TransactionServiceTest {
+
+    private static final int USER = 1;
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionService service;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:transactions;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE transaction_table (" +
+                "tx_id INT AUTO_INCREMENT PRIMARY KEY, user_id INT NOT NULL, msg TEXT NOT NULL, " +
+                "bank_name VARCHAR(255), merchant_name VARCHAR(255), amount DECIMAL(38, 2), " +
+                "account_number VARCHAR(255), tx_type VARCHAR(255), msg_type VARCHAR(255), " +
+                "msg_subtype VARCHAR(255), date DATE, reference_no VARCHAR(255), available_balance DECIMAL(38, 2))");
+
+        service = new TransactionService();
+        setField(service, "jdbcTemplate", jdbcTemplate);
+        setField(service, "bulkBatchSize", 3);
+        setField(service, "pageDefaultSize", 50);
+        setField(service, "pageMaxSize", 200);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void failedBatchIsRolledBackAndRetriedRowByRow() {
+        List<SaveTransactionRequest> requests = List.of(
+                request("sms 0", "2024-01-01"),
+                bankNamed("sms 1", "X".repeat(300)),   // too long for bank_name
+                request("sms 2", "2024-01-02"),
+                request("sms 3", null),
+                request(null, "2024-01-03"),           // rejected before any insert
+                request("sms 5", "2024-01-04"));
+
+        BulkSaveTransactionResponse response = service.saveTransactions(USER, requests);
+
+        assertEquals(6, response.getTotalCount());
+        assertEquals(4, response.getSuccessCount());
+        assertEquals(2, response.getFailedCount());
+        List<Boolean> saved = new ArrayList<>();
+        for (BulkSaveTransactionResponse.ItemResult result : response.getResults()) {
+            saved.add(result.isSaved());
+        }
+        assertEquals(List.of(true, false, true, true, false, true), saved);
+        assertTrue(response.getResults().get(1).getMessage().startsWith("Error saving transaction"));
+
+        // The failed batch left nothing behind; each reported id holds its own row
+        assertEquals(4, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transaction_table", Integer.class));
+        for (int i : new int[] {0, 2, 3, 5}) {
+            Integer txId = response.getResults().get(i).getTxId();
+            assertNotNull(txId);
+            assertEquals("sms " + i, jdbcTemplate.queryForObject(
+                    "SELECT msg FROM transaction_table WHERE tx_id = ?", String.class, txId));
+        }
+    }
+
+    @Test
+    void pageBoundariesInsideRunsOfDuplicateDates() {
+        List<String> dates = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            dates.add("2024-03-10");
+        }
+        dates.addAll(List.of("2024-03-11", "2024-03-09", "2024-03-09", "2024-03-09", "2024-01-01"));
+        saveShuffled(dates, 11);
+
+        for (int limit = 1; limit <= 6; limit++) {
+            assertEquals(expectedOrder(), readAllPages(limit), "limit " + limit);
+        }
+    }
+
+    @Test
+    void undatedRowsArePagedAfterTheDatedOnes() {
+        List<String> dates = new ArrayList<>(Arrays.asList(
+                "2024-05-01", "2024-05-01", "2024-04-30", null, null, null, null, null));
+        saveShuffled(dates, 5);
+
+        for (int limit = 1; limit <= 9; limit++) {
+            assertEquals(expectedOrder(), readAllPages(limit), "limit " + limit);
+        }
+
+        // Exactly the dated rows fit the first page: the undated ones still follow
+        TransactionPageResponse first = service.getTransactionPage(USER, page(3, null));
+        assertTrue(first.isHasMore());
+        TransactionPageResponse second = service.getTransactionPage(USER, page(3, first.getNextCursor()));
+        for (TransactionSummary summary : second.getTransactions()) {
+            assertNull(summary.getDate());
+        }
+    }
+
+    @Test
+    void randomHistoriesPageWithoutGapsOrRepeats() {
+        Random random = new Random(42);
+        for (int round = 0; round < 20; round++) {
+            jdbcTemplate.execute("DELETE FROM transaction_table");
+            List<String> dates = new ArrayList<>();
+            for (int i = 0; i < 1 + random.nextInt(30); i++) {
+                // Few distinct dates, so duplicates and nulls are common
+                dates.add(random.nextInt(4) == 0 ? null : "2024-02-0" + (1 + random.nextInt(3)));
+            }
+            saveShuffled(dates, random.nextLong());
+            int limit = 1 + random.nextInt(7);
+            assertEquals(expectedOrder(), readAllPages(limit), "limit " + limit + " dates " + dates);
+        }
+    }
+
+    @Test
+    void dateRangeSkipsUndatedRows() {
+        saveShuffled(Arrays.asList("2024-06-01", "2024-06-02", "2024-06-03", null, null), 3);
+
+        TransactionPageRequest request = page(1, null);
+        request.setFromDate("2024-06-02");
+        List<LocalDate> dates = new ArrayList<>();
+        for (TransactionSummary summary : readAllPages(request)) {
+            dates.add(summary.getDate());
+        }
+        assertEquals(List.of(LocalDate.of(2024, 6, 3), LocalDate.of(2024, 6, 2)), dates);
+    }
+
+    private void saveShuffled(List<String> dates, long seed) {
+        List<String> shuffled = new ArrayList<>(dates);
+        Collections.shuffle(shuffled, new Random(seed));
+        List<SaveTransactionRequest> requests = new ArrayList<>();
+        for (int i = 0; i < shuffled.size(); i++) {
+            requests.add(request("sms " + i, shuffled.get(i)));
+        }
+        assertEquals(requests.size(), service.saveTransactions(USER, requests).getSuccessCount());
+    }
+
+    /**
+     * Every row of the user, in the documented order: date descending, then tx_id descending, undated last
+     */
+    private List<String> expectedOrder() {
+        List<TransactionSummary> all = jdbcTemplate.query(
+                "SELECT tx_id, date FROM transaction_table WHERE user_id = ?", (rs, rowNum) -> {
+                    TransactionSummary summary = new TransactionSummary();
+                    summary.setTxId(rs.getInt("tx_id"));
+                    summary.setDate(rs.getObject("date", LocalDate.class));
+                    return summary;
+                }, USER);
+        all.sort(Comparator.comparing(TransactionSummary::getDate, Comparator.nullsFirst(Comparator.<LocalDate>naturalOrder()))
+                .thenComparing(TransactionSummary::getTxId)
+                .reversed());
+        return keys(all);
+    }
+
+    private List<String> readAllPages(int limit) {
+        return keys(readAllPages(page(limit, null)));
+    }
+
+    private List<TransactionSummary> readAllPages(TransactionPageRequest request) {
+        List<TransactionSummary> rows = new ArrayList<>();
+        Set<Integer> seen = new HashSet<>();
+        while (true) {
+            TransactionPageResponse response = service.getTransactionPage(USER, request);
+            assertTrue(response.getTransactions().size() <= request.getLimit());
+            for (TransactionSummary row : response.getTransactions()) {
+                assertTrue(seen.add(row.getTxId()), "repeated tx_id " + row.getTxId());
+                rows.add(row);
+            }
+            if (!response.isHasMore()) {
+                assertNull(response.getNextCursor());
+                return rows;
+            }
+            assertFalse(response.getTransactions().isEmpty());
+            request.setCursor(response.getNextCursor());
+        }
+    }
+
+    private static List<String> keys(List<TransactionSummary> rows) {
+        List<String> keys = new ArrayList<>();
+        for (TransactionSummary row : rows) {
+            keys.add(row.getDate() + "/" + row.getTxId());
+        }
+        return keys;
+    }
+
+    private static TransactionPageRequest page(int limit, String cursor) {
+        TransactionPageRequest request = new TransactionPageRequest();
+        request.setLimit(limit);
+        request.setCursor(cursor);
+        return request;
+    }
+
+    private static SaveTransactionRequest request(String msg, String date) {
+        SaveTransactionRequest request = new SaveTransactionRequest();
+        request.setMsg(msg);
+        request.setBankName("HDFC");
+        request.setAmount(new BigDecimal("500.00"));
+        request.setDate(date);
+        return request;
+    }
+
+    private static SaveTransactionRequest bankNamed(String msg, String bankName) {
+        SaveTransactionRequest request = request(msg, "2024-01-01");
+        request.setBankName(bankName);
+        return request;
+    }
+}
@@ -0,0 +1,119 @@
+package com.bankingparser.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Every key occurrence is reported, case-insensitively, and the longest match breaks ties by start
+ */
+class AhoCorasickTest {
+
+    @Test
+    void reportsOverlappingAndNestedKeys() {
+        AhoCorasick<String> automaton = automaton("he", "she", "his", "hers");
+        assertEquals(List.of("1-4 she", "2-4 he", "2-6 hers"), occurrences(automaton, "ushers"));
+        assertEquals(List.of("0-2 he", "0-4 hers", "3-6 she", "4-6 he"), occurrences(automaton, "hershe"));
+    }
+
+    @Test
+    void foldsCaseOfKeysAndText() {
+        AhoCorasick<String> automaton = automaton("HDFC", "sbi");
+        assertEquals(List.of("3-7 HDFC"), occurrences(automaton, "ad-hdfcbk"));
+        assertEquals(List.of("0-3 sbi"), occurrences(automaton, "SbI"));
+        assertEquals(AhoCorasick.fold("hdfc"), AhoCorasick.fold("HdFc"));
+    }
+
+    @Test
+    void keysThatFoldAlikeAreOneKeyAndTheFirstValueWins() {
+        AhoCorasick<String> automaton = AhoCorasick.<String>builder()
+                .add("Axis", "first")
+                .add("AXIS", "second")
+                .add("", "empty")
+                .build();
+        assertEquals(1, automaton.size());
+        assertEquals("first", automaton.longestMatch("vm-axisbk"));
+    }
+
+    @Test
+    void longestMatchPrefersLengthThenEarliestStart() {
+        AhoCorasick<String> automaton = automaton("SBI", "SBI CARD", "HDFC", "AXIS");
+        assertEquals("SBI CARD", automaton.longestMatch("SBI CARD ALERT"));
+        assertEquals("SBI CARD", automaton.longestMatch("SBI via SBI CARD"));
+        assertEquals("HDFC", automaton.longestMatch("HDFC to AXIS"));
+        assertEquals("AXIS", automaton.longestMatch("AXIS to HDFC"));
+        assertNull(automaton.longestMatch("ICICI"));
+        assertNull(automaton.longestMatch(null));
+    }
+
+    @Test
+    void containsAnyStopsAtTheFirstHit() {
+        AhoCorasick<String> automaton = automaton("debited", "credited");
+        assertTrue(automaton.containsAny("Rs 500 CREDITED to A/c"));
+        assertFalse(automaton.containsAny("Avl Bal Rs 500"));
+        assertFalse(AhoCorasick.<String>builder().build().containsAny("anything"));
+    }
+
+    @Test
+    void findsTheSameOccurrencesAsIndexOf() {
+        Random random = new Random(7);
+        for (int round = 0; round < 200; round++) {
+            List<String> keys = new ArrayList<>();
+            AhoCorasick.Builder<String> builder = AhoCorasick.builder();
+            for (int i = 0; i < 1 + random.nextInt(20); i++) {
+                String key = randomText(random, 1 + random.nextInt(4), "ab");
+                if (!keys.contains(key)) {
+                    keys.add(key);
+                    builder.add(key, key);
+                }
+            }
+            AhoCorasick<String> automaton = builder.build();
+            String text = randomText(random, random.nextInt(40), "abAB");
+            assertEquals(bruteForce(keys, text), occurrences(automaton, text), text + " " + keys);
+        }
+    }
+
+    private static AhoCorasick<String> automaton(String... keys) {
+        AhoCorasick.Builder<String> builder = AhoCorasick.builder();
+        for (String key : keys) {
+            builder.add(key, key);
+        }
+        return builder.build();
+    }
+
+    private static List<String> occurrences(AhoCorasick<String> automaton, String text) {
+        List<String> found = new ArrayList<>();
+        automaton.search(text, (start, end, value) -> found.add(start + "-" + end + " " + value));
+        found.sort(null);
+        return found;
+    }
+
+    private static List<String> bruteForce(List<String> keys, String text) {
+        List<String> found = new ArrayList<>();
+        String folded = AhoCorasick.fold(text);
+        for (String key : keys) {
+            String foldedKey = AhoCorasick.fold(key);
+            for (int at = folded.indexOf(foldedKey); at >= 0; at = folded.indexOf(foldedKey, at + 1)) {
+                found.add(at + "-" + (at + key.length()) + " " + key);
+            }
+        }
+        found.sort(null);
+        return found;
+    }
+
+    // Small alphabet so keys overlap and share prefixes often
+    private static String randomText(Random random, int length, String alphabet) {
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return text.toString();
+    }
+}
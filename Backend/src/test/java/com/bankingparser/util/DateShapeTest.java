@@ -0,0 +1,115 @@
+package com.bankingparser.util;
+
+import com.bankingparser.dto.ExtractedFieldsResponse;
+import com.bankingparser.parser.ExtractionPlan;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Differential test of DateShape against the DateTimeFormatter list it replaced
+ */
+class DateShapeTest {
+
+    // TransactionService.parseDate before DateShape, tried in this order
+    private static final List<DateTimeFormatter> LEGACY = List.of(
+            "d-MMM-yy", "d-MMM-yyyy", "dd-MMM-yy", "dd-MMM-yyyy",
+            "dMMMyy", "ddMMMyy", "dMMMyyyy", "ddMMMyyyy",
+            "yyyy-MM-dd", "dd/MM/yyyy", "dd/MM/yy", "d/M/yyyy", "d/M/yy"
+    ).stream().map(pattern -> DateTimeFormatter.ofPattern(pattern, Locale.ENGLISH)).toList();
+
+    private static final List<String> DATES = List.of(
+            "10-Jan-26", "10-Jan-2026", "1-Feb-26", "01-Feb-2026", "010-Jan-26",
+            "14Jan26", "14Jan2026", "4Mar26", "04Mar2026",
+            "2026-01-10", "2026-1-10", "2026-01-1", "0000-01-10",
+            "10/01/2026", "10/01/26", "1/1/2026", "1/1/26", "001/01/26", "1/001/2026",
+            // Two-digit years are 20yy; three, five or more digits are not a year
+            "1-Jan-00", "1-Jan-99", "1-Jan-999", "1-Jan-20266", "1/1/202",
+            // Day past the month end is clamped; day or month out of range is rejected
+            "31-Feb-26", "29-Feb-24", "30/02/2025", "31-Apr-2026", "32-Jan-26", "0-Jan-26", "1/13/26", "1/0/26",
+            "10-Jam-26", "10-Jan26", "10Jan-26", "10 Jan 26", "10-Jan-26 ", " 10-Jan-26",
+            "10.01.2026", "2026/01/10", "Jan-10-26", "", "-", "/", "10", "10-", "10/01/"
+    );
+
+    @Test
+    void agreesWithTheFormatterListOnKnownDates() {
+        for (String date : DATES) {
+            assertEquals(legacy(date), DateShape.parseAny(date), date);
+        }
+    }
+
+    @Test
+    void agreesWithTheFormatterListOnRandomText() {
+        String[] pieces = {"0", "1", "2", "9", "10", "12", "26", "29", "31", "2026", "2024", "-", "-", "/", "/",
+                "Jan", "Feb", "Dec", "Sep", "Xyz", "J", " "};
+        Random random = new Random(17);
+        for (int n = 0; n < 20_000; n++) {
+            StringBuilder date = new StringBuilder();
+            int length = 1 + random.nextInt(6);
+            for (int i = 0; i < length; i++) {
+                date.append(pieces[random.nextInt(pieces.length)]);
+            }
+            assertEquals(legacy(date.toString()), DateShape.parseAny(date), date::toString);
+        }
+    }
+
+    @Test
+    void acceptsMonthNamesInAnyCase() {
+        // The formatter list only took "Jan"
+        assertNull(legacy("10-JAN-26"));
+        assertEquals(LocalDate.of(2026, 1, 10), DateShape.parseAny("10-JAN-26"));
+        assertEquals(LocalDate.of(2026, 1, 14), DateShape.parseAny("14jan2026"));
+    }
+
+    @Test
+    void parsesARangeOfALongerText() {
+        String sms = "debited on 31-Dec-25 at 10:02";
+        DateShape shape = DateShape.classify(sms, 11, 20);
+        assertEquals(DateShape.DAY_MONTH_NAME_DASHED, shape);
+        assertEquals(LocalDate.of(2025, 12, 31), shape.parse(sms, 11, 20));
+        // A remembered shape that does not fit just fails
+        assertNull(DateShape.ISO.parse(sms, 11, 20));
+    }
+
+    @Test
+    void extractionNormalizesToIsoAndPassesUnknownLayoutsThrough() {
+        ExtractionPlan plan = ExtractionPlan.forPattern(Pattern.compile("on (?<date>\\S+)"));
+        assertEquals("2026-01-10", extractedDate(plan, "debited on 10-Jan-26"));
+        assertEquals("2026-01-14", extractedDate(plan, "debited on 14JAN26"));
+        assertEquals("2026-01-01", extractedDate(plan, "debited on 1/1/26"));
+        // After the plan learned the day-month-name shape, other layouts still decode
+        assertEquals("2026-01-10", extractedDate(plan, "debited on 2026-01-10"));
+        assertEquals("10.01.2026", extractedDate(plan, "debited on 10.01.2026"));
+        assertEquals("31-Feb-26x", extractedDate(plan, "debited on 31-Feb-26x"));
+    }
+
+    private static String extractedDate(ExtractionPlan plan, String sms) {
+        Matcher matcher = Pattern.compile("on (?<date>\\S+)").matcher(sms);
+        assertTrue(matcher.find(), sms);
+        ExtractedFieldsResponse response = new ExtractedFieldsResponse();
+        plan.apply(matcher, sms, response);
+        return response.getDate();
+    }
+
+    private static LocalDate legacy(String date) {
+        for (DateTimeFormatter formatter : LEGACY) {
+            try {
+                return LocalDate.parse(date, formatter);
+            } catch (DateTimeParseException e) {
+                // Try the next layout
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,121 @@
+package com.bankingparser.util;
+
+import com.bankingparser.dto.ExtractedFieldsResponse;
+import com.bankingparser.model.Transaction;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Paise decoding, and the decimal amounts clients and the database keep seeing
+ */
+class MinorUnitsTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void decodesGroupedAmounts() {
+        assertEquals(50000L, MinorUnits.parse("500"));
+        assertEquals(10000050L, MinorUnits.parse("1,00,000.50"));
+        assertEquals(10000050L, MinorUnits.parse("100,000.50"));
+        assertEquals(10000050L, MinorUnits.parse("100000.50"));
+        assertEquals(50000L, MinorUnits.parse("500."));
+        assertEquals(50L, MinorUnits.parse(".5"));
+        assertEquals(0L, MinorUnits.parse("0.00"));
+    }
+
+    @Test
+    void decodesARangeOfTheMatchedInput() {
+        String sms = "Rs.1,250.75 debited";
+        assertEquals(125075L, MinorUnits.parse(sms, 3, 11));
+        assertEquals(MinorUnits.NONE, MinorUnits.parse(sms, 0, 11));
+        assertEquals(MinorUnits.NONE, MinorUnits.parse(sms, 3, 3));
+    }
+
+    @Test
+    void scalesOneDecimalAndRoundsThreeHalfUp() {
+        assertEquals(50050L, MinorUnits.parse("500.5"));
+        assertEquals(50001L, MinorUnits.parse("500.005"));
+        assertEquals(50000L, MinorUnits.parse("500.004"));
+        assertEquals(50100L, MinorUnits.parse("500.9951"));
+        assertEquals(new BigDecimal("500.01"), MinorUnits.toDecimal(MinorUnits.parse("500.005")));
+    }
+
+    @Test
+    void keepsTheSign() {
+        assertEquals(-50000L, MinorUnits.parse("-500"));
+        assertEquals(-10000050L, MinorUnits.parse("-1,00,000.50"));
+        assertEquals(50000L, MinorUnits.parse("+500"));
+        // Half up rounds away from zero, as BigDecimal does
+        assertEquals(-1L, MinorUnits.parse("-0.005"));
+        assertNull(MinorUnits.parse("-"));
+        assertNull(MinorUnits.parse("5-00"));
+        assertNull(MinorUnits.parse("--500"));
+    }
+
+    @Test
+    void rejectsCurrencyPrefixesAndOtherText() {
+        // The amount group must hold the number only, as with the BigDecimal parse before
+        assertNull(MinorUnits.parse("Rs.500"));
+        assertNull(MinorUnits.parse("Rs 500"));
+        assertNull(MinorUnits.parse("INR 500.00"));
+        assertNull(MinorUnits.parse("INR500"));
+        assertNull(MinorUnits.parse("500 INR"));
+        assertNull(MinorUnits.parse("5.00.00"));
+        assertNull(MinorUnits.parse("1e3"));
+        assertNull(MinorUnits.parse(","));
+        assertNull(MinorUnits.parse(""));
+        assertNull(MinorUnits.parse(null));
+    }
+
+    @Test
+    void rejectsAmountsThatDoNotFitALong() {
+        assertEquals(9000000000000000099L, MinorUnits.parse("90,00,00,00,00,00,00,000.99"));
+        assertNull(MinorUnits.parse("92233720368547758.08"));
+        assertNull(MinorUnits.parse("99999999999999999999"));
+        assertNull(MinorUnits.parse("-99999999999999999999"));
+        // Only the integer part can overflow; extra fraction digits are dropped
+        assertEquals(100L, MinorUnits.parse("1.00" + "0".repeat(40)));
+    }
+
+    @Test
+    void writesDecimalAmountsToJson() throws Exception {
+        ExtractedFieldsResponse response = new ExtractedFieldsResponse();
+        response.setAmountPaise(50000L);
+        response.setAvailableBalancePaise(10000050L);
+        String json = objectMapper.writeValueAsString(response);
+        assertTrue(json.contains("\"amount\":500.00"), json);
+        assertTrue(json.contains("\"availableBalance\":100000.50"), json);
+        assertTrue(!json.contains("Paise"), json);
+
+        response.setAmountPaise(null);
+        assertTrue(objectMapper.writeValueAsString(response).contains("\"amount\":null"));
+
+        Transaction transaction = new Transaction();
+        transaction.setAmountPaise(-1999L);
+        assertTrue(objectMapper.writeValueAsString(transaction).contains("\"amount\":-19.99"));
+    }
+
+    @Test
+    void readsDecimalAmountsFromJson() throws Exception {
+        assertEquals(50000L, objectMapper.readValue("{\"amount\":500}", ExtractedFieldsResponse.class).getAmountPaise());
+        assertEquals(50050L, objectMapper.readValue("{\"amount\":\"500.5\"}", ExtractedFieldsResponse.class).getAmountPaise());
+        assertEquals(50001L, objectMapper.readValue("{\"amount\":500.005}", ExtractedFieldsResponse.class).getAmountPaise());
+        assertNull(objectMapper.readValue("{\"amount\":null}", ExtractedFieldsResponse.class).getAmountPaise());
+    }
+
+    @Test
+    void storesPaiseInTheDecimalColumn() {
+        MinorUnitsConverter converter = new MinorUnitsConverter();
+        assertEquals(new BigDecimal("500.00"), converter.convertToDatabaseColumn(50000L));
+        assertEquals(50050L, converter.convertToEntityAttribute(new BigDecimal("500.5")));
+        assertEquals(50000L, converter.convertToEntityAttribute(new BigDecimal("500.00")));
+        assertNull(converter.convertToDatabaseColumn(null));
+        assertNull(converter.convertToEntityAttribute(null));
+    }
+}